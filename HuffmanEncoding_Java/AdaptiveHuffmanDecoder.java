@@ -0,0 +1,260 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: AdaptiveHuffmanDecoder.java
+ * Date: 10/18/2026
+ * Purpose: Reads the output of AdaptiveHuffmanEncoder, updating its tree after
+ *          every byte the same way the encoder did. The compressed stream is read
+ *          one byte at a time and never past the symbol being decoded, so after
+ *          the encoder flushes, every byte written before the flush can be read
+ *          without blocking on data that has not been sent yet.
+ */
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+public class AdaptiveHuffmanDecoder extends InputStream
+{
+    //where the compressed bytes come from
+    private final InputStream in;
+
+    //the tree, kept in step with the encoder's
+    private final AdaptiveHuffmanTree tree = new AdaptiveHuffmanTree();
+
+    //the compressed byte being read and how many of its bits are left
+    private int current = 0;
+    private int bitsLeft = 0;
+
+    //the byte and bits left when the symbol being decoded began
+    private int markCurrent = 0;
+    private int markBitsLeft = 0;
+
+    //bytes read from in since the symbol being decoded began, so a symbol whose
+    //bits have not all arrived can be given up and decoded again later
+    private byte[] pending = new byte[16];
+    private int pendingCount = 0;
+    private int pendingPosition = 0;
+
+    //returned by decode when it stops rather than wait for input
+    private static final int WOULD_BLOCK = -2;
+
+    //true once the end marker has been read
+    private boolean finished = false;
+
+    /*
+     * Constructor
+     * Purpose: creates a decoder that reads from in
+     * Parameters: InputStream in - where the compressed bytes are read from
+     * */
+    public AdaptiveHuffmanDecoder(InputStream in)
+    {
+        this.in = in;
+    }
+
+    /*
+     * Method: read
+     * Purpose: decodes the next byte
+     * Parameters: none
+     * Returns: int - the byte, or -1 at the end of the stream
+     * */
+    @Override
+    public int read() throws IOException
+    {
+        return decode(true);
+    }
+
+    /*
+     * Method: read
+     * Purpose: decodes up to length bytes, stopping early rather than block once at
+     *          least one byte has been read and no more input is available
+     * Parameters: byte[] b - where the bytes are put
+     *             int offset - the index of the first byte
+     *             int length - the most bytes to read
+     * Returns: int - the number of bytes read, or -1 at the end of the stream
+     * */
+    @Override
+    public int read(byte[] b, int offset, int length) throws IOException
+    {
+        if (length == 0)
+        {
+            return 0;
+        }
+        int count = 0;
+        while (count < length)
+        {
+            int value = decode(count == 0);
+            if (value < 0)
+            {
+                break;
+            }
+            b[offset + count++] = (byte) value;
+        }
+        return count == 0 ? -1 : count;
+    }
+
+    /*
+     * Method: decode
+     * Purpose: decodes the next byte, skipping flush markers
+     * Parameters: boolean block - false to give up on a symbol, and start it over on
+     *                             the next call, when more of its bits are needed and
+     *                             the input has nothing more available yet
+     * Returns: int - the byte, -1 at the end of the stream, or WOULD_BLOCK
+     * */
+    private int decode(boolean block) throws IOException
+    {
+        while (!finished)
+        {
+            markSymbol();
+            int node = tree.getRoot();
+            while (!tree.isLeaf(node))
+            {
+                int bit = readBit(block);
+                if (bit == WOULD_BLOCK)
+                {
+                    return rewind();
+                }
+                if (bit < 0)
+                {
+                    return endOfInput(node);
+                }
+                node = tree.getChild(node, bit);
+            }
+            if (node != tree.getNyt())
+            {
+                int sym = tree.getSymbol(node);
+                tree.update(sym);
+                return sym;
+            }
+            int value = 0;
+            for (int i = 0; i < AdaptiveHuffmanTree.ESCAPE_BITS; i++)
+            {
+                int bit = readBit(block);
+                if (bit == WOULD_BLOCK)
+                {
+                    return rewind();
+                }
+                if (bit < 0)
+                {
+                    return i == 0 ? endOfInput(node) : endOfInput(-1);
+                }
+                value = (value << 1) | bit;
+            }
+            if (value == AdaptiveHuffmanTree.FLUSH)
+            {
+                //the rest of this byte is padding
+                bitsLeft = 0;
+            }
+            else if (value == AdaptiveHuffmanTree.END)
+            {
+                finished = true;
+            }
+            else if (value < AdaptiveHuffmanTree.SYMBOL_COUNT && tree.getLeaf(value) < 0)
+            {
+                tree.update(value);
+                return value;
+            }
+            else
+            {
+                throw new IOException("Invalid escape value " + value);
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * Method: close
+     * Purpose: closes the underlying stream
+     * Parameters: none
+     * Returns: void
+     * */
+    @Override
+    public void close() throws IOException
+    {
+        in.close();
+    }
+
+    /*
+     * Method: readBit
+     * Purpose: reads the next bit, fetching a new byte only when the last is used up
+     * Parameters: boolean block - false to return WOULD_BLOCK rather than wait for a byte
+     * Returns: int - the bit, -1 at the end of the input, or WOULD_BLOCK
+     * */
+    private int readBit(boolean block) throws IOException
+    {
+        if (bitsLeft == 0)
+        {
+            if (pendingPosition < pendingCount)
+            {
+                current = pending[pendingPosition++] & 0xFF;
+            }
+            else
+            {
+                if (!block && in.available() == 0)
+                {
+                    return WOULD_BLOCK;
+                }
+                current = in.read();
+                if (current < 0)
+                {
+                    return -1;
+                }
+                if (pendingCount == pending.length)
+                {
+                    pending = Arrays.copyOf(pending, pending.length * 2);
+                }
+                pending[pendingCount++] = (byte) current;
+                pendingPosition++;
+            }
+            bitsLeft = 8;
+        }
+        bitsLeft--;
+        return (current >>> bitsLeft) & 1;
+    }
+
+    /*
+     * Method: markSymbol
+     * Purpose: remembers where the next symbol begins, dropping the bytes already decoded
+     * Parameters: none
+     * Returns: void
+     * */
+    private void markSymbol()
+    {
+        System.arraycopy(pending, pendingPosition, pending, 0, pendingCount - pendingPosition);
+        pendingCount -= pendingPosition;
+        pendingPosition = 0;
+        markCurrent = current;
+        markBitsLeft = bitsLeft;
+    }
+
+    /*
+     * Method: rewind
+     * Purpose: goes back to where the symbol being decoded began
+     * Parameters: none
+     * Returns: int - WOULD_BLOCK
+     * */
+    private int rewind()
+    {
+        pendingPosition = 0;
+        current = markCurrent;
+        bitsLeft = markBitsLeft;
+        return WOULD_BLOCK;
+    }
+
+    /*
+     * Method: endOfInput
+     * Purpose: handles the input running out. A stream cut off between symbols, as
+     *          when the encoder was flushed but never closed, simply ends.
+     * Parameters: int node - the node reached when the input ran out
+     * Returns: int - -1 for the end of the stream
+     * */
+    private int endOfInput(int node) throws IOException
+    {
+        if (node != tree.getRoot())
+        {
+            throw new EOFException("Stream ended in the middle of a symbol");
+        }
+        finished = true;
+        return -1;
+    }
+}
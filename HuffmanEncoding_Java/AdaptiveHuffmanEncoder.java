@@ -0,0 +1,185 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: AdaptiveHuffmanEncoder.java
+ * Date: 10/18/2026
+ * Purpose: Compresses bytes in a single pass with adaptive Huffman coding, for
+ *          data such as live logs that arrive a little at a time. There is no
+ *          header and no counting pass: each byte is coded with the tree built
+ *          from the bytes before it, and then the tree is updated.
+ *
+ *          Every complete byte of output is handed to the underlying stream at
+ *          the end of each write, so at most seven bits of a symbol are held back.
+ *          flush sends those too, padded to a byte boundary that the decoder
+ *          knows to skip, and close marks the end of the stream.
+ *          AdaptiveHuffmanDecoder reads the result.
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class AdaptiveHuffmanEncoder extends OutputStream
+{
+    //where the compressed bytes go
+    private final OutputStream out;
+
+    //the tree, which the decoder rebuilds in step
+    private final AdaptiveHuffmanTree tree = new AdaptiveHuffmanTree();
+
+    //bits waiting to be handed to out
+    private final BitWriter writer = new BitWriter(8192);
+
+    //scratch space for the bits of one code
+    private final int[] path = new int[AdaptiveHuffmanTree.getMaxDepth()];
+
+    //true once close has been called
+    private boolean closed = false;
+
+    /*
+     * Constructor
+     * Purpose: creates an encoder that writes to out
+     * Parameters: OutputStream out - where the compressed bytes are written
+     * */
+    public AdaptiveHuffmanEncoder(OutputStream out)
+    {
+        this.out = out;
+    }
+
+    /*
+     * Method: write
+     * Purpose: compresses one byte
+     * Parameters: int b - the byte, in the low 8 bits
+     * Returns: void
+     * */
+    @Override
+    public void write(int b) throws IOException
+    {
+        ensureOpen();
+        encode(b & 0xFF);
+        writer.drainTo(out);
+    }
+
+    /*
+     * Method: write
+     * Purpose: compresses a chunk of bytes and hands every complete output byte to the stream
+     * Parameters: byte[] chunk - the bytes
+     *             int offset - the index of the first byte
+     *             int length - the number of bytes
+     * Returns: void
+     * */
+    @Override
+    public void write(byte[] chunk, int offset, int length) throws IOException
+    {
+        ensureOpen();
+        for (int i = offset; i < offset + length; i++)
+        {
+            encode(chunk[i] & 0xFF);
+        }
+        writer.drainTo(out);
+    }
+
+    /*
+     * Method: flush
+     * Purpose: sends every bit written so far, so the decoder can read all the bytes
+     *          up to here without waiting for more. Costs the NYT code and ESCAPE_BITS
+     *          bits plus padding, so it is meant for pauses in the data.
+     * Parameters: none
+     * Returns: void
+     * */
+    @Override
+    public void flush() throws IOException
+    {
+        ensureOpen();
+        escape(AdaptiveHuffmanTree.FLUSH);
+        writer.padToByte();
+        writer.drainTo(out);
+        out.flush();
+    }
+
+    /*
+     * Method: close
+     * Purpose: marks the end of the stream, sends the last bits, and closes the underlying stream
+     * Parameters: none
+     * Returns: void
+     * */
+    @Override
+    public void close() throws IOException
+    {
+        if (closed)
+        {
+            return;
+        }
+        escape(AdaptiveHuffmanTree.END);
+        writer.padToByte();
+        writer.drainTo(out);
+        closed = true;
+        out.close();
+    }
+
+    /*
+     * Method: encode
+     * Purpose: writes the code of one byte and updates the tree
+     * Parameters: int sym - the byte, between 0 and 255
+     * Returns: void
+     * */
+    private void encode(int sym)
+    {
+        int leaf = tree.getLeaf(sym);
+        if (leaf < 0)
+        {
+            escape(sym);
+        }
+        else
+        {
+            writeCode(leaf);
+        }
+        tree.update(sym);
+    }
+
+    /*
+     * Method: escape
+     * Purpose: writes the NYT code followed by a raw value
+     * Parameters: int value - a byte seen for the first time, FLUSH, or END
+     * Returns: void
+     * */
+    private void escape(int value)
+    {
+        writeCode(tree.getNyt());
+        writer.write(value, AdaptiveHuffmanTree.ESCAPE_BITS);
+    }
+
+    /*
+     * Method: writeCode
+     * Purpose: writes the code of a node, root end first
+     * Parameters: int node - the node
+     * Returns: void
+     * */
+    private void writeCode(int node)
+    {
+        int length = tree.getCode(node, path);
+        //the path comes back leaf end first, so take it from the back in groups of up to 32 bits
+        while (length > 0)
+        {
+            int group = Math.min(length, 32);
+            long bits = 0;
+            for (int i = 0; i < group; i++)
+            {
+                bits = (bits << 1) | path[--length];
+            }
+            writer.write(bits, group);
+        }
+    }
+
+    /*
+     * Method: ensureOpen
+     * Purpose: throws if close has been called
+     * Parameters: none
+     * Returns: void
+     * */
+    private void ensureOpen() throws IOException
+    {
+        if (closed)
+        {
+            throw new IOException("Encoder is closed");
+        }
+    }
+}
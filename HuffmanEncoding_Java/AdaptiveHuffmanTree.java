@@ -0,0 +1,257 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: AdaptiveHuffmanTree.java
+ * Date: 10/18/2026
+ * Purpose: The tree shared by AdaptiveHuffmanEncoder and AdaptiveHuffmanDecoder,
+ *          updated after every symbol with the FGK algorithm. Both sides start
+ *          from a tree holding only the NYT ("not yet transmitted") node and make
+ *          the same update for each symbol, so they always agree on the codes
+ *          without a header or a counting pass.
+ *
+ *          A symbol seen for the first time is sent as the code of the NYT node
+ *          followed by ESCAPE_BITS raw bits, and the NYT node is split into a new
+ *          NYT node and a leaf for the symbol. The raw values FLUSH and END are
+ *          not bytes; they mark a flush, after which the stream is padded to a
+ *          byte boundary, and the end of the stream.
+ *
+ *          Like ArrayHuffmanTree the nodes live in parallel arrays. A node's index
+ *          is its number in the sibling property: weights never decrease as the
+ *          index goes up and every parent comes after its children.
+ */
+
+import java.util.Arrays;
+
+public class AdaptiveHuffmanTree
+{
+    //the number of symbols that can be sent, the 256 byte values
+    public static final int SYMBOL_COUNT = 256;
+
+    //raw values sent after the NYT code
+    public static final int FLUSH = 256;
+    public static final int END = 257;
+
+    //the number of raw bits sent after the NYT code
+    public static final int ESCAPE_BITS = 9;
+
+    //a tree with every symbol has one leaf per symbol, the NYT leaf, and an internal node per symbol
+    private static final int NODE_COUNT = 2 * SYMBOL_COUNT + 1;
+
+    //the root, which never moves
+    private static final int ROOT = NODE_COUNT - 1;
+
+    //the weight of each node
+    private final long[] weight = new long[NODE_COUNT];
+
+    //the parent of each node, -1 for the root
+    private final int[] parent = new int[NODE_COUNT];
+
+    //the children of each node, -1 for leaves
+    private final int[] left = new int[NODE_COUNT];
+    private final int[] right = new int[NODE_COUNT];
+
+    //the symbol of each leaf, -1 for internal nodes and the NYT node
+    private final int[] symbol = new int[NODE_COUNT];
+
+    //the leaf of each symbol, -1 until the symbol has been seen
+    private final int[] leafOf = new int[SYMBOL_COUNT];
+
+    //the node for symbols not yet seen
+    private int nyt = ROOT;
+
+    /*
+     * Constructor
+     * Purpose: creates a tree holding only the NYT node
+     * */
+    public AdaptiveHuffmanTree()
+    {
+        Arrays.fill(parent, -1);
+        Arrays.fill(left, -1);
+        Arrays.fill(right, -1);
+        Arrays.fill(symbol, -1);
+        Arrays.fill(leafOf, -1);
+    }
+
+    /*
+     * Method: getRoot
+     * Purpose: returns the root node
+     * Parameters: none
+     * Returns: int - the root
+     * */
+    public int getRoot()
+    {
+        return ROOT;
+    }
+
+    /*
+     * Method: getNyt
+     * Purpose: returns the NYT node
+     * Parameters: none
+     * Returns: int - the node whose code comes before a symbol seen for the first time
+     * */
+    public int getNyt()
+    {
+        return nyt;
+    }
+
+    /*
+     * Method: getLeaf
+     * Purpose: returns the leaf of a symbol
+     * Parameters: int sym - the symbol
+     * Returns: int - its leaf, or -1 if it has not been seen yet
+     * */
+    public int getLeaf(int sym)
+    {
+        return leafOf[sym];
+    }
+
+    /*
+     * Method: getSymbol
+     * Purpose: returns the symbol of a leaf
+     * Parameters: int node - the node
+     * Returns: int - the symbol, or -1 for internal nodes and the NYT node
+     * */
+    public int getSymbol(int node)
+    {
+        return symbol[node];
+    }
+
+    /*
+     * Method: isLeaf
+     * Purpose: returns true if the node has no children, which includes the NYT node
+     * Parameters: int node - the node
+     * Returns: boolean - true for leaves
+     * */
+    public boolean isLeaf(int node)
+    {
+        return left[node] < 0;
+    }
+
+    /*
+     * Method: getChild
+     * Purpose: returns the child reached by one bit of a code
+     * Parameters: int node - an internal node
+     *             int bit - 0 for the left child, 1 for the right child
+     * Returns: int - the child
+     * */
+    public int getChild(int node, int bit)
+    {
+        return bit == 0 ? left[node] : right[node];
+    }
+
+    /*
+     * Method: getCode
+     * Purpose: finds the code of a node by walking up to the root
+     * Parameters: int node - the node
+     *             int[] path - filled with the bits of the code, last bit first
+     * Returns: int - the length of the code
+     * */
+    public int getCode(int node, int[] path)
+    {
+        int length = 0;
+        while (node != ROOT)
+        {
+            int up = parent[node];
+            path[length++] = right[up] == node ? 1 : 0;
+            node = up;
+        }
+        return length;
+    }
+
+    /*
+     * Method: getMaxDepth
+     * Purpose: returns the longest code the tree could have, the size getCode needs
+     * Parameters: none
+     * Returns: int - the number of nodes
+     * */
+    public static int getMaxDepth()
+    {
+        return NODE_COUNT;
+    }
+
+    /*
+     * Method: update
+     * Purpose: counts one more of sym, adding its leaf if it is new and then swapping
+     *          nodes on the way up so the tree keeps the sibling property
+     * Parameters: int sym - the symbol that was just sent
+     * Returns: void
+     * */
+    public void update(int sym)
+    {
+        int node = leafOf[sym];
+        if (node < 0)
+        {
+            //the old NYT node becomes the parent of the new NYT node and the new leaf
+            int split = nyt;
+            nyt = split - 2;
+            node = split - 1;
+            left[split] = nyt;
+            right[split] = node;
+            parent[nyt] = split;
+            parent[node] = split;
+            symbol[node] = sym;
+            leafOf[sym] = node;
+        }
+        while (node != ROOT)
+        {
+            //the highest numbered node of the same weight, unless it is the parent
+            int leader = node;
+            while (leader + 1 < ROOT && weight[leader + 1] == weight[node])
+            {
+                leader++;
+            }
+            if (leader != node && leader != parent[node])
+            {
+                swap(node, leader);
+                node = leader;
+            }
+            weight[node]++;
+            node = parent[node];
+        }
+        weight[ROOT]++;
+    }
+
+    /*
+     * Method: swap
+     * Purpose: swaps the subtrees at two positions. The positions keep their parents
+     *          and the subtrees move, so only the links below them are fixed up.
+     * Parameters: int a - one node
+     *             int b - the other node
+     * Returns: void
+     * */
+    private void swap(int a, int b)
+    {
+        long w = weight[a];
+        weight[a] = weight[b];
+        weight[b] = w;
+        int l = left[a];
+        left[a] = left[b];
+        left[b] = l;
+        int r = right[a];
+        right[a] = right[b];
+        right[b] = r;
+        int s = symbol[a];
+        symbol[a] = symbol[b];
+        symbol[b] = s;
+        relink(a);
+        relink(b);
+    }
+
+    /*
+     * Method: relink
+     * Purpose: points the children or the symbol of a node back at it after a swap
+     * Parameters: int node - the node that received a new subtree
+     * Returns: void
+     * */
+    private void relink(int node)
+    {
+        if (left[node] >= 0)
+        {
+            parent[left[node]] = node;
+            parent[right[node]] = node;
+        }
+        else if (symbol[node] >= 0)
+        {
+            leafOf[symbol[node]] = node;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: ArrayHuffmanTree.java
+ * Date: 10/18/2026
+ * Purpose: A Huffman tree stored in parallel arrays instead of linked
+ *          HuffmanTreeNode objects, built with the two queue method. The symbols
+ *          are sorted by weight once; after that the two lightest nodes are always
+ *          at the front of either the sorted leaves or the internal nodes made so
+ *          far, because each new internal node is at least as heavy as the one
+ *          before it. Building is a sort and then a single linear pass, with no
+ *          heap and one allocation per array.
+ *
+ *          Nodes 0 to n-1 are the leaves, in the same order as the weights that
+ *          were passed in, and nodes n to 2n-2 are the internal nodes in the order
+ *          they were made, so the root is always the last node.
+ */
+
+import java.util.Arrays;
+
+public class ArrayHuffmanTree
+{
+    //the number of leaves
+    private final int leafCount;
+
+    //the weight of each node
+    private final long[] weight;
+
+    //the parent of each node, -1 for the root
+    private final int[] parent;
+
+    //the children of each node, -1 for leaves
+    private final int[] left;
+    private final int[] right;
+
+    /*
+     * Constructor
+     * Purpose: builds the tree for the given weights
+     * Parameters: long[] weights - the weight of each symbol
+     *             int count - the number of symbols, at least 1
+     * */
+    public ArrayHuffmanTree(long[] weights, int count)
+    {
+        if (count < 1)
+        {
+            throw new IllegalArgumentException("A tree needs at least one symbol");
+        }
+        leafCount = count;
+        int nodeCount = 2 * count - 1;
+        weight = new long[nodeCount];
+        parent = new int[nodeCount];
+        left = new int[nodeCount];
+        right = new int[nodeCount];
+        System.arraycopy(weights, 0, weight, 0, count);
+        Arrays.fill(parent, -1);
+        Arrays.fill(left, -1);
+        Arrays.fill(right, -1);
+
+        int[] order = sortByWeight(weights, count);
+        int nextLeaf = 0;
+        int nextInternal = count;
+        for (int node = count; node < nodeCount; node++)
+        {
+            int first;
+            if (nextInternal == node || (nextLeaf < count && weight[order[nextLeaf]] <= weight[nextInternal]))
+            {
+                first = order[nextLeaf++];
+            }
+            else
+            {
+                first = nextInternal++;
+            }
+            int second;
+            if (nextInternal == node || (nextLeaf < count && weight[order[nextLeaf]] <= weight[nextInternal]))
+            {
+                second = order[nextLeaf++];
+            }
+            else
+            {
+                second = nextInternal++;
+            }
+            weight[node] = weight[first] + weight[second];
+            left[node] = first;
+            right[node] = second;
+            parent[first] = node;
+            parent[second] = node;
+        }
+    }
+
+    /*
+     * Method: sortByWeight
+     * Purpose: returns the positions of the symbols in order of weight, lightest first.
+     *          When the weights and positions fit together in a long they are sorted
+     *          as plain longs so no boxing is needed.
+     * Parameters: long[] weights - the weight of each symbol
+     *             int count - the number of symbols
+     * Returns: int[] - the positions of the symbols sorted by weight
+     * */
+    private static int[] sortByWeight(long[] weights, int count)
+    {
+        int indexBits = 32 - Integer.numberOfLeadingZeros(Math.max(count - 1, 1));
+        long maxWeight = 0;
+        for (int i = 0; i < count; i++)
+        {
+            if (weights[i] < 0)
+            {
+                throw new IllegalArgumentException("Weight " + weights[i] + " is negative");
+            }
+            maxWeight = Math.max(maxWeight, weights[i]);
+        }
+        int[] order = new int[count];
+        if (64 - Long.numberOfLeadingZeros(maxWeight) + indexBits < 64)
+        {
+            long[] keys = new long[count];
+            for (int i = 0; i < count; i++)
+            {
+                keys[i] = weights[i] << indexBits | i;
+            }
+            Arrays.sort(keys);
+            long mask = (1L << indexBits) - 1;
+            for (int i = 0; i < count; i++)
+            {
+                order[i] = (int) (keys[i] & mask);
+            }
+            return order;
+        }
+        Integer[] boxed = new Integer[count];
+        for (int i = 0; i < count; i++)
+        {
+            boxed[i] = i;
+        }
+        Arrays.sort(boxed, (x, y) -> Long.compare(weights[x], weights[y]));
+        for (int i = 0; i < count; i++)
+        {
+            order[i] = boxed[i];
+        }
+        return order;
+    }
+
+    /*
+     * Method: codeLengths
+     * Purpose: returns the depth of each leaf, which is the length of its code. A
+     *          tree with one leaf still gives it a code of 1 bit.
+     * Parameters: none
+     * Returns: int[] - the code length of each symbol, in the order the weights were given
+     * */
+    public int[] codeLengths()
+    {
+        int[] lengths = new int[leafCount];
+        if (leafCount == 1)
+        {
+            lengths[0] = 1;
+            return lengths;
+        }
+        //every parent comes after its children, so going backwards visits parents first
+        int[] depth = new int[weight.length];
+        for (int node = weight.length - 2; node >= 0; node--)
+        {
+            depth[node] = depth[parent[node]] + 1;
+        }
+        System.arraycopy(depth, 0, lengths, 0, leafCount);
+        return lengths;
+    }
+
+    /*
+     * Method: getLeafCount
+     * Purpose: returns the number of leaves
+     * Parameters: none
+     * Returns: int - the number of leaves
+     * */
+    public int getLeafCount()
+    {
+        return leafCount;
+    }
+
+    /*
+     * Method: getNodeCount
+     * Purpose: returns the number of nodes, leaves included
+     * Parameters: none
+     * Returns: int - the number of nodes
+     * */
+    public int getNodeCount()
+    {
+        return weight.length;
+    }
+
+    /*
+     * Method: getRoot
+     * Purpose: returns the root node
+     * Parameters: none
+     * Returns: int - the root, which is the last node
+     * */
+    public int getRoot()
+    {
+        return weight.length - 1;
+    }
+
+    /*
+     * Method: isLeaf
+     * Purpose: returns true if the node is a leaf
+     * Parameters: int node - the node
+     * Returns: boolean - true for nodes below getLeafCount
+     * */
+    public boolean isLeaf(int node)
+    {
+        return node < leafCount;
+    }
+
+    /*
+     * Method: getWeight
+     * Purpose: returns the weight of a node
+     * Parameters: int node - the node
+     * Returns: long - its weight, the sum of its leaves for internal nodes
+     * */
+    public long getWeight(int node)
+    {
+        return weight[node];
+    }
+
+    /*
+     * Method: getParent
+     * Purpose: returns the parent of a node
+     * Parameters: int node - the node
+     * Returns: int - the parent, or -1 for the root
+     * */
+    public int getParent(int node)
+    {
+        return parent[node];
+    }
+
+    /*
+     * Method: getLeft
+     * Purpose: returns the left child of a node
+     * Parameters: int node - the node
+     * Returns: int - the left child, or -1 for a leaf
+     * */
+    public int getLeft(int node)
+    {
+        return left[node];
+    }
+
+    /*
+     * Method: getRight
+     * Purpose: returns the right child of a node
+     * Parameters: int node - the node
+     * Returns: int - the right child, or -1 for a leaf
+     * */
+    public int getRight(int node)
+    {
+        return right[node];
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: BitReader.java
+ * Date: 10/18/2026
+ * Purpose: Reads bits most significant bit first from a byte array written by
+ *          BitWriter. Bytes are pulled into a 64 bit buffer so that up to 32
+ *          bits can be peeked at once. Reading past the end yields zero bits.
+ */
+
+public class BitReader
+{
+    //the packed bytes being read
+    private final byte[] data;
+
+    //the index of the next byte to move into the bit buffer
+    private int position;
+
+    //one past the last byte that belongs to this reader
+    private final int limit;
+
+    //bits that have been loaded but not yet consumed (right aligned)
+    private long bitBuffer = 0;
+
+    //the number of valid bits in bitBuffer
+    private int bitCount = 0;
+
+    //the total number of bits consumed
+    private long bitsRead = 0;
+
+    /*
+     * Constructor
+     * Purpose: creates a BitReader over the whole of data
+     * Parameters: byte[] data - the packed bits
+     * */
+    public BitReader(byte[] data)
+    {
+        this(data, 0, data.length);
+    }
+
+    /*
+     * Constructor
+     * Purpose: creates a BitReader over length bytes of data starting at offset
+     * Parameters: byte[] data - the packed bits
+     *             int offset - the index of the first byte
+     *             int length - the number of bytes that can be read
+     * */
+    public BitReader(byte[] data, int offset, int length)
+    {
+        this.data = data;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    /*
+     * Method: peek
+     * Purpose: returns the next n bits without consuming them
+     * Parameters: int n - the number of bits to look at, between 0 and 32
+     * Returns: int - the next n bits, right aligned
+     * */
+    public int peek(int n)
+    {
+        if (bitCount < n)
+        {
+            refill();
+        }
+        return (int) ((bitBuffer >>> (bitCount - n)) & ((1L << n) - 1));
+    }
+
+    /*
+     * Method: skip
+     * Purpose: consumes n bits that were previously peeked at
+     * Parameters: int n - the number of bits to consume, at most the last peek
+     * Returns: void
+     * */
+    public void skip(int n)
+    {
+        bitCount -= n;
+        bitsRead += n;
+    }
+
+    /*
+     * Method: read
+     * Purpose: reads and consumes the next n bits
+     * Parameters: int n - the number of bits to read, between 0 and 32
+     * Returns: int - the bits that were read, right aligned
+     * */
+    public int read(int n)
+    {
+        int bits = peek(n);
+        skip(n);
+        return bits;
+    }
+
+    /*
+     * Method: getBitsRead
+     * Purpose: returns the number of bits consumed so far
+     * Parameters: none
+     * Returns: long - the number of bits consumed
+     * */
+    public long getBitsRead()
+    {
+        return bitsRead;
+    }
+
+    /*
+     * Method: refill
+     * Purpose: tops the bit buffer up to at least 57 bits, padding with zeros past the end
+     * Parameters: none
+     * Returns: void
+     * */
+    private void refill()
+    {
+        while (bitCount <= 56)
+        {
+            int next = position < limit ? data[position] & 0xFF : 0;
+            position++;
+            bitBuffer = (bitBuffer << 8) | next;
+            bitCount += 8;
+        }
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: BitWriter.java
+ * Date: 10/18/2026
+ * Purpose: Packs variable length codes into a growable byte array. Codes are
+ *          collected in a 64 bit accumulator and written out four bytes at a
+ *          time, most significant bit first. A writer made with a DirectBufferPool
+ *          packs straight into a pooled direct buffer instead, which takeBuffer
+ *          hands over ready to be written to a channel with no further copy.
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+public class BitWriter
+{
+    //the packed output bytes, or null if the writer packs into a direct buffer
+    private byte[] buffer;
+
+    //the pool direct buffers come from, the one being packed into (null until the
+    //first write after takeBuffer), and the capacity to ask for
+    private DirectBufferPool pool;
+    private ByteBuffer direct;
+    private int directCapacity;
+
+    //the number of bytes of buffer that are in use
+    private int position = 0;
+
+    //bits that have been written but not yet moved into buffer (right aligned)
+    private long accumulator = 0;
+
+    //the number of valid bits in the accumulator, always less than 32 between calls
+    private int accumulatorBits = 0;
+
+    //the total number of bits written
+    private long bitLength = 0;
+
+    /*
+     * Constructor
+     * Purpose: creates a BitWriter with a small default capacity
+     * */
+    public BitWriter()
+    {
+        this(64);
+    }
+
+    /*
+     * Constructor
+     * Purpose: creates a BitWriter whose buffer starts with room for initialCapacity bytes
+     * Parameters: int initialCapacity - the starting size of the byte buffer
+     * */
+    public BitWriter(int initialCapacity)
+    {
+        buffer = new byte[Math.max(initialCapacity, 8)];
+    }
+
+    /*
+     * Constructor
+     * Purpose: creates a BitWriter that packs into direct buffers from a pool. Only
+     *          write, padToByte, getBitLength, reset and takeBuffer may be used.
+     * Parameters: DirectBufferPool pool - where the buffers come from and go back to when grown
+     *             int initialCapacity - the starting size of each buffer
+     * */
+    public BitWriter(DirectBufferPool pool, int initialCapacity)
+    {
+        this.pool = pool;
+        directCapacity = Math.max(initialCapacity, 8);
+    }
+
+    /*
+     * Method: write
+     * Purpose: appends the low length bits of code, most significant bit first
+     * Parameters: long code - the bits to be written (right aligned)
+     *             int length - the number of bits to write, between 0 and 64
+     * Returns: void
+     * */
+    public void write(long code, int length)
+    {
+        if (length > 32)
+        {
+            write(code >>> 32, length - 32);
+            write(code, 32);
+            return;
+        }
+        //accumulatorBits < 32 and length <= 32, so the accumulator never overflows
+        accumulator = (accumulator << length) | (code & ((1L << length) - 1));
+        accumulatorBits += length;
+        bitLength += length;
+        if (accumulatorBits >= 32)
+        {
+            ensureCapacity(4);
+            accumulatorBits -= 32;
+            int word = (int) (accumulator >>> accumulatorBits);
+            if (buffer == null)
+            {
+                direct.putInt(position, word);
+                position += 4;
+                return;
+            }
+            buffer[position] = (byte) (word >>> 24);
+            buffer[position + 1] = (byte) (word >>> 16);
+            buffer[position + 2] = (byte) (word >>> 8);
+            buffer[position + 3] = (byte) word;
+            position += 4;
+        }
+    }
+
+    /*
+     * Method: getBitLength
+     * Purpose: returns the exact number of bits written so far
+     * Parameters: none
+     * Returns: long - the number of bits written
+     * */
+    public long getBitLength()
+    {
+        return bitLength;
+    }
+
+    /*
+     * Method: reset
+     * Purpose: discards everything written so far so the buffer can be reused
+     * Parameters: none
+     * Returns: void
+     * */
+    public void reset()
+    {
+        position = 0;
+        accumulator = 0;
+        accumulatorBits = 0;
+        bitLength = 0;
+    }
+
+    /*
+     * Method: toByteArray
+     * Purpose: returns the written bits as bytes, with the last byte padded with zeros
+     * Parameters: none
+     * Returns: byte[] - a copy of the packed bits
+     * */
+    public byte[] toByteArray()
+    {
+        requireArray();
+        int length = (int) ((bitLength + 7) >>> 3);
+        byte[] out = Arrays.copyOf(buffer, Math.max(length, position));
+        long pending = accumulator;
+        int pendingBits = accumulatorBits;
+        int index = position;
+        while (pendingBits > 0)
+        {
+            if (pendingBits >= 8)
+            {
+                out[index++] = (byte) (pending >>> (pendingBits - 8));
+            }
+            else
+            {
+                out[index++] = (byte) (pending << (8 - pendingBits));
+            }
+            pendingBits -= 8;
+        }
+        return out;
+    }
+
+    /*
+     * Method: writeTo
+     * Purpose: writes the same bytes as toByteArray to out without copying the buffer
+     * Parameters: OutputStream out - where the bytes are written
+     * Returns: void
+     * */
+    public void writeTo(OutputStream out) throws IOException
+    {
+        requireArray();
+        out.write(buffer, 0, position);
+        long pending = accumulator;
+        int pendingBits = accumulatorBits;
+        while (pendingBits > 0)
+        {
+            if (pendingBits >= 8)
+            {
+                out.write((int) (pending >>> (pendingBits - 8)));
+            }
+            else
+            {
+                out.write((int) (pending << (8 - pendingBits)));
+            }
+            pendingBits -= 8;
+        }
+    }
+
+    /*
+     * Method: writeTo
+     * Purpose: writes the same bytes as toByteArray to a channel straight from the buffer
+     * Parameters: WritableByteChannel channel - where the bytes are written
+     * Returns: void
+     * */
+    public void writeTo(WritableByteChannel channel) throws IOException
+    {
+        requireArray();
+        //pad the pending bits into the bytes after position, which later writes overwrite anyway
+        int length = position + (accumulatorBits + 7) / 8;
+        ensureCapacity(length - position);
+        long pending = accumulator;
+        int pendingBits = accumulatorBits;
+        int index = position;
+        while (pendingBits > 0)
+        {
+            if (pendingBits >= 8)
+            {
+                buffer[index++] = (byte) (pending >>> (pendingBits - 8));
+            }
+            else
+            {
+                buffer[index++] = (byte) (pending << (8 - pendingBits));
+            }
+            pendingBits -= 8;
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, length);
+        while (bytes.hasRemaining())
+        {
+            channel.write(bytes);
+        }
+    }
+
+    /*
+     * Method: padToByte
+     * Purpose: writes zero bits up to the next byte boundary
+     * Parameters: none
+     * Returns: void
+     * */
+    public void padToByte()
+    {
+        int partial = (int) (bitLength & 7);
+        if (partial != 0)
+        {
+            write(0, 8 - partial);
+        }
+    }
+
+    /*
+     * Method: drainTo
+     * Purpose: writes every complete byte to out and forgets it, keeping only the
+     *          bits of a final partial byte. Afterwards getBitLength counts just the
+     *          bits that are still held.
+     * Parameters: OutputStream out - where the complete bytes are written
+     * Returns: void
+     * */
+    public void drainTo(OutputStream out) throws IOException
+    {
+        requireArray();
+        while (accumulatorBits >= 8)
+        {
+            ensureCapacity(1);
+            accumulatorBits -= 8;
+            buffer[position++] = (byte) (accumulator >>> accumulatorBits);
+        }
+        out.write(buffer, 0, position);
+        position = 0;
+        accumulator &= (1L << accumulatorBits) - 1;
+        bitLength = accumulatorBits;
+    }
+
+    /*
+     * Method: takeBuffer
+     * Purpose: hands over the direct buffer of a writer made with a pool, holding the
+     *          same bytes as toByteArray would, and empties the writer. The next write
+     *          takes a new buffer from the pool.
+     * Parameters: none
+     * Returns: ByteBuffer - the packed bits, ready to be read; give it back to the pool when done
+     * */
+    public ByteBuffer takeBuffer()
+    {
+        if (pool == null)
+        {
+            throw new IllegalStateException("Only a BitWriter made with a DirectBufferPool has a buffer to take");
+        }
+        ensureCapacity((accumulatorBits + 7) / 8);
+        long pending = accumulator;
+        int pendingBits = accumulatorBits;
+        while (pendingBits > 0)
+        {
+            if (pendingBits >= 8)
+            {
+                direct.put(position++, (byte) (pending >>> (pendingBits - 8)));
+            }
+            else
+            {
+                direct.put(position++, (byte) (pending << (8 - pendingBits)));
+            }
+            pendingBits -= 8;
+        }
+        ByteBuffer out = direct;
+        out.limit(position).position(0);
+        direct = null;
+        reset();
+        return out;
+    }
+
+    /*
+     * Method: toByteBuffer
+     * Purpose: returns the written bits wrapped in a ByteBuffer ready to be read
+     * Parameters: none
+     * Returns: ByteBuffer - the packed bits
+     * */
+    public ByteBuffer toByteBuffer()
+    {
+        return ByteBuffer.wrap(toByteArray());
+    }
+
+    /*
+     * Method: toEncodedBits
+     * Purpose: returns the packed bits together with their exact bit length
+     * Parameters: none
+     * Returns: EncodedBits - the packed bits and bit length
+     * */
+    public EncodedBits toEncodedBits()
+    {
+        return new EncodedBits(toByteArray(), bitLength);
+    }
+
+    /*
+     * Method: ensureCapacity
+     * Purpose: grows the buffer so that at least extra more bytes fit
+     * Parameters: int extra - the number of bytes about to be written
+     * Returns: void
+     * */
+    private void ensureCapacity(int extra)
+    {
+        if (buffer == null)
+        {
+            if (direct == null)
+            {
+                direct = pool.acquire(Math.max(directCapacity, extra));
+            }
+            else if (position + extra > direct.capacity())
+            {
+                ByteBuffer grown = pool.acquire(Math.max(direct.capacity() * 2, position + extra));
+                ByteBuffer written = direct.duplicate();
+                written.limit(position).position(0);
+                grown.put(written);
+                pool.release(direct);
+                direct = grown;
+            }
+            return;
+        }
+        if (position + extra > buffer.length)
+        {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+
+    /*
+     * Method: requireArray
+     * Purpose: checks that the writer packs into a byte array, not a direct buffer
+     * Parameters: none
+     * Returns: void
+     * */
+    private void requireArray()
+    {
+        if (buffer == null)
+        {
+            throw new IllegalStateException("A BitWriter made with a DirectBufferPool can only be read with takeBuffer");
+        }
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: CanonicalHuffmanCode.java
+ * Date: 10/18/2026
+ * Purpose: A canonical Huffman code. Only the length of each symbol's code is
+ *          needed to rebuild it: symbols are sorted by code length and then by
+ *          value, and codes are handed out counting up from zero in that order.
+ *
+ *          The header written by writeHeader holds just the lengths:
+ *              one byte         the longest code length L
+ *              L varints        how many symbols have each length from 1 to L
+ *              one varint each  the symbols of each length in increasing order,
+ *                               each stored as the gap from the symbol before it
+ *                               (the first symbol of each length is stored as is)
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+public class CanonicalHuffmanCode
+{
+    //the longest code length the header can describe
+    public static final int MAX_CODE_LENGTH = 64;
+
+    //the symbols in canonical order
+    private int[] symbols;
+
+    //the code length of each symbol in canonical order
+    private int[] lengths;
+
+    //the code of each symbol in canonical order
+    private long[] codes;
+
+    //the code for each symbol, indexed by the symbol
+    private long[] codeBySymbol;
+
+    //the code length for each symbol, indexed by the symbol, 0 if the symbol has no code
+    private int[] lengthBySymbol;
+
+    /*
+     * Constructor
+     * Purpose: assigns canonical codes to symbols given the length of each code
+     * Parameters: int[] symbols - the symbols, in any order
+     *             int[] lengths - the code length of each symbol
+     *             int count - the number of symbols in the arrays
+     * */
+    public CanonicalHuffmanCode(int[] symbols, int[] lengths, int count)
+    {
+        //sort by length and then by symbol using a single key per symbol
+        long[] keys = new long[count];
+        int maxSymbol = 0;
+        for (int i = 0; i < count; i++)
+        {
+            if (lengths[i] < 1 || lengths[i] > MAX_CODE_LENGTH)
+            {
+                throw new IllegalArgumentException("Code length " + lengths[i] + " is out of range");
+            }
+            if (symbols[i] < 0 || symbols[i] > HuffmanTableDecoder.MAX_SYMBOL)
+            {
+                throw new IllegalArgumentException("Symbol " + symbols[i] + " is out of range");
+            }
+            keys[i] = ((long) lengths[i] << 32) | symbols[i];
+            maxSymbol = Math.max(maxSymbol, symbols[i]);
+        }
+        Arrays.sort(keys);
+        this.symbols = new int[count];
+        this.lengths = new int[count];
+        this.codes = new long[count];
+        for (int i = 0; i < count; i++)
+        {
+            this.symbols[i] = (int) keys[i];
+            this.lengths[i] = (int) (keys[i] >>> 32);
+        }
+        assignCodes();
+        codeBySymbol = new long[maxSymbol + 1];
+        lengthBySymbol = new int[maxSymbol + 1];
+        for (int i = 0; i < count; i++)
+        {
+            if (lengthBySymbol[this.symbols[i]] != 0)
+            {
+                throw new IllegalArgumentException("Symbol " + this.symbols[i] + " has more than one code");
+            }
+            codeBySymbol[this.symbols[i]] = codes[i];
+            lengthBySymbol[this.symbols[i]] = this.lengths[i];
+        }
+    }
+
+    /*
+     * Method: getSize
+     * Purpose: returns the number of symbols that have a code
+     * Parameters: none
+     * Returns: int - the number of symbols
+     * */
+    public int getSize()
+    {
+        return symbols.length;
+    }
+
+    /*
+     * Method: getSymbol
+     * Purpose: returns the symbol at position i of the canonical order
+     * Parameters: int i - the position in canonical order
+     * Returns: int - the symbol
+     * */
+    public int getSymbol(int i)
+    {
+        return symbols[i];
+    }
+
+    /*
+     * Method: getMaxLength
+     * Purpose: returns the length of the longest code
+     * Parameters: none
+     * Returns: int - the longest code length, 0 if there are no codes
+     * */
+    public int getMaxLength()
+    {
+        return lengths.length == 0 ? 0 : lengths[lengths.length - 1];
+    }
+
+    /*
+     * Method: getCodeLength
+     * Purpose: returns the length of the code for symbol
+     * Parameters: int symbol - the symbol to look up
+     * Returns: int - the code length, 0 if the symbol has no code
+     * */
+    public int getCodeLength(int symbol)
+    {
+        return symbol >= 0 && symbol < lengthBySymbol.length ? lengthBySymbol[symbol] : 0;
+    }
+
+    /*
+     * Method: getCode
+     * Purpose: returns the code for symbol
+     * Parameters: int symbol - the symbol to look up
+     * Returns: long - the code bits, right aligned
+     * */
+    public long getCode(int symbol)
+    {
+        return codeBySymbol[symbol];
+    }
+
+    /*
+     * Method: write
+     * Purpose: writes the code for symbol to writer
+     * Parameters: BitWriter writer - where the code is written
+     *             int symbol - the symbol to encode
+     * Returns: void
+     * */
+    public void write(BitWriter writer, int symbol)
+    {
+        int length = getCodeLength(symbol);
+        if (length == 0)
+        {
+            throw new IllegalArgumentException("Symbol " + symbol + " has no code");
+        }
+        writer.write(codeBySymbol[symbol], length);
+    }
+
+    /*
+     * Method: newDecoder
+     * Purpose: builds lookup tables that decode this code
+     * Parameters: none
+     * Returns: HuffmanTableDecoder - the decoder
+     * */
+    public HuffmanTableDecoder newDecoder()
+    {
+        return new HuffmanTableDecoder(symbols, lengths, codes, symbols.length);
+    }
+
+    /*
+     * Method: writeHeader
+     * Purpose: writes the code lengths in the compact header format
+     * Parameters: OutputStream out - where the header is written
+     * Returns: void
+     * */
+    public void writeHeader(OutputStream out) throws IOException
+    {
+        int maxLength = getMaxLength();
+        out.write(maxLength);
+        int[] counts = new int[maxLength + 1];
+        for (int length : lengths)
+        {
+            counts[length]++;
+        }
+        for (int length = 1; length <= maxLength; length++)
+        {
+            VarInt.write(out, counts[length]);
+        }
+        int previous = 0;
+        for (int i = 0; i < symbols.length; i++)
+        {
+            boolean firstOfLength = i == 0 || lengths[i] != lengths[i - 1];
+            VarInt.write(out, firstOfLength ? symbols[i] : symbols[i] - previous);
+            previous = symbols[i];
+        }
+    }
+
+    /*
+     * Method: toHeader
+     * Purpose: returns the header written by writeHeader as a byte array
+     * Parameters: none
+     * Returns: byte[] - the header
+     * */
+    public byte[] toHeader()
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(symbols.length + 16);
+        try
+        {
+            writeHeader(out);
+        }
+        catch (IOException e)
+        {
+            //ByteArrayOutputStream never throws
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /*
+     * Method: readHeader
+     * Purpose: rebuilds a code from a header written by writeHeader
+     * Parameters: InputStream in - where the header is read from
+     * Returns: CanonicalHuffmanCode - the code described by the header
+     * */
+    public static CanonicalHuffmanCode readHeader(InputStream in) throws IOException
+    {
+        int maxLength = in.read();
+        if (maxLength < 0 || maxLength > MAX_CODE_LENGTH)
+        {
+            throw new IOException("Header has an invalid maximum code length");
+        }
+        int[] counts = new int[maxLength + 1];
+        long total = 0;
+        //the codes of each length not yet taken by shorter codes, which a prefix code cannot exceed
+        long unused = 1;
+        for (int length = 1; length <= maxLength; length++)
+        {
+            counts[length] = VarInt.readInt(in);
+            unused = Math.min(unused * 2, 1L << 32);
+            if (counts[length] < 0 || counts[length] > unused)
+            {
+                throw new IOException("Header has more codes of length " + length + " than a prefix code allows");
+            }
+            unused -= counts[length];
+            total += counts[length];
+            if (total > HuffmanTableDecoder.MAX_SYMBOL + 1)
+            {
+                throw new IOException("Header has too many symbols");
+            }
+        }
+        int[] symbols = new int[(int) total];
+        int[] lengths = new int[(int) total];
+        int i = 0;
+        for (int length = 1; length <= maxLength; length++)
+        {
+            int previous = 0;
+            for (int j = 0; j < counts[length]; j++)
+            {
+                long symbol = VarInt.read(in) + (j == 0 ? 0 : previous);
+                if (symbol < 0 || symbol > HuffmanTableDecoder.MAX_SYMBOL)
+                {
+                    throw new IOException("Header has an invalid symbol");
+                }
+                symbols[i] = (int) symbol;
+                lengths[i] = length;
+                previous = symbols[i];
+                i++;
+            }
+        }
+        try
+        {
+            return new CanonicalHuffmanCode(symbols, lengths, symbols.length);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IOException("Header does not describe a valid code: " + e.getMessage(), e);
+        }
+    }
+
+    /*
+     * Method: fromHeader
+     * Purpose: rebuilds a code from a header stored in a byte array
+     * Parameters: byte[] header - the header bytes
+     * Returns: CanonicalHuffmanCode - the code described by the header
+     * */
+    public static CanonicalHuffmanCode fromHeader(byte[] header) throws IOException
+    {
+        return readHeader(new ByteArrayInputStream(header));
+    }
+
+    /*
+     * Method: assignCodes
+     * Purpose: hands out codes in canonical order, checking that the lengths form a prefix code
+     * Parameters: none
+     * Returns: void
+     * */
+    private void assignCodes()
+    {
+        long code = 0;
+        int previousLength = 0;
+        for (int i = 0; i < symbols.length; i++)
+        {
+            if (i > 0)
+            {
+                code++;
+            }
+            code <<= lengths[i] - previousLength;
+            previousLength = lengths[i];
+            //once every code of this length has been used up the next one would not fit
+            if (lengths[i] < 64 && (code >>> lengths[i]) != 0)
+            {
+                throw new IllegalArgumentException("Code lengths do not form a prefix code");
+            }
+            codes[i] = code;
+        }
+    }
+}
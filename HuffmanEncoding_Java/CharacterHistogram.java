@@ -0,0 +1,325 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: CharacterHistogram.java
+ * Date: 10/18/2026
+ * Purpose: Counts how many times each character appears using plain arrays indexed
+ *          by the character. Large inputs are split into chunks that are counted in
+ *          parallel on the fork/join pool. Every worker thread adds into its own
+ *          histogram so threads never share counters, and the per thread
+ *          histograms are merged once all chunks are done. The per thread
+ *          histograms are cleared as they are merged and kept for the next count,
+ *          and only the part up to the highest char a thread counted is merged.
+ */
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class CharacterHistogram
+{
+    //the number of different chars
+    public static final int ALPHABET_SIZE = Character.MAX_VALUE + 1;
+
+    //inputs shorter than this are counted on the calling thread
+    public static final int PARALLEL_THRESHOLD = 1 << 18;
+
+    //cleared per thread histograms left from earlier counts, ready to be reused
+    private static final ConcurrentLinkedQueue<ThreadCounts> spareCounts = new ConcurrentLinkedQueue<ThreadCounts>();
+
+    /*
+     * Method: count
+     * Purpose: counts the characters of text
+     * Parameters: CharSequence text - the text to count
+     * Returns: long[] - the count for each character, indexed by the character
+     * */
+    public static long[] count(CharSequence text)
+    {
+        long[] counts = new long[ALPHABET_SIZE];
+        addCounts(counts, text, 0, text.length());
+        return counts;
+    }
+
+    /*
+     * Method: count
+     * Purpose: counts the characters of text between from and to
+     * Parameters: char[] text - the text to count
+     *             int from - the index of the first character
+     *             int to - one past the index of the last character
+     * Returns: long[] - the count for each character, indexed by the character
+     * */
+    public static long[] count(char[] text, int from, int to)
+    {
+        long[] counts = new long[ALPHABET_SIZE];
+        addCounts(counts, text, from, to);
+        return counts;
+    }
+
+    /*
+     * Method: addCounts
+     * Purpose: adds the characters of text between from and to onto counts
+     * Parameters: long[] counts - the histogram to add to
+     *             CharSequence text - the text to count
+     *             int from - the index of the first character
+     *             int to - one past the index of the last character
+     * Returns: void
+     * */
+    public static void addCounts(long[] counts, CharSequence text, int from, int to)
+    {
+        if (to - from < PARALLEL_THRESHOLD)
+        {
+            countRange(counts, text, from, to);
+        }
+        else
+        {
+            addInParallel(counts, new CountTask(null, text, from, to, leafSize(to - from)));
+        }
+    }
+
+    /*
+     * Method: addCounts
+     * Purpose: adds the characters of text between from and to onto counts
+     * Parameters: long[] counts - the histogram to add to
+     *             char[] text - the text to count
+     *             int from - the index of the first character
+     *             int to - one past the index of the last character
+     * Returns: void
+     * */
+    public static void addCounts(long[] counts, char[] text, int from, int to)
+    {
+        if (to - from < PARALLEL_THRESHOLD)
+        {
+            countRange(counts, text, from, to);
+        }
+        else
+        {
+            addInParallel(counts, new CountTask(text, null, from, to, leafSize(to - from)));
+        }
+    }
+
+    /*
+     * Method: merge
+     * Purpose: adds every count of from onto into
+     * Parameters: long[] into - the histogram that is added to
+     *             long[] from - the histogram whose counts are added
+     * Returns: void
+     * */
+    public static void merge(long[] into, long[] from)
+    {
+        for (int i = 0; i < from.length; i++)
+        {
+            into[i] += from[i];
+        }
+    }
+
+    /*
+     * Method: toFrequencyMap
+     * Purpose: turns counts into the frequency map the tree is built from. Counts too
+     *          large for the tree's int frequencies are scaled down, never below 1,
+     *          so every character that appears still gets a code.
+     * Parameters: long[] counts - the count for each character
+     * Returns: HashMap - the frequency of every character with a count above 0
+     * */
+    public static HashMap<Character, Integer> toFrequencyMap(long[] counts)
+    {
+        long total = 0;
+        int distinct = 0;
+        for (long c : counts)
+        {
+            total += c;
+            if (c > 0)
+            {
+                distinct++;
+            }
+        }
+        //the root's frequency is the sum of all leaves, so the total has to fit in an int
+        int shift = 0;
+        while ((total >>> shift) + distinct > Integer.MAX_VALUE)
+        {
+            shift++;
+        }
+        HashMap<Character, Integer> frequencies = new HashMap<Character, Integer>(distinct * 2);
+        for (int c = 0; c < counts.length; c++)
+        {
+            if (counts[c] > 0)
+            {
+                frequencies.put((char) c, (int) Math.max(counts[c] >>> shift, 1));
+            }
+        }
+        return frequencies;
+    }
+
+    /*
+     * Method: leafSize
+     * Purpose: picks a chunk size that gives every worker several chunks to balance load
+     * Parameters: int length - the number of characters being counted
+     * Returns: int - the number of characters each chunk should hold
+     * */
+    private static int leafSize(int length)
+    {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        return Math.max(PARALLEL_THRESHOLD / 4, length / (parallelism * 8));
+    }
+
+    /*
+     * Method: addInParallel
+     * Purpose: runs a counting task on the fork/join pool, then merges the per thread
+     *          histograms it filled into counts and puts them back for reuse
+     * Parameters: long[] counts - the histogram to add to
+     *             CountTask task - the task covering the whole input
+     * Returns: void
+     * */
+    private static void addInParallel(long[] counts, CountTask task)
+    {
+        try
+        {
+            ForkJoinPool.commonPool().invoke(task);
+            for (ThreadCounts perThread : task.perThread.values())
+            {
+                perThread.mergeInto(counts);
+            }
+        }
+        finally
+        {
+            for (ThreadCounts perThread : task.perThread.values())
+            {
+                perThread.clear();
+                spareCounts.add(perThread);
+            }
+        }
+    }
+
+    /*
+     * Method: takeCounts
+     * Purpose: returns a cleared per thread histogram, reusing a spare one if there is one
+     * Parameters: none
+     * Returns: ThreadCounts - the histogram
+     * */
+    private static ThreadCounts takeCounts()
+    {
+        ThreadCounts spare = spareCounts.poll();
+        return spare != null ? spare : new ThreadCounts();
+    }
+
+    /*
+     * Method: countRange
+     * Purpose: counts the characters of text between from and to on this thread
+     * Parameters: long[] counts - the histogram to add to
+     *             char[] text - the text to count
+     *             int from - the index of the first character
+     *             int to - one past the index of the last character
+     * Returns: int - every counted character ORed together, which is at least the highest one
+     * */
+    private static int countRange(long[] counts, char[] text, int from, int to)
+    {
+        int seen = 0;
+        for (int i = from; i < to; i++)
+        {
+            char c = text[i];
+            counts[c]++;
+            seen |= c;
+        }
+        return seen;
+    }
+
+    /*
+     * Method: countRange
+     * Purpose: counts the characters of text between from and to on this thread
+     * Parameters: long[] counts - the histogram to add to
+     *             CharSequence text - the text to count
+     *             int from - the index of the first character
+     *             int to - one past the index of the last character
+     * Returns: int - every counted character ORed together, which is at least the highest one
+     * */
+    private static int countRange(long[] counts, CharSequence text, int from, int to)
+    {
+        int seen = 0;
+        for (int i = from; i < to; i++)
+        {
+            char c = text.charAt(i);
+            counts[c]++;
+            seen |= c;
+        }
+        return seen;
+    }
+
+    /*
+     * Class: ThreadCounts
+     * Purpose: the histogram one worker thread counts into, along with how much of it
+     *          has been used, so merging and clearing can skip the untouched rest
+     */
+    private static class ThreadCounts
+    {
+        final long[] counts = new long[ALPHABET_SIZE];
+
+        //one past every char counted since the last clear
+        int limit = 0;
+
+        void mergeInto(long[] into)
+        {
+            for (int i = 0; i < limit; i++)
+            {
+                into[i] += counts[i];
+            }
+        }
+
+        void clear()
+        {
+            Arrays.fill(counts, 0, limit, 0);
+            limit = 0;
+        }
+    }
+
+    /*
+     * Class: CountTask
+     * Purpose: splits a range of text in half until it is small enough to count, then
+     *          counts it into the histogram that belongs to the worker thread running it
+     */
+    @SuppressWarnings("serial")
+    private static class CountTask extends RecursiveAction
+    {
+        //exactly one of array and sequence holds the text
+        private final char[] array;
+        private final CharSequence sequence;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        //one histogram for each thread that has counted a chunk, shared by every task of one count
+        private final ConcurrentHashMap<Thread, ThreadCounts> perThread;
+
+        CountTask(char[] array, CharSequence sequence, int from, int to, int leafSize)
+        {
+            this(array, sequence, from, to, leafSize, new ConcurrentHashMap<Thread, ThreadCounts>());
+        }
+
+        private CountTask(char[] array, CharSequence sequence, int from, int to, int leafSize,
+                          ConcurrentHashMap<Thread, ThreadCounts> perThread)
+        {
+            this.array = array;
+            this.sequence = sequence;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.perThread = perThread;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from <= leafSize)
+            {
+                ThreadCounts counts = perThread.computeIfAbsent(Thread.currentThread(), t -> takeCounts());
+                int seen = array != null ? countRange(counts.counts, array, from, to)
+                                     : countRange(counts.counts, sequence, from, to);
+                counts.limit = Math.max(counts.limit, seen + 1);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new CountTask(array, sequence, from, middle, leafSize, perThread),
+                      new CountTask(array, sequence, middle, to, leafSize, perThread));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: DirectBufferPool.java
+ * Date: 10/18/2026
+ * Purpose: Keeps direct ByteBuffers for reuse. A FileChannel writes a direct buffer
+ *          to the kernel without copying it into a temporary buffer of its own, but
+ *          direct buffers are slow to allocate and are only freed by the garbage
+ *          collector, so writers take them from here and give them back. Buffers
+ *          are sized in powers of two and kept in one free list per size, so a
+ *          request is only ever given a buffer of its own size class. The pool
+ *          keeps at most maxBuffers buffers of at most maxCapacity bytes; larger
+ *          buffers are still handed out but are left for the collector afterwards.
+ */
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+public class DirectBufferPool
+{
+    //the pool used by the file writers
+    public static final DirectBufferPool SHARED = new DirectBufferPool(128, 1 << 20);
+
+    //the smallest buffer allocated, so small requests can share buffers
+    private static final int MIN_CAPACITY = 4096;
+
+    //the most buffers kept, and the largest buffer kept
+    private final int maxBuffers;
+    private final int maxCapacity;
+
+    //the buffers waiting to be reused, by the log2 of their capacity, and how many there are
+    private final ArrayDeque<ByteBuffer>[] free;
+    private int freeCount = 0;
+
+    /*
+     * Constructor
+     * Purpose: creates an empty pool
+     * Parameters: int maxBuffers - the most buffers kept for reuse
+     *             int maxCapacity - the largest buffer kept for reuse
+     * */
+    public DirectBufferPool(int maxBuffers, int maxCapacity)
+    {
+        this.maxBuffers = maxBuffers;
+        this.maxCapacity = maxCapacity;
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ArrayDeque<ByteBuffer>[] lists = new ArrayDeque[31];
+        for (int i = 0; i < lists.length; i++)
+        {
+            lists[i] = new ArrayDeque<ByteBuffer>();
+        }
+        free = lists;
+    }
+
+    /*
+     * Method: acquire
+     * Purpose: returns an empty direct buffer with room for at least capacity bytes
+     * Parameters: int capacity - the number of bytes needed
+     * Returns: ByteBuffer - the buffer, which should be given back with release
+     * */
+    public ByteBuffer acquire(int capacity)
+    {
+        //round up to a power of two so the buffer fits a range of later requests
+        int size = Math.max(MIN_CAPACITY, capacity);
+        if (size > 1 << 30)
+        {
+            return ByteBuffer.allocateDirect(size);
+        }
+        size = Integer.highestOneBit(size - 1) << 1;
+        ArrayDeque<ByteBuffer> sizeClass = free[Integer.numberOfTrailingZeros(size)];
+        synchronized (free)
+        {
+            ByteBuffer buffer = sizeClass.poll();
+            if (buffer != null)
+            {
+                freeCount--;
+                buffer.clear();
+                return buffer;
+            }
+        }
+        return ByteBuffer.allocateDirect(size);
+    }
+
+    /*
+     * Method: release
+     * Purpose: gives a buffer back so it can be reused
+     * Parameters: ByteBuffer buffer - a buffer from acquire that is no longer used
+     * Returns: void
+     * */
+    public void release(ByteBuffer buffer)
+    {
+        int capacity = buffer.capacity();
+        if (!buffer.isDirect() || capacity > maxCapacity || Integer.bitCount(capacity) != 1 || capacity < MIN_CAPACITY)
+        {
+            return;
+        }
+        synchronized (free)
+        {
+            if (freeCount < maxBuffers)
+            {
+                free[Integer.numberOfTrailingZeros(capacity)].push(buffer);
+                freeCount++;
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: EncodedBits.java
+ * Date: 10/18/2026
+ * Purpose: Packed output of the Huffman encoder along with its exact length in bits
+ */
+
+public class EncodedBits {
+
+    public byte[] data;
+    public long bitLength;
+
+    public EncodedBits(byte[] data, long bitLength){
+        this.data = data;
+        this.bitLength = bitLength;
+    }
+
+}
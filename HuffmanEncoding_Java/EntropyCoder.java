@@ -0,0 +1,116 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: EntropyCoder.java
+ * Date: 10/18/2026
+ * Purpose: What every entropy coder provides: a model built from symbol
+ *          frequencies (see EntropyCoderType.build), a header describing that
+ *          model, and encoding and decoding of text with it. HuffmanCoder and
+ *          TansCoder both implement it, so the coder can be chosen per file and
+ *          the two compared on the same data.
+ *
+ *          compress writes the type of the coder first, so decompress works on
+ *          output from either coder.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+public interface EntropyCoder
+{
+    /*
+     * Method: getType
+     * Purpose: returns which kind of coder this is
+     * Parameters: none
+     * Returns: EntropyCoderType - the kind of coder
+     * */
+    EntropyCoderType getType();
+
+    /*
+     * Method: writeHeader
+     * Purpose: writes what the decoder needs to rebuild this coder
+     * Parameters: OutputStream out - where the header is written
+     * Returns: void
+     * */
+    void writeHeader(OutputStream out) throws IOException;
+
+    /*
+     * Method: encode
+     * Purpose: encodes text
+     * Parameters: CharSequence text - the text, using only symbols the coder was built for
+     * Returns: EncodedBits - the packed bits
+     * */
+    EncodedBits encode(CharSequence text);
+
+    /*
+     * Method: decode
+     * Purpose: decodes text written by encode
+     * Parameters: EncodedBits encoded - the packed bits
+     *             int length - the number of chars that were encoded
+     * Returns: String - the decoded text
+     * */
+    String decode(EncodedBits encoded, int length);
+
+    /*
+     * Method: compress
+     * Purpose: builds a coder of the given type for text and encodes the text with it
+     * Parameters: CharSequence text - the text to compress
+     *             EntropyCoderType type - the coder to use
+     * Returns: byte[] - the type, header, text length, bit length, and packed bits
+     * */
+    static byte[] compress(CharSequence text, EntropyCoderType type)
+    {
+        EntropyCoder coder = type.build(CharacterHistogram.count(text));
+        EncodedBits encoded = coder.encode(text);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(encoded.data.length + 64);
+        try
+        {
+            out.write(type.ordinal());
+            coder.writeHeader(out);
+            VarInt.write(out, text.length());
+            VarInt.write(out, encoded.bitLength);
+        }
+        catch (IOException e)
+        {
+            //ByteArrayOutputStream never throws
+            throw new IllegalStateException(e);
+        }
+        out.write(encoded.data, 0, encoded.data.length);
+        return out.toByteArray();
+    }
+
+    /*
+     * Method: decompress
+     * Purpose: decodes the output of compress with whichever coder wrote it
+     * Parameters: byte[] compressed - the compressed bytes
+     * Returns: String - the original text
+     * */
+    static String decompress(byte[] compressed) throws IOException
+    {
+        ByteArrayInputStream in = new ByteArrayInputStream(compressed);
+        int ordinal = in.read();
+        if (ordinal < 0 || ordinal >= EntropyCoderType.values().length)
+        {
+            throw new IOException("Unknown entropy coder " + ordinal);
+        }
+        EntropyCoder coder = EntropyCoderType.values()[ordinal].readHeader(in);
+        int length = VarInt.readInt(in);
+        long bitLength = VarInt.read(in);
+        int offset = compressed.length - in.available();
+        if (bitLength < 0 || (bitLength + 7) / 8 > compressed.length - offset)
+        {
+            throw new IOException("Compressed data is shorter than its header says");
+        }
+        EncodedBits encoded = new EncodedBits(Arrays.copyOfRange(compressed, offset, compressed.length), bitLength);
+        try
+        {
+            return coder.decode(encoded, length);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: EntropyCoderType.java
+ * Date: 10/18/2026
+ * Purpose: The kinds of EntropyCoder, each able to build a coder from symbol
+ *          counts and to rebuild one from its header
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public enum EntropyCoderType
+{
+    //canonical Huffman codes, a whole number of bits per symbol
+    HUFFMAN
+    {
+        @Override
+        public EntropyCoder build(long[] counts)
+        {
+            return new HuffmanCoder(SymbolAlphabet.CHAR, HuffmanCoder.buildCode(counts));
+        }
+
+        @Override
+        public EntropyCoder readHeader(InputStream in) throws IOException
+        {
+            return HuffmanCoder.readHeader(in);
+        }
+    },
+    //table based asymmetric numeral systems, fractional bits per symbol
+    TANS
+    {
+        @Override
+        public EntropyCoder build(long[] counts)
+        {
+            return TansCoder.build(counts);
+        }
+
+        @Override
+        public EntropyCoder readHeader(InputStream in) throws IOException
+        {
+            return TansCoder.readHeader(in);
+        }
+    };
+
+    /*
+     * Method: build
+     * Purpose: builds a coder of this kind from symbol counts
+     * Parameters: long[] counts - the count of each char
+     * Returns: EntropyCoder - the coder
+     * */
+    public abstract EntropyCoder build(long[] counts);
+
+    /*
+     * Method: readHeader
+     * Purpose: rebuilds a coder of this kind from the header it wrote
+     * Parameters: InputStream in - where the header is read from
+     * Returns: EntropyCoder - the coder
+     * */
+    public abstract EntropyCoder readHeader(InputStream in) throws IOException;
+}
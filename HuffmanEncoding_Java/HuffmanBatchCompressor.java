@@ -0,0 +1,534 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: HuffmanBatchCompressor.java
+ * Date: 10/18/2026
+ * Purpose: Compresses every file under a directory without a GUI, for jobs such as
+ *          nightly runs. Files are compressed at the same time on a work stealing
+ *          pool with one thread per processor. Each file is read as bytes, one char
+ *          per byte, so any file comes back exactly, and is written as a
+ *          HuffmanBlockContainer named <file>.hufb under the output directory.
+ *
+ *          A large file is split into pieces that are counted in parallel, and its
+ *          blocks are encoded in parallel on the same pool, so one giant file does
+ *          not hold up the rest of the run. A container holds at most 2 GB, so a
+ *          larger file is cut into parts of whole blocks that share one code and
+ *          are written as containers named <file>.0.hufb, <file>.1.hufb and so on,
+ *          which decode back to the file one after another.
+ *
+ *          The memory the running files may hold at once can be capped: before a
+ *          file starts, the memory it will need is reserved out of the cap, and the
+ *          next file waits until enough has been given back.
+ *
+ *          Usage: java HuffmanBatchCompressor <input dir> <output dir> [options]
+ *              --threads 8      the number of threads, one per processor if not given
+ *              --memory 512M    the most memory the running files may hold, with K, M or G
+ *              --block 64K      the number of chars in each block of a container
+ *          A line is printed for each file as it finishes, with its ratio and MB/s,
+ *          then a line for the whole run and the time spent in each phase, from
+ *          getStatistics. The exit status is 1 if any file failed.
+ */
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class HuffmanBatchCompressor
+{
+    //the number of bytes of a file counted by one task
+    private static final int COUNT_PIECE_SIZE = 8 << 20;
+
+    //the most bytes of a file put in one container
+    private static final long MAX_PART_SIZE = Integer.MAX_VALUE;
+
+    //the memory a file holds besides its blocks: the counts, the code, and the buffers of a write
+    private static final long FILE_OVERHEAD = 256 << 10;
+
+    //memory is reserved in units of this many bytes, so the cap fits in the permits of a semaphore
+    private static final int MEMORY_UNIT = 1024;
+
+    //the threads that compress files and encode their blocks
+    private final ForkJoinPool pool;
+
+    //the memory not yet reserved by a running file, in MEMORY_UNITs
+    private final Semaphore memory;
+
+    //the cap on memory, in MEMORY_UNITs
+    private final int memoryUnits;
+
+    //the number of chars in each block of a container
+    private final int blockSize;
+
+    //the number of bytes of a file put in each container, a whole number of blocks
+    private final long partSize;
+
+    //the phases of every file compressed, added together
+    private final HuffmanStatistics statistics = new HuffmanStatistics();
+
+    /*
+     * Class: FileResult
+     * Purpose: how compressing one file went
+     */
+    public static class FileResult
+    {
+        //the file that was compressed, and where it was written
+        public final Path input;
+        public final Path output;
+
+        //the containers written, in the order they decode back to the file: just output
+        //unless the file was split into parts, and empty if the file failed
+        public final List<Path> parts;
+
+        //the sizes of the file and of what it was compressed to
+        public final long inputBytes;
+        public final long outputBytes;
+
+        //the time the file took from start to finish
+        public final long nanos;
+
+        //why the file could not be compressed, or null if it was
+        public final Exception error;
+
+        FileResult(Path input, Path output, List<Path> parts, long inputBytes, long outputBytes, long nanos, Exception error)
+        {
+            this.input = input;
+            this.output = output;
+            this.parts = parts;
+            this.inputBytes = inputBytes;
+            this.outputBytes = outputBytes;
+            this.nanos = nanos;
+            this.error = error;
+        }
+
+        /*
+         * Method: getRatio
+         * Purpose: returns the compressed size as a fraction of the file size
+         * Parameters: none
+         * Returns: double - the ratio, 0 for an empty file
+         * */
+        public double getRatio()
+        {
+            return inputBytes == 0 ? 0 : (double) outputBytes / inputBytes;
+        }
+
+        /*
+         * Method: getMegabytesPerSecond
+         * Purpose: returns how fast the file was compressed
+         * Parameters: none
+         * Returns: double - millions of bytes of the file per second
+         * */
+        public double getMegabytesPerSecond()
+        {
+            return nanos == 0 ? 0 : inputBytes / (nanos / 1e9) / 1e6;
+        }
+    }
+
+    /*
+     * Constructor
+     * Purpose: creates a compressor with its own pool of threads
+     * Parameters: int threads - the number of threads, at least 1
+     *             long memoryLimit - the most bytes the running files may hold at once
+     *             int blockSize - the number of chars in each block of a container
+     * */
+    public HuffmanBatchCompressor(int threads, long memoryLimit, int blockSize)
+    {
+        this(threads, memoryLimit, blockSize, MAX_PART_SIZE);
+    }
+
+    /*
+     * Constructor
+     * Purpose: creates a compressor that splits files into containers of at most maxPartSize bytes
+     * Parameters: int threads - the number of threads, at least 1
+     *             long memoryLimit - the most bytes the running files may hold at once
+     *             int blockSize - the number of chars in each block of a container
+     *             long maxPartSize - the most bytes of a file in one container, at most MAX_PART_SIZE
+     * */
+    HuffmanBatchCompressor(int threads, long memoryLimit, int blockSize, long maxPartSize)
+    {
+        if (threads < 1)
+        {
+            throw new IllegalArgumentException("Thread count " + threads + " is below 1");
+        }
+        if (memoryLimit < MEMORY_UNIT)
+        {
+            throw new IllegalArgumentException("Memory limit " + memoryLimit + " is below " + MEMORY_UNIT + " bytes");
+        }
+        if (blockSize < 1)
+        {
+            throw new IllegalArgumentException("Block size must be at least 1");
+        }
+        if (maxPartSize < blockSize || maxPartSize > MAX_PART_SIZE)
+        {
+            throw new IllegalArgumentException("Part size " + maxPartSize + " is not between the block size and " + MAX_PART_SIZE);
+        }
+        this.pool = new ForkJoinPool(threads);
+        this.memoryUnits = (int) Math.min(Integer.MAX_VALUE, memoryLimit / MEMORY_UNIT);
+        this.memory = new Semaphore(memoryUnits);
+        this.blockSize = blockSize;
+        this.partSize = maxPartSize / blockSize * blockSize;
+    }
+
+    /*
+     * Method: compressTree
+     * Purpose: compresses every regular file under a directory into the same place under
+     *          another directory, printing a line for each file as it finishes
+     * Parameters: Path inputDirectory - the files to compress
+     *             Path outputDirectory - where the compressed files are written
+     *             PrintStream progress - where the line for each file is printed, or null
+     * Returns: List<FileResult> - how each file went, in the order the files were found
+     * */
+    public List<FileResult> compressTree(Path inputDirectory, Path outputDirectory, PrintStream progress) throws IOException
+    {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(inputDirectory))
+        {
+            files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        Path outputRoot = outputDirectory.toAbsolutePath().normalize();
+        List<ForkJoinTask<FileResult>> tasks = new ArrayList<ForkJoinTask<FileResult>>(files.size());
+        for (Path file : files)
+        {
+            if (file.toAbsolutePath().normalize().startsWith(outputRoot))
+            {
+                //do not compress the output of this run when it is written inside the input
+                continue;
+            }
+            Path relative = inputDirectory.relativize(file);
+            long size = Files.size(file);
+            Path output = outputDirectory.resolve(relative.toString() + ".hufb");
+            int units = reservation(size);
+            memory.acquireUninterruptibly(units);
+            tasks.add(pool.submit(() -> {
+                try
+                {
+                    FileResult result = compressFile(file, output, size);
+                    if (progress != null)
+                    {
+                        printResult(progress, relative.toString(), result);
+                    }
+                    return result;
+                }
+                finally
+                {
+                    memory.release(units);
+                }
+            }));
+        }
+        List<FileResult> results = new ArrayList<FileResult>(tasks.size());
+        for (ForkJoinTask<FileResult> task : tasks)
+        {
+            results.add(task.join());
+        }
+        return results;
+    }
+
+    /*
+     * Method: getStatistics
+     * Purpose: returns the time spent counting, building, encoding and writing, and the
+     *          ratio, over every file compressed so far. There is no single code, so it
+     *          has no entropy or code length histogram.
+     * Parameters: none
+     * Returns: HuffmanStatistics - the measurements
+     * */
+    public HuffmanStatistics getStatistics()
+    {
+        return statistics;
+    }
+
+    /*
+     * Method: shutdown
+     * Purpose: stops the threads once the files being compressed are done
+     * Parameters: none
+     * Returns: void
+     * */
+    public void shutdown()
+    {
+        pool.shutdown();
+    }
+
+    /*
+     * Method: compressFile
+     * Purpose: compresses one file, catching anything that goes wrong so the rest of the run goes on.
+     *          The whole file is counted first so every part is written with the same code.
+     * Parameters: Path input - the file
+     *             Path output - where it is written, or the name its parts are numbered after
+     *             long size - the size of the file
+     * Returns: FileResult - how it went
+     * */
+    private FileResult compressFile(Path input, Path output, long size)
+    {
+        long start = System.nanoTime();
+        try
+        {
+            Path parent = output.toAbsolutePath().getParent();
+            if (parent != null)
+            {
+                Files.createDirectories(parent);
+            }
+            int partCount = (int) Math.max(1, (size + partSize - 1) / partSize);
+            List<Path> parts = new ArrayList<Path>(partCount);
+            long outputBytes = 0;
+            try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ))
+            {
+                MappedByteBuffer[] pieces = new MappedByteBuffer[partCount];
+                long[] counts = new long[256];
+                for (int i = 0; i < partCount; i++)
+                {
+                    long offset = i * partSize;
+                    pieces[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(partSize, size - offset));
+                    CharacterHistogram.merge(counts, new CountTask(pieces[i], 0, pieces[i].limit()).invoke());
+                }
+                CanonicalHuffmanCode code = build(counts, size, start);
+                for (int i = 0; i < partCount; i++)
+                {
+                    Path part = partCount == 1 ? output : partPath(output, i);
+                    HuffmanBlockContainer.write(new ByteCharSequence(pieces[i]), code, blockSize, pool, part, statistics);
+                    parts.add(part);
+                    outputBytes += Files.size(part);
+                }
+            }
+            return new FileResult(input, output, parts, size, outputBytes, System.nanoTime() - start, null);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            return new FileResult(input, output, new ArrayList<Path>(), size, 0, System.nanoTime() - start, e);
+        }
+    }
+
+    /*
+     * Method: partPath
+     * Purpose: returns the name of one part of a file split into several containers
+     * Parameters: Path output - the name the file would have as a single container, ending in .hufb
+     *             int part - the number of the part, from 0
+     * Returns: Path - the name of the part, with the number before .hufb
+     * */
+    private static Path partPath(Path output, int part)
+    {
+        String name = output.getFileName().toString();
+        return output.resolveSibling(name.substring(0, name.length() - ".hufb".length()) + "." + part + ".hufb");
+    }
+
+    /*
+     * Method: build
+     * Purpose: builds the code for a file and records the counting and building
+     * Parameters: long[] counts - the counts of the bytes of the file
+     *             long size - the size of the file
+     *             long start - System.nanoTime when counting started
+     * Returns: CanonicalHuffmanCode - the code
+     * */
+    private CanonicalHuffmanCode build(long[] counts, long size, long start)
+    {
+        long counted = System.nanoTime();
+        CanonicalHuffmanCode code = HuffmanCoder.buildCode(counts);
+        statistics.recordPhase(HuffmanStatistics.Phase.COUNT, counted - start, size);
+        statistics.recordPhase(HuffmanStatistics.Phase.BUILD, System.nanoTime() - counted, size);
+        return code;
+    }
+
+    /*
+     * Method: reservation
+     * Purpose: returns the memory to reserve for a file, which is at most the whole cap so
+     *          that a file larger than the cap still runs, just on its own
+     * Parameters: long size - the size of the file
+     * Returns: int - the memory in MEMORY_UNITs
+     * */
+    private int reservation(long size)
+    {
+        //the encoded blocks held at once take about as many bytes as the chars they came from
+        long held = Math.min(size, 64L * blockSize) + FILE_OVERHEAD;
+        return (int) Math.min(memoryUnits, (held + MEMORY_UNIT - 1) / MEMORY_UNIT);
+    }
+
+    /*
+     * Method: printResult
+     * Purpose: prints the line for one file
+     * Parameters: PrintStream out - where it is printed
+     *             String name - the path of the file under the input directory
+     *             FileResult result - how it went
+     * Returns: void
+     * */
+    private static void printResult(PrintStream out, String name, FileResult result)
+    {
+        synchronized (out)
+        {
+            if (result.error != null)
+            {
+                out.printf("%-40s FAILED: %s%n", name, result.error);
+            }
+            else
+            {
+                out.printf("%-40s %12d -> %12d  ratio %.3f  %8.1f MB/s%n", name, result.inputBytes, result.outputBytes,
+                           result.getRatio(), result.getMegabytesPerSecond());
+            }
+        }
+    }
+
+    /*
+     * Method: main
+     * Purpose: compresses a directory from the command line
+     * Parameters: String[] args - the directories and options described in the header
+     * Returns: void
+     * */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 2)
+        {
+            System.err.println("Usage: java HuffmanBatchCompressor <input dir> <output dir> [--threads N] [--memory 512M] [--block 64K]");
+            System.exit(2);
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        long memoryLimit = Runtime.getRuntime().maxMemory() / 2;
+        int blockSize = HuffmanBlockContainer.DEFAULT_BLOCK_SIZE;
+        for (int i = 2; i + 1 < args.length; i += 2)
+        {
+            switch (args[i])
+            {
+                case "--threads": threads = Integer.parseInt(args[i + 1]); break;
+                case "--memory": memoryLimit = parseSize(args[i + 1]); break;
+                case "--block": blockSize = (int) parseSize(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        HuffmanBatchCompressor compressor = new HuffmanBatchCompressor(threads, memoryLimit, blockSize);
+        long start = System.nanoTime();
+        List<FileResult> results;
+        try
+        {
+            results = compressor.compressTree(Paths.get(args[0]), Paths.get(args[1]), System.out);
+        }
+        finally
+        {
+            compressor.shutdown();
+        }
+        long nanos = System.nanoTime() - start;
+
+        long inputBytes = 0;
+        long outputBytes = 0;
+        int failed = 0;
+        for (FileResult result : results)
+        {
+            if (result.error != null)
+            {
+                failed++;
+                continue;
+            }
+            inputBytes += result.inputBytes;
+            outputBytes += result.outputBytes;
+        }
+        System.out.printf("%d files, %d failed, %d -> %d bytes, ratio %.3f, %.1f MB/s on %d threads%n",
+                          results.size(), failed, inputBytes, outputBytes,
+                          inputBytes == 0 ? 0 : (double) outputBytes / inputBytes,
+                          inputBytes / (nanos / 1e9) / 1e6, threads);
+        System.out.println(compressor.getStatistics());
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    /*
+     * Method: parseSize
+     * Purpose: reads a size such as 64K, 512M or 2G
+     * Parameters: String size - the size
+     * Returns: long - the size in bytes
+     * */
+    private static long parseSize(String size)
+    {
+        char unit = Character.toUpperCase(size.charAt(size.length() - 1));
+        long scale = unit == 'K' ? 1L << 10 : unit == 'M' ? 1L << 20 : unit == 'G' ? 1L << 30 : 1;
+        String digits = scale == 1 ? size : size.substring(0, size.length() - 1);
+        return Long.parseLong(digits) * scale;
+    }
+
+    /*
+     * Class: CountTask
+     * Purpose: counts the bytes of part of a mapped file, splitting itself in two
+     *          until each piece is at most COUNT_PIECE_SIZE bytes
+     */
+    @SuppressWarnings("serial")
+    private static class CountTask extends RecursiveTask<long[]>
+    {
+        private final MappedByteBuffer bytes;
+        private final int from;
+        private final int to;
+
+        CountTask(MappedByteBuffer bytes, int from, int to)
+        {
+            this.bytes = bytes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute()
+        {
+            if (to - from > COUNT_PIECE_SIZE)
+            {
+                int middle = from + (to - from) / 2;
+                CountTask right = new CountTask(bytes, middle, to);
+                right.fork();
+                long[] counts = new CountTask(bytes, from, middle).compute();
+                long[] rightCounts = right.join();
+                for (int i = 0; i < counts.length; i++)
+                {
+                    counts[i] += rightCounts[i];
+                }
+                return counts;
+            }
+            long[] counts = new long[256];
+            for (int i = from; i < to; i++)
+            {
+                counts[bytes.get(i) & 0xFF]++;
+            }
+            return counts;
+        }
+    }
+
+    /*
+     * Class: ByteCharSequence
+     * Purpose: the bytes of a mapped file seen as chars, one char per byte
+     */
+    private static class ByteCharSequence implements CharSequence
+    {
+        private final MappedByteBuffer bytes;
+
+        ByteCharSequence(MappedByteBuffer bytes)
+        {
+            this.bytes = bytes;
+        }
+
+        public int length()
+        {
+            return bytes.limit();
+        }
+
+        public char charAt(int index)
+        {
+            return (char) (bytes.get(index) & 0xFF);
+        }
+
+        public CharSequence subSequence(int start, int end)
+        {
+            return toString().substring(start, end);
+        }
+
+        @Override
+        public String toString()
+        {
+            byte[] copy = new byte[bytes.limit()];
+            bytes.duplicate().get(copy);
+            return new String(copy, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: HuffmanBenchmark.java
+ * Date: 10/18/2026
+ * Purpose: Measures each stage of Huffman coding on its own: counting the chars,
+ *          building the tree (with its encoding and decoding maps), building the
+ *          canonical code tables from code lengths, encoding and decoding. Every
+ *          stage is warmed up first and then run over and over for a fixed time,
+ *          and the harness reports throughput in MB/s of input text together with
+ *          the bytes allocated per run and the allocation rate, read from the
+ *          per thread allocation counter of the JVM.
+ *
+ *          The corpora are the bundled test*.txt files plus generated text of a
+ *          chosen size and entropy: each generated char is drawn uniformly from
+ *          2^H printable chars, so the text has about H bits of entropy per char.
+ *
+ *          Usage: java HuffmanBenchmark [options]
+ *              --sizes 1K,64K,1M,16M   generated corpus sizes, with K, M or G suffixes
+ *              --entropy 2,4.5,6       bits per char of the generated corpora
+ *              --time 1000             milliseconds to measure each stage
+ *              --warmup 500            milliseconds to warm up each stage
+ *              --csv results.csv       also write the results as CSV
+ *              --baseline base.csv     compare against the CSV of an earlier run
+ *          Sizes that do not fit in the heap are skipped; a 1G corpus needs
+ *          roughly -Xmx6g.
+ *
+ *          This is a standalone harness in place of JMH so it runs with just javac
+ *          and java, like the rest of the project.
+ */
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class HuffmanBenchmark
+{
+    //the largest corpus the String based Encode and Decode are run on, since their output is 16 times the input
+    private static final long STRING_CODING_LIMIT = 4L << 20;
+
+    //results are summed into this so the JIT cannot drop the work
+    private static volatile long sink;
+
+    /*
+     * Interface: Stage
+     * Purpose: one stage of coding, run once per call
+     */
+    private interface Stage
+    {
+        long run() throws Exception;
+    }
+
+    /*
+     * Class: Result
+     * Purpose: the measurements of one stage on one corpus
+     */
+    private static class Result
+    {
+        String corpus;
+        String stage;
+        double megabytesPerSecond;
+        double nanosPerRun;
+        double bytesAllocatedPerRun;
+        double allocationMegabytesPerSecond;
+    }
+
+    /*
+     * Method: main
+     * Purpose: runs every stage on every corpus and prints the results
+     * Parameters: String[] args - the options described in the header
+     * Returns: void
+     * */
+    public static void main(String[] args) throws Exception
+    {
+        String sizes = "1K,64K,1M,16M";
+        String entropies = "2,4.5,6";
+        long timeMillis = 1000;
+        long warmupMillis = 500;
+        Path csv = null;
+        Path baseline = null;
+        for (int i = 0; i + 1 < args.length; i += 2)
+        {
+            switch (args[i])
+            {
+                case "--sizes": sizes = args[i + 1]; break;
+                case "--entropy": entropies = args[i + 1]; break;
+                case "--time": timeMillis = Long.parseLong(args[i + 1]); break;
+                case "--warmup": warmupMillis = Long.parseLong(args[i + 1]); break;
+                case "--csv": csv = Paths.get(args[i + 1]); break;
+                case "--baseline": baseline = Paths.get(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        Map<String, String> corpora = new java.util.LinkedHashMap<String, String>();
+        for (int i = 1; i <= 5; i++)
+        {
+            Path file = Paths.get("test" + i + ".txt");
+            if (Files.exists(file))
+            {
+                corpora.put(file.toString(), HuffmanEncodingTest.parseText(file.toString()));
+            }
+        }
+        Map<String, Double> baselineResults = baseline == null ? new HashMap<String, Double>() : readCsv(baseline);
+
+        List<Result> results = new ArrayList<Result>();
+        System.out.printf("%-24s %-12s %12s %14s %14s %12s%s%n", "corpus", "stage", "MB/s", "ns/run", "alloc B/run", "alloc MB/s",
+                          baselineResults.isEmpty() ? "" : "   vs baseline");
+        for (Map.Entry<String, String> corpus : corpora.entrySet())
+        {
+            benchmark(corpus.getKey(), corpus.getValue(), timeMillis, warmupMillis, baselineResults, results);
+        }
+        for (String size : sizes.split(","))
+        {
+            long length = parseSize(size.trim());
+            for (String entropy : entropies.split(","))
+            {
+                String name = "gen-" + size.trim() + "-H" + entropy.trim();
+                //the text, its char array copy and the encoded bits all have to fit at once
+                if (length * 6 > Runtime.getRuntime().maxMemory())
+                {
+                    System.out.println(name + ": skipped, needs a bigger heap (-Xmx)");
+                    continue;
+                }
+                String text = generate(length, Double.parseDouble(entropy.trim()), 42);
+                benchmark(name, text, timeMillis, warmupMillis, baselineResults, results);
+            }
+        }
+        if (csv != null)
+        {
+            writeCsv(csv, results);
+        }
+    }
+
+    /*
+     * Method: benchmark
+     * Purpose: measures every stage on one corpus
+     * Parameters: String name - the name of the corpus
+     *             String text - the corpus
+     *             long timeMillis - how long to measure each stage
+     *             long warmupMillis - how long to warm up each stage
+     *             Map<String, Double> baseline - earlier MB/s by corpus and stage, may be empty
+     *             List<Result> results - where the results are added
+     * Returns: void
+     * */
+    private static void benchmark(String name, String text, long timeMillis, long warmupMillis,
+                                  Map<String, Double> baseline, List<Result> results) throws Exception
+    {
+        long[] counts = CharacterHistogram.count(text);
+        HashMap<Character, Integer> frequencies = CharacterHistogram.toFrequencyMap(counts);
+        HuffmanEncodingTree tree = new HuffmanEncodingTree(frequencies);
+        CanonicalHuffmanCode code = tree.getCanonicalCode();
+        int[] symbols = new int[code.getSize()];
+        int[] lengths = new int[code.getSize()];
+        for (int i = 0; i < symbols.length; i++)
+        {
+            symbols[i] = code.getSymbol(i);
+            lengths[i] = code.getCodeLength(symbols[i]);
+        }
+        EncodedBits packed = tree.EncodePacked(text);
+
+        Map<String, Stage> stages = new java.util.LinkedHashMap<String, Stage>();
+        stages.put("count", () -> CharacterHistogram.count(text)[text.charAt(0)]);
+        stages.put("tree", () -> new HuffmanEncodingTree(frequencies).getEncodingMap().size());
+        stages.put("arrayTree", () -> HuffmanCoder.buildCode(counts).getSize());
+        stages.put("tables", () -> new CanonicalHuffmanCode(symbols, lengths, symbols.length).newDecoder().getMinLength());
+        stages.put("encode", () -> tree.EncodePacked(text).bitLength);
+        stages.put("decode", () -> tree.DecodePacked(packed).length());
+        if (text.length() <= STRING_CODING_LIMIT)
+        {
+            String bits = tree.Encode(text);
+            stages.put("encodeString", () -> tree.Encode(text).length());
+            stages.put("decodeString", () -> tree.Decode(bits).length());
+        }
+        for (Map.Entry<String, Stage> stage : stages.entrySet())
+        {
+            Result result = measure(name, stage.getKey(), text.length(), stage.getValue(), timeMillis, warmupMillis);
+            results.add(result);
+            Double before = baseline.get(name + "," + stage.getKey());
+            String change = before == null ? "" : String.format("   %+.1f%%", (result.megabytesPerSecond / before - 1) * 100);
+            System.out.printf("%-24s %-12s %12.2f %14.0f %14.0f %12.1f%s%n", name, stage.getKey(), result.megabytesPerSecond,
+                              result.nanosPerRun, result.bytesAllocatedPerRun, result.allocationMegabytesPerSecond, change);
+        }
+    }
+
+    /*
+     * Method: measure
+     * Purpose: warms up a stage and then runs it for a fixed time
+     * Parameters: String corpus - the name of the corpus
+     *             String stageName - the name of the stage
+     *             long inputBytes - the size of the input of one run
+     *             Stage stage - the stage
+     *             long timeMillis - how long to measure
+     *             long warmupMillis - how long to warm up
+     * Returns: Result - the measurements
+     * */
+    private static Result measure(String corpus, String stageName, long inputBytes, Stage stage,
+                                  long timeMillis, long warmupMillis) throws Exception
+    {
+        runFor(stage, warmupMillis * 1_000_000L);
+        System.gc();
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        long runs = runFor(stage, timeMillis * 1_000_000L);
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        Result result = new Result();
+        result.corpus = corpus;
+        result.stage = stageName;
+        result.megabytesPerSecond = inputBytes * runs / (elapsed / 1e9) / 1e6;
+        result.nanosPerRun = (double) elapsed / runs;
+        result.bytesAllocatedPerRun = allocatedBefore < 0 ? Double.NaN : (double) allocated / runs;
+        result.allocationMegabytesPerSecond = allocatedBefore < 0 ? Double.NaN : allocated / (elapsed / 1e9) / 1e6;
+        return result;
+    }
+
+    /*
+     * Method: runFor
+     * Purpose: runs a stage until the time is up, always at least once
+     * Parameters: Stage stage - the stage
+     *             long nanos - how long to keep running it
+     * Returns: long - the number of runs
+     * */
+    private static long runFor(Stage stage, long nanos) throws Exception
+    {
+        long end = System.nanoTime() + nanos;
+        long runs = 0;
+        long total = 0;
+        do
+        {
+            total += stage.run();
+            runs++;
+        }
+        while (System.nanoTime() < end);
+        sink += total;
+        return runs;
+    }
+
+    /*
+     * Method: allocatedBytes
+     * Purpose: returns the bytes this thread has allocated so far
+     * Parameters: none
+     * Returns: long - the bytes allocated, or -1 if the JVM does not count them
+     * */
+    private static long allocatedBytes()
+    {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean)
+        {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /*
+     * Method: generate
+     * Purpose: generates text with about bitsPerChar bits of entropy per char by
+     *          drawing each char uniformly from 2^bitsPerChar printable chars
+     * Parameters: long length - the number of chars
+     *             double bitsPerChar - the entropy, between 0 and about 6.5
+     *             long seed - the random seed, so runs are repeatable
+     * Returns: String - the text
+     * */
+    private static String generate(long length, double bitsPerChar, long seed)
+    {
+        if (length > Integer.MAX_VALUE - 8)
+        {
+            throw new IllegalArgumentException("Corpus of " + length + " chars is too long for a String");
+        }
+        int alphabet = (int) Math.max(1, Math.min(95, Math.round(Math.pow(2, bitsPerChar))));
+        char[] text = new char[(int) length];
+        Random random = new Random(seed);
+        for (int i = 0; i < text.length; i++)
+        {
+            text[i] = (char) (' ' + random.nextInt(alphabet));
+        }
+        return new String(text);
+    }
+
+    /*
+     * Method: parseSize
+     * Purpose: reads a size such as 64K, 16M or 1G
+     * Parameters: String size - the size
+     * Returns: long - the size in chars
+     * */
+    private static long parseSize(String size)
+    {
+        char unit = Character.toUpperCase(size.charAt(size.length() - 1));
+        long scale = unit == 'K' ? 1L << 10 : unit == 'M' ? 1L << 20 : unit == 'G' ? 1L << 30 : 1;
+        String digits = scale == 1 ? size : size.substring(0, size.length() - 1);
+        return Long.parseLong(digits) * scale;
+    }
+
+    /*
+     * Method: writeCsv
+     * Purpose: writes the results so a later run can compare against them
+     * Parameters: Path file - where the results are written
+     *             List<Result> results - the results
+     * Returns: void
+     * */
+    private static void writeCsv(Path file, List<Result> results) throws IOException
+    {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file)))
+        {
+            out.println("corpus,stage,mb_per_second,nanos_per_run,bytes_allocated_per_run,allocation_mb_per_second");
+            for (Result result : results)
+            {
+                out.printf("%s,%s,%.3f,%.0f,%.0f,%.3f%n", result.corpus, result.stage, result.megabytesPerSecond,
+                           result.nanosPerRun, result.bytesAllocatedPerRun, result.allocationMegabytesPerSecond);
+            }
+        }
+    }
+
+    /*
+     * Method: readCsv
+     * Purpose: reads the MB/s of each corpus and stage from a CSV written by writeCsv
+     * Parameters: Path file - the CSV
+     * Returns: Map<String, Double> - MB/s by "corpus,stage"
+     * */
+    private static Map<String, Double> readCsv(Path file) throws IOException
+    {
+        Map<String, Double> results = new HashMap<String, Double>();
+        List<String> lines = Files.readAllLines(file);
+        for (String line : lines.subList(1, lines.size()))
+        {
+            String[] fields = line.split(",");
+            results.put(fields[0] + "," + fields[1], Double.parseDouble(fields[2]));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,666 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: HuffmanBlockContainer.java
+ * Date: 10/18/2026
+ * Purpose: A seekable compressed file. The text is cut into blocks of a fixed
+ *          number of characters and every block is encoded on its own with the
+ *          same canonical code, so blocks can be encoded and decoded in parallel
+ *          and any range of characters can be decoded without starting from the
+ *          beginning of the file. Each block is packed straight into a pooled
+ *          direct buffer and the file is written with gathering writes of those
+ *          buffers, so the encoded bits reach the kernel without another copy.
+ *
+ *          Layout (numbers are big endian):
+ *              4 bytes          magic "HUFB"
+ *              int              characters per block
+ *              long             total number of characters
+ *              header           the canonical code header
+ *              blocks           the packed bits of each block, starting on a byte
+ *              index            for each block a long bit offset from the first
+ *                               block and a long bit length
+ *              long             file offset of the first block
+ *              long             file offset of the index
+ *              int              number of blocks
+ *              4 bytes          magic "HUFI"
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+public class HuffmanBlockContainer implements AutoCloseable
+{
+    //the number of characters in a block unless another size is asked for
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 16;
+
+    //the most blocks encoded ahead of the one being written, which bounds the memory a write holds
+    private static final int MAX_PENDING_BLOCKS = 64;
+
+    //the most buffers handed to one gathering write
+    private static final int MAX_GATHER = 16;
+
+    //magic numbers at the start and the end of the file
+    private static final int START_MAGIC = 0x48554642;
+    private static final int END_MAGIC = 0x48554649;
+
+    //the size of the fixed part at the start and at the end of the file
+    private static final int START_SIZE = 16;
+    private static final int END_SIZE = 24;
+
+    //the file being read, or null if the container is held in memory
+    private FileChannel channel;
+
+    //the container bytes if it is held in memory
+    private ByteBuffer bytes;
+
+    //the number of characters in every block but the last
+    private int blockSize;
+
+    //the total number of characters
+    private long length;
+
+    //the file offset of the first block
+    private long payloadOffset;
+
+    //the bit offset (from the first block) and bit length of each block
+    private long[] blockOffsets;
+    private long[] blockLengths;
+
+    //lookup tables for the code every block was encoded with
+    private HuffmanTableDecoder decoder;
+
+    //measurements of the blocks decoded from this container
+    private HuffmanStatistics statistics;
+
+    /*
+     * Method: write
+     * Purpose: encodes text into a container file, encoding blocks in parallel on pool
+     * Parameters: CharSequence text - the text to compress
+     *             CanonicalHuffmanCode code - the code to encode with
+     *             int blockSize - the number of characters in each block
+     *             ExecutorService pool - the threads that encode the blocks
+     *             Path output - where the container is written
+     * Returns: void
+     * */
+    public static void write(CharSequence text, CanonicalHuffmanCode code, int blockSize, ExecutorService pool, Path output) throws IOException
+    {
+        write(text, code, blockSize, pool, output, new HuffmanStatistics(code));
+    }
+
+    /*
+     * Method: write
+     * Purpose: encodes text into a container file, encoding blocks in parallel on pool
+     * Parameters: CharSequence text - the text to compress
+     *             CanonicalHuffmanCode code - the code to encode with
+     *             int blockSize - the number of characters in each block
+     *             ExecutorService pool - the threads that encode the blocks
+     *             Path output - where the container is written
+     *             HuffmanStatistics statistics - where the encoding of every block and the writes are recorded
+     * Returns: void
+     * */
+    public static void write(CharSequence text, CanonicalHuffmanCode code, int blockSize, ExecutorService pool, Path output,
+                             HuffmanStatistics statistics) throws IOException
+    {
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                               StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            write(text, code, blockSize, pool, new ChannelSink(out), statistics);
+        }
+    }
+
+    /*
+     * Method: toByteArray
+     * Purpose: encodes text into a container held in memory, encoding blocks in parallel on pool
+     * Parameters: CharSequence text - the text to compress
+     *             CanonicalHuffmanCode code - the code to encode with
+     *             int blockSize - the number of characters in each block
+     *             ExecutorService pool - the threads that encode the blocks
+     * Returns: byte[] - the container
+     * */
+    public static byte[] toByteArray(CharSequence text, CanonicalHuffmanCode code, int blockSize, ExecutorService pool) throws IOException
+    {
+        ArraySink sink = new ArraySink();
+        write(text, code, blockSize, pool, sink, new HuffmanStatistics(code));
+        return sink.toByteArray();
+    }
+
+    /*
+     * Method: open
+     * Purpose: opens a container file for reading
+     * Parameters: Path input - the container file
+     * Returns: HuffmanBlockContainer - the opened container, which must be closed
+     * */
+    public static HuffmanBlockContainer open(Path input) throws IOException
+    {
+        HuffmanBlockContainer container = new HuffmanBlockContainer();
+        container.channel = FileChannel.open(input, StandardOpenOption.READ);
+        try
+        {
+            container.readLayout(container.channel.size());
+        }
+        catch (IOException | RuntimeException e)
+        {
+            container.channel.close();
+            throw e;
+        }
+        return container;
+    }
+
+    /*
+     * Method: fromByteArray
+     * Purpose: reads a container that is held in memory
+     * Parameters: byte[] data - the container bytes
+     * Returns: HuffmanBlockContainer - the container
+     * */
+    public static HuffmanBlockContainer fromByteArray(byte[] data) throws IOException
+    {
+        HuffmanBlockContainer container = new HuffmanBlockContainer();
+        container.bytes = ByteBuffer.wrap(data);
+        container.readLayout(data.length);
+        return container;
+    }
+
+    /*
+     * Method: getLength
+     * Purpose: returns the total number of characters in the container
+     * Parameters: none
+     * Returns: long - the number of characters
+     * */
+    public long getLength()
+    {
+        return length;
+    }
+
+    /*
+     * Method: getBlockCount
+     * Purpose: returns the number of blocks in the container
+     * Parameters: none
+     * Returns: int - the number of blocks
+     * */
+    public int getBlockCount()
+    {
+        return blockOffsets.length;
+    }
+
+    /*
+     * Method: getStatistics
+     * Purpose: returns measurements of the blocks decoded from this container so far
+     * Parameters: none
+     * Returns: HuffmanStatistics - the measurements
+     * */
+    public HuffmanStatistics getStatistics()
+    {
+        return statistics;
+    }
+
+    /*
+     * Method: getBlockSize
+     * Purpose: returns the number of characters in every block but the last
+     * Parameters: none
+     * Returns: int - the block size
+     * */
+    public int getBlockSize()
+    {
+        return blockSize;
+    }
+
+    /*
+     * Method: decodeBlock
+     * Purpose: decodes a single block
+     * Parameters: int block - the index of the block
+     * Returns: String - the characters of the block
+     * */
+    public String decodeBlock(int block) throws IOException
+    {
+        long bitOffset = blockOffsets[block];
+        long bitLength = blockLengths[block];
+        byte[] data = readAt(payloadOffset + bitOffset / 8, (int) ((bitLength + 7) / 8));
+        try
+        {
+            long start = System.nanoTime();
+            String text = decoder.decodeToString(data, bitLength);
+            statistics.recordPhase(HuffmanStatistics.Phase.DECODE, System.nanoTime() - start, text.length());
+            statistics.recordDecoding(text.length(), text.length(), bitLength);
+            return text;
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IOException("Block " + block + " is corrupt: " + e.getMessage(), e);
+        }
+    }
+
+    /*
+     * Method: decompress
+     * Purpose: decodes every block, in parallel on pool
+     * Parameters: ExecutorService pool - the threads that decode the blocks
+     * Returns: String - all of the text
+     * */
+    public String decompress(ExecutorService pool) throws IOException
+    {
+        return decompressRange(0, length, pool);
+    }
+
+    /*
+     * Method: decompressRange
+     * Purpose: decodes only the blocks that hold the characters from start to end
+     * Parameters: long start - the index of the first character
+     *             long end - one past the index of the last character
+     *             ExecutorService pool - the threads that decode the blocks
+     * Returns: String - the characters from start to end
+     * */
+    public String decompressRange(long start, long end, ExecutorService pool) throws IOException
+    {
+        if (start < 0 || end > length || start > end)
+        {
+            throw new IndexOutOfBoundsException("Range " + start + " to " + end + " is outside 0 to " + length);
+        }
+        if (start == end)
+        {
+            return "";
+        }
+        int first = (int) (start / blockSize);
+        int last = (int) ((end - 1) / blockSize);
+        List<Future<String>> blocks = new ArrayList<Future<String>>();
+        for (int block = first; block <= last; block++)
+        {
+            final int index = block;
+            blocks.add(pool.submit(() -> decodeBlock(index)));
+        }
+        StringBuilder output = new StringBuilder((int) Math.min(end - start, Integer.MAX_VALUE));
+        for (int i = 0; i < blocks.size(); i++)
+        {
+            String text = get(blocks.get(i));
+            long blockStart = (long) (first + i) * blockSize;
+            int from = (int) Math.max(start - blockStart, 0);
+            int to = (int) Math.min(end - blockStart, text.length());
+            output.append(text, from, to);
+        }
+        return output.toString();
+    }
+
+    /*
+     * Method: close
+     * Purpose: closes the container file, if there is one
+     * Parameters: none
+     * Returns: void
+     * */
+    @Override
+    public void close() throws IOException
+    {
+        if (channel != null)
+        {
+            channel.close();
+        }
+    }
+
+    /*
+     * Method: write
+     * Purpose: encodes the blocks of text in parallel and writes them, in order, to sink.
+     *          At most MAX_PENDING_BLOCKS blocks are encoded ahead of the one being
+     *          written, so a large text does not have all of its blocks in memory at once.
+     * Parameters: CharSequence text - the text to compress
+     *             CanonicalHuffmanCode code - the code to encode with
+     *             int blockSize - the number of characters in each block
+     *             ExecutorService pool - the threads that encode the blocks
+     *             Sink sink - where the container is written
+     *             HuffmanStatistics statistics - where the encoding of every block and the writes are recorded
+     * Returns: void
+     * */
+    private static void write(CharSequence text, CanonicalHuffmanCode code, int blockSize, ExecutorService pool, Sink sink,
+                              HuffmanStatistics statistics) throws IOException
+    {
+        if (blockSize < 1)
+        {
+            throw new IllegalArgumentException("Block size must be at least 1");
+        }
+        long length = text.length();
+        int blockCount = (int) ((length + blockSize - 1) / blockSize);
+        ArrayDeque<Future<Block>> blocks = new ArrayDeque<Future<Block>>();
+        List<ByteBuffer> batch = new ArrayList<ByteBuffer>(MAX_GATHER + 1);
+        ByteBuffer index = null;
+        boolean written = false;
+        try
+        {
+            int submitted = 0;
+            while (submitted < Math.min(blockCount, MAX_PENDING_BLOCKS))
+            {
+                blocks.add(pool.submit(encodeTask(text, code, blockSize, submitted++, statistics)));
+            }
+            byte[] header = code.toHeader();
+            ByteBuffer start = DirectBufferPool.SHARED.acquire(START_SIZE + header.length);
+            batch.add(start);
+            start.putInt(START_MAGIC).putInt(blockSize).putLong(length).put(header).flip();
+            long payloadOffset = start.remaining();
+            statistics.recordHeader(payloadOffset + (long) blockCount * 16 + END_SIZE);
+            index = DirectBufferPool.SHARED.acquire(blockCount * 16 + END_SIZE);
+            long bitOffset = 0;
+            while (!blocks.isEmpty())
+            {
+                Block block = get(blocks.remove());
+                batch.add(block.data);
+                if (submitted < blockCount)
+                {
+                    blocks.add(pool.submit(encodeTask(text, code, blockSize, submitted++, statistics)));
+                }
+                index.putLong(bitOffset).putLong(block.bitLength);
+                bitOffset += (long) block.data.remaining() * 8;
+                //write what is ready rather than wait on a block that is still being encoded
+                if (batch.size() >= MAX_GATHER || (!blocks.isEmpty() && !blocks.peek().isDone()))
+                {
+                    writeBatch(sink, batch, statistics);
+                }
+            }
+            long indexOffset = payloadOffset + bitOffset / 8;
+            index.putLong(payloadOffset).putLong(indexOffset).putInt(blockCount).putInt(END_MAGIC).flip();
+            batch.add(index);
+            index = null;
+            writeBatch(sink, batch, statistics);
+            written = true;
+        }
+        finally
+        {
+            if (!written)
+            {
+                discard(blocks, batch, index);
+            }
+        }
+    }
+
+    /*
+     * Method: discard
+     * Purpose: cleans up after a write that failed: cancels the blocks still being
+     *          encoded and gives every buffer that was not written back to the pool
+     * Parameters: ArrayDeque<Future<Block>> blocks - the blocks that were not taken yet
+     *             List<ByteBuffer> batch - the buffers that were not written yet
+     *             ByteBuffer index - the block index if it is not in batch, or null
+     * Returns: void
+     * */
+    private static void discard(ArrayDeque<Future<Block>> blocks, List<ByteBuffer> batch, ByteBuffer index)
+    {
+        for (Future<Block> future : blocks)
+        {
+            //a block that already started cannot be stopped, so wait for its buffer
+            if (!future.cancel(false))
+            {
+                try
+                {
+                    DirectBufferPool.SHARED.release(get(future).data);
+                }
+                catch (IOException | RuntimeException e)
+                {
+                    //the block failed too, and its task gave its buffer back
+                }
+            }
+        }
+        blocks.clear();
+        for (ByteBuffer buffer : batch)
+        {
+            DirectBufferPool.SHARED.release(buffer);
+        }
+        batch.clear();
+        if (index != null)
+        {
+            DirectBufferPool.SHARED.release(index);
+        }
+    }
+
+    /*
+     * Method: writeBatch
+     * Purpose: writes buffers to sink in one gathering write and gives them back to the pool
+     * Parameters: Sink sink - where the buffers are written
+     *             List<ByteBuffer> batch - the buffers, emptied afterwards
+     *             HuffmanStatistics statistics - where the write is recorded
+     * Returns: void
+     * */
+    private static void writeBatch(Sink sink, List<ByteBuffer> batch, HuffmanStatistics statistics) throws IOException
+    {
+        long start = System.nanoTime();
+        long bytes = 0;
+        for (ByteBuffer buffer : batch)
+        {
+            bytes += buffer.remaining();
+        }
+        sink.write(batch.toArray(new ByteBuffer[batch.size()]));
+        statistics.recordPhase(HuffmanStatistics.Phase.WRITE, System.nanoTime() - start, bytes);
+        for (ByteBuffer buffer : batch)
+        {
+            DirectBufferPool.SHARED.release(buffer);
+        }
+        batch.clear();
+    }
+
+    /*
+     * Method: encodeTask
+     * Purpose: returns a task that encodes one block of text into a pooled direct buffer
+     * Parameters: CharSequence text - the text to compress
+     *             CanonicalHuffmanCode code - the code to encode with
+     *             int blockSize - the number of characters in each block
+     *             int block - the index of the block
+     *             HuffmanStatistics statistics - where the encoding is recorded
+     * Returns: Callable - the task, whose result is the packed bits of the block
+     * */
+    private static Callable<Block> encodeTask(CharSequence text, CanonicalHuffmanCode code, int blockSize, int block,
+                                              HuffmanStatistics statistics)
+    {
+        int from = (int) Math.min(text.length(), (long) block * blockSize);
+        int to = (int) Math.min(text.length(), (long) from + blockSize);
+        return () -> {
+            long start = System.nanoTime();
+            BitWriter writer = new BitWriter(DirectBufferPool.SHARED, (to - from) / 2 + 16);
+            for (int i = from; i < to; i++)
+            {
+                char c = text.charAt(i);
+                int length = code.getCodeLength(c);
+                if (length == 0)
+                {
+                    DirectBufferPool.SHARED.release(writer.takeBuffer());
+                    throw new IllegalArgumentException("Character '" + c + "' is not in the code");
+                }
+                writer.write(code.getCode(c), length);
+            }
+            long bitLength = writer.getBitLength();
+            Block encoded = new Block(writer.takeBuffer(), bitLength);
+            statistics.recordPhase(HuffmanStatistics.Phase.ENCODE, System.nanoTime() - start, to - from);
+            statistics.recordEncoding(to - from, to - from, bitLength);
+            return encoded;
+        };
+    }
+
+    /*
+     * Method: readLayout
+     * Purpose: reads the fixed parts, the code header, and the block index
+     * Parameters: long size - the size of the container in bytes
+     * Returns: void
+     * */
+    private void readLayout(long size) throws IOException
+    {
+        if (size < START_SIZE + END_SIZE)
+        {
+            throw new IOException("File is too small to be a block container");
+        }
+        ByteBuffer start = ByteBuffer.wrap(readAt(0, START_SIZE));
+        ByteBuffer end = ByteBuffer.wrap(readAt(size - END_SIZE, END_SIZE));
+        if (start.getInt() != START_MAGIC || end.getInt(END_SIZE - 4) != END_MAGIC)
+        {
+            throw new IOException("File is not a block container");
+        }
+        blockSize = start.getInt();
+        length = start.getLong();
+        payloadOffset = end.getLong();
+        long indexOffset = end.getLong();
+        int blockCount = end.getInt();
+        if (blockSize < 1 || length < 0 || payloadOffset < START_SIZE || indexOffset < payloadOffset
+                || blockCount < 0 || indexOffset + blockCount * 16L != size - END_SIZE
+                || blockCount != (length + blockSize - 1) / blockSize)
+        {
+            throw new IOException("Block container layout is corrupt");
+        }
+        byte[] header = readAt(START_SIZE, (int) (payloadOffset - START_SIZE));
+        CanonicalHuffmanCode code = CanonicalHuffmanCode.readHeader(new ByteArrayInputStream(header));
+        decoder = code.newDecoder();
+        statistics = new HuffmanStatistics(code);
+        ByteBuffer index = ByteBuffer.wrap(readAt(indexOffset, blockCount * 16));
+        blockOffsets = new long[blockCount];
+        blockLengths = new long[blockCount];
+        for (int i = 0; i < blockCount; i++)
+        {
+            blockOffsets[i] = index.getLong();
+            blockLengths[i] = index.getLong();
+            if (blockOffsets[i] < 0 || blockLengths[i] < 0
+                    || blockOffsets[i] / 8 + (blockLengths[i] + 7) / 8 > indexOffset - payloadOffset)
+            {
+                throw new IOException("Block " + i + " lies outside the container");
+            }
+        }
+    }
+
+    /*
+     * Method: readAt
+     * Purpose: reads length bytes starting at position of the container
+     * Parameters: long position - the offset of the first byte
+     *             int length - the number of bytes to read
+     * Returns: byte[] - the bytes that were read
+     * */
+    private byte[] readAt(long position, int length) throws IOException
+    {
+        byte[] data = new byte[length];
+        if (channel == null)
+        {
+            ByteBuffer view = bytes.duplicate();
+            view.position((int) position);
+            view.get(data);
+            return data;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining())
+        {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+            {
+                throw new IOException("Block container ends early");
+            }
+        }
+        return data;
+    }
+
+    /*
+     * Method: get
+     * Purpose: waits for a block task and unwraps the exception it failed with
+     * Parameters: Future future - the task
+     * Returns: the result of the task
+     * */
+    private static <T> T get(Future<T> future) throws IOException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a block", e);
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /*
+     * Class: Block
+     * Purpose: the packed bits of one encoded block
+     */
+    private static class Block
+    {
+        //the bytes of the block, ready to be read
+        final ByteBuffer data;
+
+        //the number of bits in the block
+        final long bitLength;
+
+        Block(ByteBuffer data, long bitLength)
+        {
+            this.data = data;
+            this.bitLength = bitLength;
+        }
+    }
+
+    /*
+     * Interface: Sink
+     * Purpose: somewhere a container can be written
+     */
+    private interface Sink
+    {
+        void write(ByteBuffer[] buffers) throws IOException;
+    }
+
+    /*
+     * Class: ChannelSink
+     * Purpose: writes a container to a file, handing the kernel several buffers at once
+     */
+    private static class ChannelSink implements Sink
+    {
+        private final FileChannel channel;
+
+        ChannelSink(FileChannel channel)
+        {
+            this.channel = channel;
+        }
+
+        public void write(ByteBuffer[] buffers) throws IOException
+        {
+            int first = 0;
+            while (first < buffers.length)
+            {
+                channel.write(buffers, first, buffers.length - first);
+                while (first < buffers.length && !buffers[first].hasRemaining())
+                {
+                    first++;
+                }
+            }
+        }
+    }
+
+    /*
+     * Class: ArraySink
+     * Purpose: writes a container into memory
+     */
+    private static class ArraySink implements Sink
+    {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        public void write(ByteBuffer[] buffers)
+        {
+            for (ByteBuffer buffer : buffers)
+            {
+                byte[] bytes = new byte[buffer.remaining()];
+                buffer.get(bytes);
+                out.write(bytes, 0, bytes.length);
+            }
+        }
+
+        byte[] toByteArray()
+        {
+            return out.toByteArray();
+        }
+    }
+}
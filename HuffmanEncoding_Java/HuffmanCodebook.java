@@ -0,0 +1,199 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: HuffmanCodebook.java
+ * Date: 10/18/2026
+ * Purpose: A canonical Huffman code trained once on sample text and then shared
+ *          by many short messages. A message names its codebook by ID instead of
+ *          carrying a code header, so its overhead is a couple of bytes. Chars
+ *          that were not in the samples are sent as the ESCAPE symbol followed by
+ *          the 16 bits of the char, so any text can be encoded.
+ *
+ *          A message is: varint codebook ID, varint number of chars, the bits.
+ *          A saved codebook is: varint ID, then the canonical code header.
+ *          HuffmanCodebookCache keeps saved codebooks and decodes messages.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public class HuffmanCodebook
+{
+    //the symbol that comes before a char the codebook has no code for
+    public static final int ESCAPE = Character.MAX_VALUE + 1;
+
+    //the ID messages use to name this codebook
+    private final int id;
+
+    //the code, including ESCAPE
+    private final CanonicalHuffmanCode code;
+
+    //lookup tables for decoding
+    private final HuffmanTableDecoder decoder;
+
+    /*
+     * Constructor
+     * Purpose: creates a codebook from a code that has a code for ESCAPE
+     * Parameters: int id - the ID of the codebook, at least 0
+     *             CanonicalHuffmanCode code - the code
+     * */
+    public HuffmanCodebook(int id, CanonicalHuffmanCode code)
+    {
+        if (id < 0)
+        {
+            throw new IllegalArgumentException("Codebook ID " + id + " is negative");
+        }
+        if (code.getCodeLength(ESCAPE) == 0)
+        {
+            throw new IllegalArgumentException("Codebook has no code for ESCAPE");
+        }
+        this.id = id;
+        this.code = code;
+        this.decoder = code.newDecoder();
+    }
+
+    /*
+     * Method: train
+     * Purpose: builds a codebook from the chars of sample texts. ESCAPE is counted
+     *          once, so it gets one of the longest codes.
+     * Parameters: int id - the ID of the codebook
+     *             CharSequence... samples - text like the messages that will be encoded
+     * Returns: HuffmanCodebook - the codebook
+     * */
+    public static HuffmanCodebook train(int id, CharSequence... samples)
+    {
+        long[] counts = new long[ESCAPE + 1];
+        for (CharSequence sample : samples)
+        {
+            CharacterHistogram.addCounts(counts, sample, 0, sample.length());
+        }
+        counts[ESCAPE] = 1;
+        return new HuffmanCodebook(id, HuffmanCoder.buildCode(counts));
+    }
+
+    /*
+     * Method: getId
+     * Purpose: returns the ID messages use to name this codebook
+     * Parameters: none
+     * Returns: int - the ID
+     * */
+    public int getId()
+    {
+        return id;
+    }
+
+    /*
+     * Method: getCode
+     * Purpose: returns the code, which includes ESCAPE
+     * Parameters: none
+     * Returns: CanonicalHuffmanCode - the code
+     * */
+    public CanonicalHuffmanCode getCode()
+    {
+        return code;
+    }
+
+    /*
+     * Method: compress
+     * Purpose: encodes a message with this codebook
+     * Parameters: CharSequence text - the message
+     * Returns: byte[] - the codebook ID, the number of chars, and the bits
+     * */
+    public byte[] compress(CharSequence text)
+    {
+        BitWriter writer = new BitWriter(text.length() / 2 + 8);
+        for (int i = 0; i < text.length(); i++)
+        {
+            char c = text.charAt(i);
+            if (code.getCodeLength(c) != 0)
+            {
+                code.write(writer, c);
+            }
+            else
+            {
+                code.write(writer, ESCAPE);
+                writer.write(c, 16);
+            }
+        }
+        byte[] bits = writer.toByteArray();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bits.length + 8);
+        try
+        {
+            VarInt.write(out, id);
+            VarInt.write(out, text.length());
+        }
+        catch (IOException e)
+        {
+            //ByteArrayOutputStream never throws
+            throw new IllegalStateException(e);
+        }
+        out.write(bits, 0, bits.length);
+        return out.toByteArray();
+    }
+
+    /*
+     * Method: decode
+     * Purpose: decodes the bits of a message written by compress
+     * Parameters: byte[] message - the whole message
+     *             int offset - the index of the first byte of the bits
+     *             int length - the number of chars in the message
+     * Returns: String - the message text
+     * */
+    public String decode(byte[] message, int offset, int length)
+    {
+        long bitLimit = (long) (message.length - offset) * 8;
+        //every char takes at least the shortest code, and an escape only adds bits
+        if (length < 0 || length > bitLimit / decoder.getMinLength())
+        {
+            throw new IllegalArgumentException("Message is too short to hold " + length + " chars");
+        }
+        BitReader reader = new BitReader(message, offset, message.length - offset);
+        char[] text = new char[length];
+        int[] symbol = new int[1];
+        for (int i = 0; i < length; i++)
+        {
+            if (decoder.decode(reader, bitLimit, symbol, 0, 1) == 0)
+            {
+                throw new IllegalArgumentException("Message ended before " + length + " chars were decoded");
+            }
+            text[i] = symbol[0] == ESCAPE ? (char) reader.read(16) : (char) symbol[0];
+        }
+        if (reader.getBitsRead() > bitLimit)
+        {
+            throw new IllegalArgumentException("Message ended in the middle of an escaped char");
+        }
+        return new String(text);
+    }
+
+    /*
+     * Method: write
+     * Purpose: writes the ID and code of this codebook
+     * Parameters: OutputStream out - where the codebook is written
+     * Returns: void
+     * */
+    public void write(OutputStream out) throws IOException
+    {
+        VarInt.write(out, id);
+        code.writeHeader(out);
+    }
+
+    /*
+     * Method: read
+     * Purpose: reads a codebook written by write
+     * Parameters: InputStream in - where the codebook is read from
+     * Returns: HuffmanCodebook - the codebook
+     * */
+    public static HuffmanCodebook read(InputStream in) throws IOException
+    {
+        int id = VarInt.readInt(in);
+        try
+        {
+            return new HuffmanCodebook(id, CanonicalHuffmanCode.readHeader(in));
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+}
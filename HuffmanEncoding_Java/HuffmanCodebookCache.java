@@ -0,0 +1,158 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: HuffmanCodebookCache.java
+ * Date: 10/18/2026
+ * Purpose: Keeps HuffmanCodebooks saved in a directory, one file per ID, and holds
+ *          the most recently used ones in memory. The cache is bounded: once it
+ *          holds capacity codebooks, using another drops the one used longest ago,
+ *          which is read back from its file if it is needed again. Codebooks never
+ *          change after they are built, so one cache can be shared by every thread.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class HuffmanCodebookCache
+{
+    //the directory holding the saved codebooks
+    private final Path directory;
+
+    //the most codebooks held in memory
+    private final int capacity;
+
+    //the codebooks in memory, least recently used first
+    private final LinkedHashMap<Integer, HuffmanCodebook> cache;
+
+    /*
+     * Constructor
+     * Purpose: creates a cache over a directory of saved codebooks
+     * Parameters: Path directory - where codebooks are saved, created if it does not exist
+     *             int capacity - the most codebooks held in memory, at least 1
+     * */
+    public HuffmanCodebookCache(Path directory, int capacity) throws IOException
+    {
+        if (capacity < 1)
+        {
+            throw new IllegalArgumentException("Cache capacity " + capacity + " is below 1");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.capacity = capacity;
+        this.cache = new LinkedHashMap<Integer, HuffmanCodebook>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, HuffmanCodebook> eldest)
+            {
+                return size() > HuffmanCodebookCache.this.capacity;
+            }
+        };
+    }
+
+    /*
+     * Method: put
+     * Purpose: saves a codebook to its file and adds it to the cache
+     * Parameters: HuffmanCodebook codebook - the codebook
+     * Returns: void
+     * */
+    public void put(HuffmanCodebook codebook) throws IOException
+    {
+        try (OutputStream out = Files.newOutputStream(fileFor(codebook.getId())))
+        {
+            codebook.write(out);
+        }
+        synchronized (cache)
+        {
+            cache.put(codebook.getId(), codebook);
+        }
+    }
+
+    /*
+     * Method: get
+     * Purpose: returns a codebook, reading it from its file if it is not in memory
+     * Parameters: int id - the ID of the codebook
+     * Returns: HuffmanCodebook - the codebook
+     * */
+    public HuffmanCodebook get(int id) throws IOException
+    {
+        synchronized (cache)
+        {
+            HuffmanCodebook codebook = cache.get(id);
+            if (codebook != null)
+            {
+                return codebook;
+            }
+        }
+        HuffmanCodebook codebook;
+        try (InputStream in = Files.newInputStream(fileFor(id)))
+        {
+            codebook = HuffmanCodebook.read(in);
+        }
+        catch (NoSuchFileException e)
+        {
+            throw new IOException("No codebook with ID " + id, e);
+        }
+        if (codebook.getId() != id)
+        {
+            throw new IOException("The file for codebook " + id + " holds codebook " + codebook.getId());
+        }
+        synchronized (cache)
+        {
+            //another thread may have read it at the same time, in which case keep the first copy
+            HuffmanCodebook existing = cache.putIfAbsent(id, codebook);
+            return existing != null ? existing : codebook;
+        }
+    }
+
+    /*
+     * Method: size
+     * Purpose: returns the number of codebooks in memory
+     * Parameters: none
+     * Returns: int - the number of cached codebooks
+     * */
+    public int size()
+    {
+        synchronized (cache)
+        {
+            return cache.size();
+        }
+    }
+
+    /*
+     * Method: decompress
+     * Purpose: decodes a message with the codebook its ID names
+     * Parameters: byte[] message - a message written by HuffmanCodebook.compress
+     * Returns: String - the message text
+     * */
+    public String decompress(byte[] message) throws IOException
+    {
+        ByteArrayInputStream in = new ByteArrayInputStream(message);
+        int id = VarInt.readInt(in);
+        int length = VarInt.readInt(in);
+        HuffmanCodebook codebook = get(id);
+        try
+        {
+            return codebook.decode(message, message.length - in.available(), length);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /*
+     * Method: fileFor
+     * Purpose: returns the file a codebook is saved in
+     * Parameters: int id - the ID of the codebook
+     * Returns: Path - the file
+     * */
+    private Path fileFor(int id)
+    {
+        return directory.resolve(id + ".codebook");
+    }
+}
@@ -0,0 +1,672 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: HuffmanCoder.java
+ * Date: 10/18/2026
+ * Purpose: Encodes and decodes with a canonical Huffman code over one of the
+ *          symbol alphabets: bytes for binary data, chars, or whole Unicode code
+ *          points. In byte mode the codes are kept in two arrays of 256 entries
+ *          so encoding is a pair of array lookups per byte with no hashing.
+ *
+ *          It is also the Huffman EntropyCoder, which codes text in char or code
+ *          point mode.
+ *
+ *          compress writes one byte naming the alphabet, the canonical code
+ *          header, the encoded length in bits as a varint, and the packed bits.
+ *
+ *          Every phase is timed into the coder's HuffmanStatistics, along with the
+ *          sizes before and after coding, so getStatistics shows where the time
+ *          goes and how close the code is to the entropy.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class HuffmanCoder implements EntropyCoder
+{
+    //the kind of symbols this coder encodes
+    private final SymbolAlphabet alphabet;
+
+    //the code for each symbol
+    private final CanonicalHuffmanCode code;
+
+    //lookup tables for decoding
+    private final HuffmanTableDecoder decoder;
+
+    //the measurements of this coder
+    private final HuffmanStatistics statistics;
+
+    //in byte mode, the code and code length of every byte value
+    private long[] byteCodes;
+    private int[] byteLengths;
+
+    /*
+     * Constructor
+     * Purpose: creates a coder for a code that has already been built
+     * Parameters: SymbolAlphabet alphabet - the kind of symbols the code is for
+     *             CanonicalHuffmanCode code - the code
+     * */
+    public HuffmanCoder(SymbolAlphabet alphabet, CanonicalHuffmanCode code)
+    {
+        this.alphabet = alphabet;
+        this.code = code;
+        for (int i = 0; i < code.getSize(); i++)
+        {
+            if (code.getSymbol(i) > alphabet.maxSymbol)
+            {
+                throw new IllegalArgumentException("Symbol " + code.getSymbol(i) + " is not in the " + alphabet + " alphabet");
+            }
+        }
+        this.decoder = code.newDecoder();
+        this.statistics = new HuffmanStatistics(code);
+        if (alphabet == SymbolAlphabet.BYTE)
+        {
+            byteCodes = new long[256];
+            byteLengths = new int[256];
+            for (int b = 0; b < 256; b++)
+            {
+                byteLengths[b] = code.getCodeLength(b);
+                byteCodes[b] = byteLengths[b] == 0 ? 0 : code.getCode(b);
+            }
+        }
+    }
+
+    /*
+     * Method: forBytes
+     * Purpose: builds a byte mode coder from the byte frequencies of data
+     * Parameters: byte[] data - the data the code is built for
+     * Returns: HuffmanCoder - the coder
+     * */
+    public static HuffmanCoder forBytes(byte[] data)
+    {
+        return forBytes(data, 0);
+    }
+
+    /*
+     * Method: forBytes
+     * Purpose: builds a byte mode coder whose codes are no longer than maxLength bits
+     * Parameters: byte[] data - the data the code is built for
+     *             int maxLength - the longest code allowed, at least 8, or 0 for no limit
+     * Returns: HuffmanCoder - the coder
+     * */
+    public static HuffmanCoder forBytes(byte[] data, int maxLength)
+    {
+        long start = System.nanoTime();
+        long[] counts = countBytes(data);
+        long counted = System.nanoTime();
+        return withBuildStatistics(SymbolAlphabet.BYTE, buildCode(counts, maxLength), counts, counts.length,
+                                   data.length, start, counted);
+    }
+
+    /*
+     * Method: countBytes
+     * Purpose: counts how many times each byte value appears
+     * Parameters: byte[] data - the bytes to count
+     * Returns: long[] - the count of each byte value
+     * */
+    private static long[] countBytes(byte[] data)
+    {
+        long[] counts = new long[256];
+        for (byte b : data)
+        {
+            counts[b & 0xFF]++;
+        }
+        return counts;
+    }
+
+    /*
+     * Method: forText
+     * Purpose: builds a char or code point mode coder from the symbol frequencies of text
+     * Parameters: CharSequence text - the text the code is built for
+     *             SymbolAlphabet alphabet - CHAR or CODE_POINT
+     * Returns: HuffmanCoder - the coder
+     * */
+    public static HuffmanCoder forText(CharSequence text, SymbolAlphabet alphabet)
+    {
+        return forText(text, alphabet, 0);
+    }
+
+    /*
+     * Method: forText
+     * Purpose: builds a char or code point mode coder whose codes are no longer than maxLength bits
+     * Parameters: CharSequence text - the text the code is built for
+     *             SymbolAlphabet alphabet - CHAR or CODE_POINT
+     *             int maxLength - the longest code allowed, or 0 for no limit
+     * Returns: HuffmanCoder - the coder
+     * */
+    public static HuffmanCoder forText(CharSequence text, SymbolAlphabet alphabet, int maxLength)
+    {
+        long start = System.nanoTime();
+        if (alphabet == SymbolAlphabet.CHAR)
+        {
+            long[] counts = CharacterHistogram.count(text);
+            long counted = System.nanoTime();
+            return withBuildStatistics(alphabet, buildCode(counts, maxLength), counts, counts.length,
+                                       text.length(), start, counted);
+        }
+        if (alphabet != SymbolAlphabet.CODE_POINT)
+        {
+            throw new IllegalArgumentException("Text can only be coded as chars or code points");
+        }
+        //most text is in the basic plane, so only supplementary code points go in a map
+        long[] basic = new long[Character.MAX_VALUE + 1];
+        HashMap<Integer, Long> supplementary = new HashMap<Integer, Long>();
+        for (int i = 0; i < text.length(); )
+        {
+            int codePoint = Character.codePointAt(text, i);
+            if (codePoint <= Character.MAX_VALUE)
+            {
+                basic[codePoint]++;
+            }
+            else
+            {
+                supplementary.merge(codePoint, 1L, Long::sum);
+            }
+            i += Character.charCount(codePoint);
+        }
+        int distinct = supplementary.size();
+        for (long c : basic)
+        {
+            if (c > 0)
+            {
+                distinct++;
+            }
+        }
+        int[] symbols = new int[distinct];
+        long[] counts = new long[distinct];
+        int n = 0;
+        for (int c = 0; c < basic.length; c++)
+        {
+            if (basic[c] > 0)
+            {
+                symbols[n] = c;
+                counts[n++] = basic[c];
+            }
+        }
+        for (Map.Entry<Integer, Long> entry : supplementary.entrySet())
+        {
+            symbols[n] = entry.getKey();
+            counts[n++] = entry.getValue();
+        }
+        long counted = System.nanoTime();
+        return withBuildStatistics(alphabet, buildCode(symbols, counts, n, maxLength), counts, n,
+                                   text.length(), start, counted);
+    }
+
+    /*
+     * Method: withBuildStatistics
+     * Purpose: creates a coder and records the counting and building that went into it
+     * Parameters: SymbolAlphabet alphabet - the kind of symbols the code is for
+     *             CanonicalHuffmanCode code - the code
+     *             long[] counts - the counts the code was built from
+     *             int count - the number of entries of counts to use
+     *             long bytes - the size of the input that was counted
+     *             long start - System.nanoTime when counting started
+     *             long counted - System.nanoTime when counting finished
+     * Returns: HuffmanCoder - the coder
+     * */
+    private static HuffmanCoder withBuildStatistics(SymbolAlphabet alphabet, CanonicalHuffmanCode code, long[] counts,
+                                                    int count, long bytes, long start, long counted)
+    {
+        HuffmanCoder coder = new HuffmanCoder(alphabet, code);
+        long built = System.nanoTime();
+        coder.statistics.setSourceCounts(counts, count);
+        coder.statistics.recordPhase(HuffmanStatistics.Phase.COUNT, counted - start, bytes);
+        coder.statistics.recordPhase(HuffmanStatistics.Phase.BUILD, built - counted, bytes);
+        return coder;
+    }
+
+    /*
+     * Method: buildCode
+     * Purpose: builds a canonical code from counts indexed by symbol
+     * Parameters: long[] counts - the count of each symbol
+     * Returns: CanonicalHuffmanCode - the code, with no symbols if every count is 0
+     * */
+    public static CanonicalHuffmanCode buildCode(long[] counts)
+    {
+        return buildCode(counts, 0);
+    }
+
+    /*
+     * Method: buildCode
+     * Purpose: builds a canonical code from counts indexed by symbol
+     * Parameters: long[] counts - the count of each symbol
+     *             int maxLength - the longest code allowed, or 0 for no limit
+     * Returns: CanonicalHuffmanCode - the code, with no symbols if every count is 0
+     * */
+    public static CanonicalHuffmanCode buildCode(long[] counts, int maxLength)
+    {
+        int distinct = 0;
+        for (long c : counts)
+        {
+            if (c > 0)
+            {
+                distinct++;
+            }
+        }
+        int[] symbols = new int[distinct];
+        long[] compact = new long[distinct];
+        int n = 0;
+        for (int s = 0; s < counts.length; s++)
+        {
+            if (counts[s] > 0)
+            {
+                symbols[n] = s;
+                compact[n++] = counts[s];
+            }
+        }
+        return buildCode(symbols, compact, n, maxLength);
+    }
+
+    /*
+     * Method: buildCode
+     * Purpose: builds a canonical code for any symbols with no limit on code length
+     * Parameters: int[] symbols - the symbols
+     *             long[] counts - the count of each symbol
+     *             int count - the number of symbols
+     * Returns: CanonicalHuffmanCode - the code, with no symbols if count is 0
+     * */
+    public static CanonicalHuffmanCode buildCode(int[] symbols, long[] counts, int count)
+    {
+        return buildCode(symbols, counts, count, 0);
+    }
+
+    /*
+     * Method: buildCode
+     * Purpose: builds a canonical code for any symbols. With a length limit the code
+     *          lengths come from package-merge, and with no limit they are the leaf
+     *          depths of an ArrayHuffmanTree. Both work on the exact counts.
+     * Parameters: int[] symbols - the symbols
+     *             long[] counts - the count of each symbol
+     *             int count - the number of symbols
+     *             int maxLength - the longest code allowed, or 0 for no limit
+     * Returns: CanonicalHuffmanCode - the code, with no symbols if count is 0
+     * */
+    public static CanonicalHuffmanCode buildCode(int[] symbols, long[] counts, int count, int maxLength)
+    {
+        if (count == 0)
+        {
+            return new CanonicalHuffmanCode(new int[0], new int[0], 0);
+        }
+        if (maxLength > 0)
+        {
+            return new CanonicalHuffmanCode(symbols, PackageMerge.codeLengths(counts, count, maxLength), count);
+        }
+        return new CanonicalHuffmanCode(symbols, new ArrayHuffmanTree(counts, count).codeLengths(), count);
+    }
+
+    /*
+     * Method: getAlphabet
+     * Purpose: returns the kind of symbols this coder encodes
+     * Parameters: none
+     * Returns: SymbolAlphabet - the alphabet
+     * */
+    public SymbolAlphabet getAlphabet()
+    {
+        return alphabet;
+    }
+
+    /*
+     * Method: getType
+     * Purpose: returns which kind of coder this is
+     * Parameters: none
+     * Returns: EntropyCoderType - HUFFMAN
+     * */
+    @Override
+    public EntropyCoderType getType()
+    {
+        return EntropyCoderType.HUFFMAN;
+    }
+
+    /*
+     * Method: getCode
+     * Purpose: returns the canonical code this coder uses
+     * Parameters: none
+     * Returns: CanonicalHuffmanCode - the code
+     * */
+    public CanonicalHuffmanCode getCode()
+    {
+        return code;
+    }
+
+    /*
+     * Method: getStatistics
+     * Purpose: returns the measurements of this coder, which keep counting as it is used
+     * Parameters: none
+     * Returns: HuffmanStatistics - the measurements
+     * */
+    public HuffmanStatistics getStatistics()
+    {
+        return statistics;
+    }
+
+    /*
+     * Method: encode
+     * Purpose: encodes bytes with a byte mode coder
+     * Parameters: byte[] data - the bytes to encode
+     *             int offset - the index of the first byte
+     *             int length - the number of bytes
+     * Returns: EncodedBits - the packed bits
+     * */
+    public EncodedBits encode(byte[] data, int offset, int length)
+    {
+        requireAlphabet(SymbolAlphabet.BYTE);
+        long start = System.nanoTime();
+        BitWriter writer = new BitWriter(length / 2 + 16);
+        for (int i = offset; i < offset + length; i++)
+        {
+            int b = data[i] & 0xFF;
+            int codeLength = byteLengths[b];
+            if (codeLength == 0)
+            {
+                throw new IllegalArgumentException("Byte " + b + " has no code");
+            }
+            writer.write(byteCodes[b], codeLength);
+        }
+        EncodedBits encoded = writer.toEncodedBits();
+        statistics.recordPhase(HuffmanStatistics.Phase.ENCODE, System.nanoTime() - start, length);
+        statistics.recordEncoding(length, length, encoded.bitLength);
+        return encoded;
+    }
+
+    /*
+     * Method: encode
+     * Purpose: encodes text with a char or code point mode coder
+     * Parameters: CharSequence text - the text to encode
+     * Returns: EncodedBits - the packed bits
+     * */
+    @Override
+    public EncodedBits encode(CharSequence text)
+    {
+        long start = System.nanoTime();
+        BitWriter writer = new BitWriter(text.length() / 2 + 16);
+        long symbolCount = text.length();
+        if (alphabet == SymbolAlphabet.CHAR)
+        {
+            for (int i = 0; i < text.length(); i++)
+            {
+                code.write(writer, text.charAt(i));
+            }
+        }
+        else
+        {
+            requireAlphabet(SymbolAlphabet.CODE_POINT);
+            symbolCount = 0;
+            for (int i = 0; i < text.length(); )
+            {
+                int codePoint = Character.codePointAt(text, i);
+                code.write(writer, codePoint);
+                i += Character.charCount(codePoint);
+                symbolCount++;
+            }
+        }
+        EncodedBits encoded = writer.toEncodedBits();
+        statistics.recordPhase(HuffmanStatistics.Phase.ENCODE, System.nanoTime() - start, text.length());
+        statistics.recordEncoding(symbolCount, text.length(), encoded.bitLength);
+        return encoded;
+    }
+
+    /*
+     * Method: decodeBytes
+     * Purpose: decodes packed bits from a byte mode coder
+     * Parameters: EncodedBits encoded - the packed bits
+     * Returns: byte[] - the decoded bytes
+     * */
+    public byte[] decodeBytes(EncodedBits encoded)
+    {
+        requireAlphabet(SymbolAlphabet.BYTE);
+        long start = System.nanoTime();
+        BitReader reader = new BitReader(encoded.data);
+        long bound = encoded.bitLength / Math.max(decoder.getMinLength(), 1);
+        byte[] output = new byte[(int) Math.min(bound, 1 << 20)];
+        int size = 0;
+        int[] chunk = new int[4096];
+        int count;
+        while ((count = decoder.decode(reader, encoded.bitLength, chunk, 0, chunk.length)) > 0)
+        {
+            if (size + count > output.length)
+            {
+                output = Arrays.copyOf(output, Math.max(output.length * 2, size + count));
+            }
+            for (int i = 0; i < count; i++)
+            {
+                output[size++] = (byte) chunk[i];
+            }
+        }
+        statistics.recordPhase(HuffmanStatistics.Phase.DECODE, System.nanoTime() - start, size);
+        statistics.recordDecoding(size, size, encoded.bitLength);
+        return size == output.length ? output : Arrays.copyOf(output, size);
+    }
+
+    /*
+     * Method: decodeText
+     * Purpose: decodes packed bits from a char or code point mode coder
+     * Parameters: EncodedBits encoded - the packed bits
+     * Returns: String - the decoded text
+     * */
+    public String decodeText(EncodedBits encoded)
+    {
+        long start = System.nanoTime();
+        String text;
+        long symbolCount;
+        if (alphabet == SymbolAlphabet.CHAR)
+        {
+            text = decoder.decodeToString(encoded.data, encoded.bitLength);
+            symbolCount = text.length();
+        }
+        else
+        {
+            requireAlphabet(SymbolAlphabet.CODE_POINT);
+            BitReader reader = new BitReader(encoded.data);
+            StringBuilder output = new StringBuilder();
+            int[] chunk = new int[4096];
+            int count;
+            symbolCount = 0;
+            while ((count = decoder.decode(reader, encoded.bitLength, chunk, 0, chunk.length)) > 0)
+            {
+                for (int i = 0; i < count; i++)
+                {
+                    output.appendCodePoint(chunk[i]);
+                }
+                symbolCount += count;
+            }
+            text = output.toString();
+        }
+        statistics.recordPhase(HuffmanStatistics.Phase.DECODE, System.nanoTime() - start, text.length());
+        statistics.recordDecoding(symbolCount, text.length(), encoded.bitLength);
+        return text;
+    }
+
+    /*
+     * Method: decode
+     * Purpose: decodes text from a char or code point mode coder
+     * Parameters: EncodedBits encoded - the packed bits
+     *             int length - the number of chars that were encoded, which the
+     *                          bit length already tells a Huffman decoder
+     * Returns: String - the decoded text
+     * */
+    @Override
+    public String decode(EncodedBits encoded, int length)
+    {
+        String text = decodeText(encoded);
+        if (text.length() != length)
+        {
+            throw new IllegalArgumentException("Decoded " + text.length() + " chars instead of " + length);
+        }
+        return text;
+    }
+
+    /*
+     * Method: writeHeader
+     * Purpose: writes the alphabet and the canonical code header
+     * Parameters: OutputStream out - where the header is written
+     * Returns: void
+     * */
+    @Override
+    public void writeHeader(OutputStream out) throws IOException
+    {
+        out.write(alphabet.ordinal());
+        code.writeHeader(out);
+    }
+
+    /*
+     * Method: readHeader
+     * Purpose: rebuilds a coder from a header written by writeHeader
+     * Parameters: InputStream in - where the header is read from
+     * Returns: HuffmanCoder - the coder described by the header
+     * */
+    public static HuffmanCoder readHeader(InputStream in) throws IOException
+    {
+        int ordinal = in.read();
+        if (ordinal < 0 || ordinal >= SymbolAlphabet.values().length)
+        {
+            throw new IOException("Header names an unknown alphabet");
+        }
+        SymbolAlphabet alphabet = SymbolAlphabet.values()[ordinal];
+        try
+        {
+            return new HuffmanCoder(alphabet, CanonicalHuffmanCode.readHeader(in));
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /*
+     * Method: compress
+     * Purpose: encodes bytes into a self contained byte array
+     * Parameters: byte[] data - the bytes to encode
+     * Returns: byte[] - the header, bit length, and packed bits
+     * */
+    public byte[] compress(byte[] data)
+    {
+        return withHeader(encode(data, 0, data.length));
+    }
+
+    /*
+     * Method: compress
+     * Purpose: encodes text into a self contained byte array
+     * Parameters: CharSequence text - the text to encode
+     * Returns: byte[] - the header, bit length, and packed bits
+     * */
+    public byte[] compress(CharSequence text)
+    {
+        return withHeader(encode(text));
+    }
+
+    /*
+     * Method: decompressBytes
+     * Purpose: decodes a byte array written by compress(byte[])
+     * Parameters: byte[] compressed - the compressed bytes
+     * Returns: byte[] - the original bytes
+     * */
+    public static byte[] decompressBytes(byte[] compressed) throws IOException
+    {
+        ByteArrayInputStream in = new ByteArrayInputStream(compressed);
+        HuffmanCoder coder = readHeader(in);
+        if (coder.getAlphabet() != SymbolAlphabet.BYTE)
+        {
+            throw new IOException("Compressed data holds " + coder.getAlphabet() + " symbols, not bytes");
+        }
+        EncodedBits encoded = readPayload(in, compressed);
+        try
+        {
+            return coder.decodeBytes(encoded);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /*
+     * Method: decompressText
+     * Purpose: decodes a byte array written by compress(CharSequence)
+     * Parameters: byte[] compressed - the compressed bytes
+     * Returns: String - the original text
+     * */
+    public static String decompressText(byte[] compressed) throws IOException
+    {
+        ByteArrayInputStream in = new ByteArrayInputStream(compressed);
+        HuffmanCoder coder = readHeader(in);
+        if (coder.getAlphabet() == SymbolAlphabet.BYTE)
+        {
+            throw new IOException("Compressed data holds bytes, not text");
+        }
+        EncodedBits encoded = readPayload(in, compressed);
+        try
+        {
+            return coder.decodeText(encoded);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /*
+     * Method: withHeader
+     * Purpose: puts the header and bit length in front of packed bits
+     * Parameters: EncodedBits encoded - the packed bits
+     * Returns: byte[] - the header, bit length, and packed bits
+     * */
+    private byte[] withHeader(EncodedBits encoded)
+    {
+        long start = System.nanoTime();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(encoded.data.length + code.getSize() + 16);
+        try
+        {
+            writeHeader(out);
+            VarInt.write(out, encoded.bitLength);
+        }
+        catch (IOException e)
+        {
+            //ByteArrayOutputStream never throws
+            throw new IllegalStateException(e);
+        }
+        int header = out.size();
+        out.write(encoded.data, 0, encoded.data.length);
+        byte[] compressed = out.toByteArray();
+        statistics.recordPhase(HuffmanStatistics.Phase.WRITE, System.nanoTime() - start, compressed.length);
+        statistics.recordHeader(header);
+        return compressed;
+    }
+
+    /*
+     * Method: readPayload
+     * Purpose: reads the bit length that follows the header and the packed bits after it
+     * Parameters: ByteArrayInputStream in - positioned just after the header
+     *             byte[] compressed - the whole compressed array
+     * Returns: EncodedBits - the packed bits
+     * */
+    private static EncodedBits readPayload(ByteArrayInputStream in, byte[] compressed) throws IOException
+    {
+        long bitLength = VarInt.read(in);
+        int offset = compressed.length - in.available();
+        if (bitLength < 0 || (bitLength + 7) / 8 > compressed.length - offset)
+        {
+            throw new IOException("Compressed data is shorter than its header says");
+        }
+        return new EncodedBits(Arrays.copyOfRange(compressed, offset, compressed.length), bitLength);
+    }
+
+    /*
+     * Method: requireAlphabet
+     * Purpose: throws if this coder is not for the given alphabet
+     * Parameters: SymbolAlphabet expected - the alphabet the caller needs
+     * Returns: void
+     * */
+    private void requireAlphabet(SymbolAlphabet expected)
+    {
+        if (alphabet != expected)
+        {
+            throw new IllegalStateException("This coder is for " + alphabet + " symbols, not " + expected);
+        }
+    }
+}
@@ -10,7 +10,9 @@
  * test2.txt, and test3.txt. The code will print out the original text, the encoding
  * map, the decoding map, the huffman encoding tree, the encoded text, the original
  * text size, the encoded text size, and the space saved. The code will also print
- * out the test case number.
+ * out the test case number. Checks that do not depend on a single test case,
+ * such as the batch compressor and codebooks trained on the test files, run
+ * once after the last test case.
  *
  * The code also reads in a second command line argument (y/n) that tells the code
  * whether to begin an interactive session. If the user enters y, the code
@@ -20,14 +22,41 @@
  */
 
 import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 public class HuffmanEncodingTest
 {
 
     public static void main(String[] args) throws IOException, EmptyQueueException {
-        for(int i = 1; i <= Integer.parseInt(args[0]); i++){
+        int testCount = Integer.parseInt(args[0]);
+        for(int i = 1; i <= testCount; i++){
             runTestCaseX(i, "test" + i + ".txt");
         }
+        //these do not depend on any one test case, so they run once
+        System.out.println("*** SHARED CHECKS ***");
+        runHeaderChecks();
+        runPushDecoderChecks();
+        runContainerChecks();
+        if (testCount >= 1)
+        {
+            runBatchChecks(testCount);
+        }
+        //test1 is one run of each letter, which gives a codebook nothing to learn
+        if (testCount >= 2)
+        {
+            runCodebookChecks(testCount);
+        }
+        System.out.println();
         if(args[1].equals("y")){
             HuffmanGUI gui = new HuffmanGUI();
         }
@@ -59,26 +88,418 @@ public class HuffmanEncodingTest
         System.out.println("ORIGINAL TEXT SIZE: " + originalBits + " bits");
         System.out.println("ENCODED TEXT SIZE: " + encodedBits + " bits");
         System.out.println("SPACE SAVED: " + (originalBits - encodedBits) + " bits (" + ((originalBits - encodedBits) / (double)originalBits) * 100 + "%)");
+        EncodedBits packed = testTree.EncodePacked(test1Text);
+        System.out.println("PACKED SIZE: " + packed.data.length + " bytes (" + packed.bitLength + " bits)");
+        System.out.println("PACKED ROUND TRIP: " + (testTree.DecodePacked(packed).equals(test1Text) ? "OK" : "FAILED"));
+        HuffmanPushDecoder pushDecoder = new HuffmanPushDecoder(testTree.getCanonicalCode(), packed.bitLength);
+        StringBuilder pushed = new StringBuilder();
+        int[] pushedSymbols = new int[16];
+        for (int start = 0; start < packed.data.length; start += 5)
+        {
+            pushDecoder.setInput(packed.data, start, Math.min(5, packed.data.length - start));
+            int count;
+            while ((count = pushDecoder.decode(pushedSymbols, 0, pushedSymbols.length)) > 0)
+            {
+                for (int i = 0; i < count; i++)
+                {
+                    pushed.append((char) pushedSymbols[i]);
+                }
+            }
+        }
+        System.out.println("PUSH DECODER ROUND TRIP: " + (pushDecoder.finished() && pushed.toString().equals(test1Text) ? "OK" : "FAILED"));
+        byte[] compressed = testTree.Compress(test1Text);
+        System.out.println("COMPRESSED SIZE WITH HEADER: " + compressed.length + " bytes");
+        System.out.println("COMPRESSED ROUND TRIP: " + (HuffmanEncodingTree.Decompress(compressed).equals(test1Text) ? "OK" : "FAILED"));
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        HuffmanStatistics streamStatistics = new HuffmanStatistics();
+        HuffmanStream.compress(new File(fileName).toPath(), streamed, Charset.defaultCharset(), streamStatistics);
+        double streamRatio = streamStatistics.getRatio();
+        StringWriter streamedText = new StringWriter();
+        HuffmanStream.decompress(new ByteArrayInputStream(streamed.toByteArray()), streamedText, streamStatistics);
+        System.out.println("STREAMED SIZE: " + streamed.size() + " bytes");
+        System.out.println("STREAMED ROUND TRIP: " + (streamedText.toString().equals(test1Text) ? "OK" : "FAILED"));
+        //decoding is counted apart, so the ratio is still that of the bytes written
+        System.out.println("STREAM STATISTICS: " + streamStatistics);
+        System.out.println("STREAM STATISTICS RATIO: " + (streamRatio == streamStatistics.getRatio()
+                && Math.abs(streamRatio * test1Text.length() - streamed.size()) < 1
+                && streamStatistics.getDecodedSymbolCount() == test1Text.length() ? "OK" : "FAILED"));
+        ExecutorService pool = ForkJoinPool.commonPool();
+        byte[] container = HuffmanBlockContainer.toByteArray(test1Text, testTree.getCanonicalCode(), 256, pool);
+        HuffmanBlockContainer blocks = HuffmanBlockContainer.fromByteArray(container);
+        int middle = test1Text.length() / 2;
+        String range = blocks.decompressRange(middle / 2, middle + middle / 2, pool);
+        System.out.println("BLOCK CONTAINER SIZE: " + container.length + " bytes in " + blocks.getBlockCount() + " blocks");
+        System.out.println("BLOCK CONTAINER ROUND TRIP: " + (blocks.decompress(pool).equals(test1Text)
+                && range.equals(test1Text.substring(middle / 2, middle + middle / 2)) ? "OK" : "FAILED"));
+        byte[] fileBytes = Files.readAllBytes(new File(fileName).toPath());
+        HuffmanCoder byteCoder = HuffmanCoder.forBytes(fileBytes);
+        byte[] byteCompressed = byteCoder.compress(fileBytes);
+        System.out.println("BYTE ALPHABET SIZE: " + byteCompressed.length + " bytes");
+        System.out.println("BYTE ALPHABET ROUND TRIP: " + (Arrays.equals(HuffmanCoder.decompressBytes(byteCompressed), fileBytes) ? "OK" : "FAILED"));
+        HuffmanStatistics statistics = byteCoder.getStatistics();
+        System.out.println("STATISTICS: " + statistics);
+        System.out.println("STATISTICS WITHIN ENTROPY BOUND: " + (statistics.getAverageCodeLength() >= statistics.getEntropy() - 1e-9
+                && statistics.getAverageCodeLength() < statistics.getEntropy() + 1 ? "OK" : "FAILED"));
+        HuffmanCoder codePointCoder = HuffmanCoder.forText(test1Text, SymbolAlphabet.CODE_POINT);
+        System.out.println("CODE POINT ALPHABET ROUND TRIP: " + (HuffmanCoder.decompressText(codePointCoder.compress(test1Text)).equals(test1Text) ? "OK" : "FAILED"));
+        HuffmanCoder limitedCoder = HuffmanCoder.forText(test1Text, SymbolAlphabet.CHAR, 7);
+        byte[] limited = limitedCoder.compress(test1Text);
+        System.out.println("LENGTH LIMITED SIZE: " + limited.length + " bytes, longest code " + limitedCoder.getCode().getMaxLength()
+                + " bits (unlimited " + testTree.getCanonicalCode().getMaxLength() + " bits)");
+        System.out.println("LENGTH LIMITED ROUND TRIP: " + (HuffmanCoder.decompressText(limited).equals(test1Text) ? "OK" : "FAILED"));
+        //flipping any one bit gives either some text or an IOException, never an unchecked exception
+        boolean corruptionChecked = true;
+        for (int bit = 0; bit < limited.length * 8; bit++)
+        {
+            byte[] corrupted = limited.clone();
+            corrupted[bit >>> 3] ^= (byte) (0x80 >>> (bit & 7));
+            try
+            {
+                HuffmanCoder.decompressText(corrupted);
+            }
+            catch (IOException e)
+            {
+                //expected for most flips
+            }
+            catch (RuntimeException e)
+            {
+                corruptionChecked = false;
+            }
+        }
+        boolean alphabetRejected;
+        try
+        {
+            HuffmanCoder.decompressBytes(limited);
+            alphabetRejected = false;
+        }
+        catch (IOException e)
+        {
+            alphabetRejected = true;
+        }
+        System.out.println("CORRUPT COMPRESSED TEXT REJECTED: " + (corruptionChecked && alphabetRejected ? "OK" : "FAILED"));
+        HuffmanCoder arrayTreeCoder = HuffmanCoder.forText(test1Text, SymbolAlphabet.CHAR);
+        long arrayTreeBits = arrayTreeCoder.encode(test1Text).bitLength;
+        System.out.println("TWO QUEUE TREE SIZE: " + arrayTreeBits + " bits (heap tree " + packed.bitLength + " bits): "
+                + (arrayTreeBits == packed.bitLength ? "OK" : "FAILED"));
+        ByteArrayOutputStream adaptive = new ByteArrayOutputStream();
+        try (AdaptiveHuffmanEncoder adaptiveEncoder = new AdaptiveHuffmanEncoder(adaptive))
+        {
+            int half = fileBytes.length / 2;
+            adaptiveEncoder.write(fileBytes, 0, half);
+            adaptiveEncoder.flush();
+            adaptiveEncoder.write(fileBytes, half, fileBytes.length - half);
+        }
+        byte[] adaptiveBytes = new AdaptiveHuffmanDecoder(new ByteArrayInputStream(adaptive.toByteArray())).readAllBytes();
+        System.out.println("ADAPTIVE SIZE: " + adaptive.size() + " bytes");
+        System.out.println("ADAPTIVE ROUND TRIP: " + (Arrays.equals(adaptiveBytes, fileBytes) ? "OK" : "FAILED"));
+        for (EntropyCoderType type : EntropyCoderType.values())
+        {
+            byte[] entropyCoded = EntropyCoder.compress(test1Text, type);
+            System.out.println(type + " ENTROPY CODER SIZE: " + entropyCoded.length + " bytes");
+            System.out.println(type + " ENTROPY CODER ROUND TRIP: " + (EntropyCoder.decompress(entropyCoded).equals(test1Text) ? "OK" : "FAILED"));
+            EntropyCoder entropyCoder = type.build(CharacterHistogram.count(test1Text));
+            boolean lengthRejected;
+            try
+            {
+                //a length the bits cannot hold has to fail before the text is allocated
+                entropyCoder.decode(entropyCoder.encode(test1Text), Integer.MAX_VALUE);
+                lengthRejected = false;
+            }
+            catch (IllegalArgumentException e)
+            {
+                lengthRejected = true;
+            }
+            System.out.println(type + " ENTROPY CODER FORGED LENGTH REJECTED: " + (lengthRejected ? "OK" : "FAILED"));
+        }
+        for (Lz77Compressor.Effort effort : Lz77Compressor.Effort.values())
+        {
+            byte[] lz77 = Lz77Compressor.compress(test1Text, effort);
+            System.out.println("LZ77 + HUFFMAN " + effort + " SIZE: " + lz77.length + " bytes");
+            System.out.println("LZ77 + HUFFMAN " + effort + " ROUND TRIP: " + (Lz77Compressor.decompress(lz77).equals(test1Text) ? "OK" : "FAILED"));
+        }
+        byte[] lz77 = Lz77Compressor.compress(test1Text, Lz77Compressor.Effort.values()[0]);
+        ByteArrayOutputStream forged = new ByteArrayOutputStream();
+        VarInt.write(forged, Integer.MAX_VALUE);
+        int lengthSize = VarInt.size(test1Text.length());
+        forged.write(lz77, lengthSize, lz77.length - lengthSize);
+        boolean lz77LengthRejected;
+        try
+        {
+            Lz77Compressor.decompress(forged.toByteArray());
+            lz77LengthRejected = false;
+        }
+        catch (IOException e)
+        {
+            lz77LengthRejected = true;
+        }
+        System.out.println("LZ77 + HUFFMAN FORGED LENGTH REJECTED: " + (lz77LengthRejected ? "OK" : "FAILED"));
         System.out.println();
     }
 
+    /*
+     * Method: runHeaderChecks
+     * Purpose: checks that a header no prefix code could have is rejected
+     * Parameters: none
+     * Returns: void
+     * */
+    private static void runHeaderChecks()
+    {
+        boolean headerRejected;
+        try
+        {
+            //two billion codes of length 1 cannot be a prefix code
+            CanonicalHuffmanCode.fromHeader(new byte[] {1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07});
+            headerRejected = false;
+        }
+        catch (IOException e)
+        {
+            headerRejected = true;
+        }
+        System.out.println("INVALID HEADER REJECTED: " + (headerRejected ? "OK" : "FAILED"));
+    }
+
+    /*
+     * Method: runPushDecoderChecks
+     * Purpose: checks the push decoder on codes up to 64 bits long and on a
+     *          bit length that ends partway through a byte
+     * Parameters: none
+     * Returns: void
+     * */
+    private static void runPushDecoderChecks()
+    {
+        int[] pushedSymbols = new int[16];
+        //one symbol of every length from 1 to 64 bits, pushed a byte at a time
+        int[] longSymbols = new int[65];
+        int[] longLengths = new int[65];
+        for (int i = 0; i < longSymbols.length; i++)
+        {
+            longSymbols[i] = i;
+            longLengths[i] = Math.min(i + 1, 64);
+        }
+        CanonicalHuffmanCode longCode = new CanonicalHuffmanCode(longSymbols, longLengths, longSymbols.length);
+        BitWriter longWriter = new BitWriter(64);
+        for (int i = longSymbols.length - 1; i >= 0; i--)
+        {
+            longCode.write(longWriter, i);
+        }
+        EncodedBits longBits = longWriter.toEncodedBits();
+        HuffmanPushDecoder longDecoder = new HuffmanPushDecoder(longCode, longBits.bitLength);
+        boolean longOk = true;
+        int next = longSymbols.length - 1;
+        for (int start = 0; start < longBits.data.length; start++)
+        {
+            longDecoder.setInput(longBits.data, start, 1);
+            int count;
+            while ((count = longDecoder.decode(pushedSymbols, 0, pushedSymbols.length)) > 0)
+            {
+                for (int i = 0; i < count; i++)
+                {
+                    longOk &= pushedSymbols[i] == next--;
+                }
+            }
+        }
+        System.out.println("PUSH DECODER 64 BIT CODES: " + (longOk && next == -1 && longDecoder.finished() ? "OK" : "FAILED"));
+        //six bits in one byte, so the last two bits are padding that must not be decoded
+        CanonicalHuffmanCode twoSymbols = new CanonicalHuffmanCode(new int[] {'a', 'b'}, new int[] {1, 1}, 2);
+        BitWriter shortWriter = new BitWriter(1);
+        for (char c : "aaaaab".toCharArray())
+        {
+            twoSymbols.write(shortWriter, c);
+        }
+        EncodedBits shortBits = shortWriter.toEncodedBits();
+        HuffmanPushDecoder shortDecoder = new HuffmanPushDecoder(twoSymbols, shortBits.bitLength);
+        shortDecoder.setInput(shortBits.data);
+        StringBuilder shortText = new StringBuilder();
+        int shortCount;
+        while ((shortCount = shortDecoder.decode(pushedSymbols, 0, pushedSymbols.length)) > 0)
+        {
+            for (int i = 0; i < shortCount; i++)
+            {
+                shortText.append((char) pushedSymbols[i]);
+            }
+        }
+        System.out.println("PUSH DECODER PARTIAL LAST BYTE: " + (shortBits.bitLength == 6 && shortText.toString().equals("aaaaab")
+                && shortDecoder.finished() ? "OK" : "FAILED"));
+    }
+
+    /*
+     * Method: runContainerChecks
+     * Purpose: checks that a container write which fails cancels the blocks
+     *          queued behind the one that failed
+     * Parameters: none
+     * Returns: void
+     * */
+    private static void runContainerChecks() throws IOException
+    {
+        //a block that cannot be encoded stops the write, and the blocks queued behind it are dropped
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 4096; i++)
+        {
+            text.append((char) ('a' + i % 26));
+        }
+        CanonicalHuffmanCode code = HuffmanCoder.forText(text, SymbolAlphabet.CHAR).getCode();
+        ThreadPoolExecutor onePool = (ThreadPoolExecutor) Executors.newFixedThreadPool(1);
+        Path failedContainer = Files.createTempFile("huffman", ".hufb");
+        boolean failedWrite = false;
+        try
+        {
+            HuffmanBlockContainer.write('#' + text.toString(), code, 4, onePool, failedContainer);
+        }
+        catch (IllegalArgumentException e)
+        {
+            failedWrite = true;
+        }
+        for (Runnable queued : onePool.getQueue())
+        {
+            failedWrite &= ((Future<?>) queued).isCancelled();
+        }
+        onePool.shutdownNow();
+        Files.delete(failedContainer);
+        System.out.println("BLOCK CONTAINER WRITE ERROR CLEANUP: " + (failedWrite ? "OK" : "FAILED"));
+    }
+
+    /*
+     * Method: runCodebookChecks
+     * Purpose: checks a codebook trained on half the lines of test2 onwards
+     *          against sending the other half with a header each
+     * Parameters: int testCount - the number of the last test file to train on
+     * Returns: void
+     * */
+    private static void runCodebookChecks(int testCount) throws IOException
+    {
+        //train on every other line of the test files and send the lines left out as short messages
+        StringBuilder training = new StringBuilder();
+        List<String> heldOut = new ArrayList<String>();
+        for (int i = 2; i <= testCount; i++)
+        {
+            String[] lines = parseText("test" + i + ".txt").split("\n");
+            for (int j = 0; j < lines.length; j++)
+            {
+                if (j % 2 == 0)
+                {
+                    training.append(lines[j]).append('\n');
+                }
+                else if (!lines[j].isEmpty())
+                {
+                    heldOut.add(lines[j]);
+                }
+            }
+        }
+        Path codebookDirectory = Files.createTempDirectory("codebooks");
+        HuffmanCodebookCache codebooks = new HuffmanCodebookCache(codebookDirectory, 2);
+        codebooks.put(HuffmanCodebook.train(1, training));
+        int codebookBytes = 0;
+        int ownHeaderBytes = 0;
+        boolean codebookOk = true;
+        for (String line : heldOut)
+        {
+            byte[] message = codebooks.get(1).compress(line);
+            codebookBytes += message.length;
+            ownHeaderBytes += HuffmanCoder.forText(line, SymbolAlphabet.CHAR).compress(line).length;
+            codebookOk &= codebooks.decompress(message).equals(line);
+        }
+        System.out.println("CODEBOOK MESSAGES SIZE: " + codebookBytes + " bytes (" + ownHeaderBytes + " bytes with a header per message)");
+        System.out.println("CODEBOOK ROUND TRIP: " + (codebookOk ? "OK" : "FAILED"));
+        System.out.println("CODEBOOK BEATS A HEADER PER MESSAGE: " + (codebookBytes < ownHeaderBytes ? "OK" : "FAILED"));
+        //none of these chars are in the training text, so each one is sent through ESCAPE
+        String escaped = "\u00a7 snowman \u2603 and \uffff";
+        System.out.println("CODEBOOK ESCAPE ROUND TRIP: " + (codebooks.decompress(codebooks.get(1).compress(escaped)).equals(escaped) ? "OK" : "FAILED"));
+        boolean codebookLengthRejected;
+        try
+        {
+            //codebook 1 and a length of two billion chars in a message with one byte of bits
+            codebooks.decompress(new byte[] {1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 0});
+            codebookLengthRejected = false;
+        }
+        catch (IOException e)
+        {
+            codebookLengthRejected = true;
+        }
+        System.out.println("CODEBOOK FORGED LENGTH REJECTED: " + (codebookLengthRejected ? "OK" : "FAILED"));
+        deleteTree(codebookDirectory);
+    }
+
+    /*
+     * Method: runBatchChecks
+     * Purpose: checks that the batch compressor splits and restores a tree
+     *          holding copies of the test files
+     * Parameters: int testCount - the number of test files to copy into the tree
+     * Returns: void
+     * */
+    private static void runBatchChecks(int testCount) throws IOException
+    {
+        ExecutorService pool = ForkJoinPool.commonPool();
+        Path batchInput = Files.createTempDirectory("batch");
+        Files.createDirectories(batchInput.resolve("nested"));
+        for (int i = 1; i <= testCount; i++)
+        {
+            Files.copy(new File("test" + i + ".txt").toPath(), batchInput.resolve("nested").resolve("copy" + i + ".txt"));
+        }
+        Files.write(batchInput.resolve("empty.txt"), new byte[0]);
+        Path batchOutput = Files.createTempDirectory("batchOut");
+        //parts of a single 256 char block, so that every test file is split across several containers
+        HuffmanBatchCompressor batch = new HuffmanBatchCompressor(2, 1 << 20, 256, 300);
+        List<HuffmanBatchCompressor.FileResult> batchResults = batch.compressTree(batchInput, batchOutput, null);
+        batch.shutdown();
+        boolean batchOk = batchResults.size() == testCount + 1;
+        for (HuffmanBatchCompressor.FileResult result : batchResults)
+        {
+            batchOk &= result.error == null && result.parts.size() == Math.max(1, (result.inputBytes + 255) / 256);
+            ByteArrayOutputStream restored = new ByteArrayOutputStream();
+            for (Path part : result.parts)
+            {
+                try (HuffmanBlockContainer batchContainer = HuffmanBlockContainer.open(part))
+                {
+                    restored.write(batchContainer.decompress(pool).getBytes(StandardCharsets.ISO_8859_1));
+                }
+            }
+            batchOk &= Arrays.equals(restored.toByteArray(), Files.readAllBytes(result.input));
+        }
+        deleteTree(batchInput);
+        deleteTree(batchOutput);
+        System.out.println("BATCH ROUND TRIP: " + (batchOk ? "OK" : "FAILED"));
+    }
+
+    /*
+     * Method: deleteTree
+     * Purpose: deletes a directory and everything under it
+     * Parameters: Path root - the directory to delete
+     * Returns: void
+     * */
+    private static void deleteTree(Path root) throws IOException
+    {
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(root))
+        {
+            paths = walk.collect(Collectors.toList());
+        }
+        //children come after their directory in the walk, so delete from the end
+        for (int i = paths.size() - 1; i >= 0; i--)
+        {
+            Files.delete(paths.get(i));
+        }
+    }
+
     /*
      * Method: parseText
      * Purpose: This method is responsible for parsing a text file
      * Parameters: String fileName - the name of the file to be parsed
      * Returns: String - the text from the file
      * */
-    public static String parseText(String fileName) throws FileNotFoundException
+    public static String parseText(String fileName) throws IOException
     {
-        String text = "";
-        File file = new File(fileName);
-        Scanner input = new Scanner(file);
-        while (input.hasNextLine())
+        //read in blocks so the line endings are kept exactly as they are in the file
+        StringBuilder text = new StringBuilder();
+        char[] buffer = new char[8192];
+        try (Reader input = new FileReader(fileName))
         {
-            text += input.nextLine();
-            text += "\n";
+            int count;
+            while ((count = input.read(buffer)) > 0)
+            {
+                text.append(buffer, 0, count);
+            }
         }
-        return text;
+        return text.toString();
     }
 
 }
\ No newline at end of file
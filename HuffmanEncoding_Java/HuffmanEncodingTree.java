@@ -5,12 +5,18 @@
  * Purpose: Implement a Huffman Encoding Tree to be used in Huffman Encoding
  */
 
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
 
 
 public class HuffmanEncodingTree
@@ -54,7 +60,13 @@ public class HuffmanEncodingTree
     private HashMap<String, Character> decodingMap;
 
     //HashMap that stores the frequency of each character in the input file
-    private HashMap<Character, Integer> charFrequency;
+    private Map<Character, Integer> charFrequency;
+
+    //the canonical code built from the code lengths of the tree
+    private CanonicalHuffmanCode canonicalCode;
+
+    //lookup tables used to decode several bits at a time
+    private HuffmanTableDecoder tableDecoder;
 
     /*
      * Constructor
@@ -62,10 +74,17 @@ public class HuffmanEncodingTree
      *          priority, and uses the minPQ to build the Huffman Encoding Tree, as well as the encoding and decoding maps.
      * */
     public HuffmanEncodingTree(String inputFile) throws IOException, EmptyQueueException {
-        //get the text from the input file
-        String text = parseText(inputFile);
-        //build the character frequency map
-        charFrequency = buildCharacterFrequencyDict(text);
+        //get the text from the input file and build the character frequency map
+        this(buildCharacterFrequencyDict(parseText(inputFile)));
+    }
+
+    /*
+     * Constructor
+     * Purpose: Builds the Huffman Encoding Tree and the encoding and decoding maps from character frequencies that
+     *          were counted elsewhere, such as by a pass over a stream that is too large to hold in memory.
+     * */
+    public HuffmanEncodingTree(Map<Character, Integer> frequencies) throws EmptyQueueException {
+        charFrequency = frequencies;
         capacity = charFrequency.size();
         //build the minPQ
         pq = new HuffmanTreeNode[capacity];
@@ -75,14 +94,55 @@ public class HuffmanEncodingTree
         }
         //build the Huffman Encoding Tree and encoding and decoding maps
         this.root = BuildTree();
+        canonicalize();
         this.encodingMap = new HashMap<Character, String>();
         this.decodingMap = new HashMap<String, Character>();
         buildMaps();
+        this.tableDecoder = canonicalCode.newDecoder();
         //set the pq and charFrequency to null to free up memory
         pq = null;
         charFrequency = null;
     }
 
+    /*
+     * Method: fromMappedFile
+     * Purpose: builds a tree for a file that may be larger than the heap by counting its
+     *          characters over memory mapped windows instead of reading it into a String
+     * Parameters: Path inputFile - the file to build the tree for
+     *             Charset charset - the character set of the file
+     * Returns: the Huffman Encoding Tree for the file
+     * */
+    public static HuffmanEncodingTree fromMappedFile(Path inputFile, Charset charset) throws IOException, EmptyQueueException {
+        return new HuffmanEncodingTree(CharacterHistogram.toFrequencyMap(MappedHuffmanCompressor.countCharacters(inputFile, charset)));
+    }
+
+    /*
+     * Method: CompressFile
+     * Purpose: encodes a file with this tree's code, reading it through memory mapped windows
+     *          and writing the compressed stream through a FileChannel
+     * Parameters: Path inputFile - the file to be encoded
+     *             Path outputFile - where the compressed stream is written
+     *             Charset charset - the character set of the input file
+     * Returns: void
+     * */
+    public void CompressFile(Path inputFile, Path outputFile, Charset charset) throws IOException {
+        MappedHuffmanCompressor.compress(canonicalCode, inputFile, outputFile, charset);
+    }
+
+    /*
+     * Method: CompressBlocks
+     * Purpose: encodes the input string into a seekable block container file, encoding the
+     *          blocks in parallel so that they can later be decoded in parallel or one at a time
+     * Parameters: input - the string to be encoded
+     *             outputFile - where the container is written
+     *             blockSize - the number of characters in each block
+     *             pool - the threads that encode the blocks
+     * Returns: void
+     * */
+    public void CompressBlocks(String input, Path outputFile, int blockSize, ExecutorService pool) throws IOException {
+        HuffmanBlockContainer.write(input, canonicalCode, blockSize, pool, outputFile);
+    }
+
     /*
      * Method: Encode
      * Purpose: encodes the input string
@@ -90,11 +150,79 @@ public class HuffmanEncodingTree
      * Returns: the encoded string
      * */
     public String Encode(String input){
-        String cur = "";
+        StringBuilder cur = new StringBuilder();
         for(int i = 0; i < input.length(); i++){
-            cur += encodingMap.get(input.charAt(i));
+            cur.append(encodingMap.get(input.charAt(i)));
         }
-        return cur;
+        return cur.toString();
+    }
+
+    /*
+     * Method: EncodePacked
+     * Purpose: encodes the input string into packed bits instead of '0'/'1' characters
+     * Parameters: input - the string to be encoded
+     * Returns: the packed bits and their exact length
+     * */
+    public EncodedBits EncodePacked(String input){
+        BitWriter writer = new BitWriter(input.length() / 2 + 16);
+        for(int i = 0; i < input.length(); i++){
+            char c = input.charAt(i);
+            int length = canonicalCode.getCodeLength(c);
+            if(length == 0){
+                throw new IllegalArgumentException("Character '" + c + "' is not in the encoding tree");
+            }
+            writer.write(canonicalCode.getCode(c), length);
+        }
+        return writer.toEncodedBits();
+    }
+
+    /*
+     * Method: Compress
+     * Purpose: encodes the input string into a self contained byte array made of the
+     *          canonical code header, the encoded length in bits, and the packed bits
+     * Parameters: input - the string to be encoded
+     * Returns: the compressed bytes, which Decompress can read without this tree
+     * */
+    public byte[] Compress(String input){
+        EncodedBits encoded = EncodePacked(input);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(encoded.data.length + canonicalCode.getSize() + 16);
+        try{
+            canonicalCode.writeHeader(out);
+            VarInt.write(out, encoded.bitLength);
+        }
+        catch(IOException e){
+            //ByteArrayOutputStream never throws
+            throw new IllegalStateException(e);
+        }
+        out.write(encoded.data, 0, encoded.data.length);
+        return out.toByteArray();
+    }
+
+    /*
+     * Method: Decompress
+     * Purpose: decodes bytes produced by Compress using only the header they contain
+     * Parameters: compressed - the compressed bytes
+     * Returns: the decoded string
+     * */
+    public static String Decompress(byte[] compressed) throws IOException {
+        ByteArrayInputStream in = new ByteArrayInputStream(compressed);
+        CanonicalHuffmanCode code = CanonicalHuffmanCode.readHeader(in);
+        long bitLength = VarInt.read(in);
+        int offset = compressed.length - in.available();
+        if(bitLength < 0 || (bitLength + 7) / 8 > compressed.length - offset){
+            throw new IOException("Compressed data is shorter than its header says");
+        }
+        return code.newDecoder().decodeToString(Arrays.copyOfRange(compressed, offset, compressed.length), bitLength);
+    }
+
+    /*
+     * Method: getCanonicalCode
+     * Purpose: returns the canonical code used by the packed encoding
+     * Parameters: none
+     * Returns: the canonical code
+     * */
+    public CanonicalHuffmanCode getCanonicalCode() {
+        return canonicalCode;
     }
 
     /*
@@ -104,19 +232,37 @@ public class HuffmanEncodingTree
      * Returns: the decoded string
      * */
     public String Decode(String input){
-        String output = "";
-        int currIndex = 0;
-        while (currIndex < input.length()) {
-            String currCode = "";
-            while (!decodingMap.containsKey(currCode)) {
-                currCode += input.charAt(currIndex);
-                currIndex++;
+        return tableDecoder.decodeToString(packBitString(input), input.length());
+    }
+
+    /*
+     * Method: DecodePacked
+     * Purpose: decodes packed bits produced by EncodePacked
+     * Parameters: encoded - the packed bits and their exact length
+     * Returns: the decoded string
+     * */
+    public String DecodePacked(EncodedBits encoded){
+        return tableDecoder.decodeToString(encoded.data, encoded.bitLength);
+    }
+
+    /*
+     * Method: packBitString
+     * Purpose: packs a string of '0' and '1' characters into bytes
+     * Parameters: input - the string of '0' and '1' characters
+     * Returns: the packed bits
+     * */
+    private static byte[] packBitString(String input){
+        byte[] packed = new byte[(input.length() + 7) / 8];
+        for(int i = 0; i < input.length(); i++){
+            char bit = input.charAt(i);
+            if(bit == '1'){
+                packed[i >>> 3] |= (byte) (0x80 >>> (i & 7));
             }
-            if (decodingMap.get(currCode) != null) {
-                output += decodingMap.get(currCode);
+            else if(bit != '0'){
+                throw new IllegalArgumentException("Encoded text may only contain '0' and '1'");
             }
         }
-        return output;
+        return packed;
     }
 
     /*
@@ -157,8 +303,80 @@ public class HuffmanEncodingTree
             decodingMap.put(encoding, cur.c);
         }
         else{
-            buildMaps(cur.left, encoding + "0");
-            buildMaps(cur.right, encoding + "1");
+            //the root of a tree with a single character only has a left child
+            if(cur.left != null)
+                buildMaps(cur.left, encoding + "0");
+            if(cur.right != null)
+                buildMaps(cur.right, encoding + "1");
+        }
+    }
+
+    /*
+     * Method: canonicalize
+     * Purpose: builds the canonical code from the depth of each leaf and reshapes the
+     *          tree so that following it from the root gives the canonical codes
+     * Parameters: none
+     * */
+    private void canonicalize(){
+        ArrayList<HuffmanTreeNode> leaves = new ArrayList<HuffmanTreeNode>();
+        ArrayList<Integer> depths = new ArrayList<Integer>();
+        collectLeaves(root, 0, leaves, depths);
+        int count = leaves.size();
+        int[] symbols = new int[count];
+        int[] lengths = new int[count];
+        HashMap<Character, Integer> freq = new HashMap<Character, Integer>();
+        for(int i = 0; i < count; i++){
+            symbols[i] = leaves.get(i).c;
+            //a tree with a single character still needs a one bit code
+            lengths[i] = Math.max(depths.get(i), 1);
+            freq.put(leaves.get(i).c, leaves.get(i).freq);
+        }
+        canonicalCode = new CanonicalHuffmanCode(symbols, lengths, count);
+        //rebuild the tree by following each canonical code from the root
+        root = new HuffmanTreeNode('\0', 0);
+        for(int i = 0; i < count; i++){
+            char c = (char) canonicalCode.getSymbol(i);
+            int length = canonicalCode.getCodeLength(c);
+            long code = canonicalCode.getCode(c);
+            int f = freq.get(c);
+            HuffmanTreeNode cur = root;
+            cur.freq += f;
+            for(int bit = length - 1; bit > 0; bit--){
+                if(((code >>> bit) & 1) == 0){
+                    if(cur.left == null) cur.left = new HuffmanTreeNode('\0', 0);
+                    cur = cur.left;
+                }
+                else{
+                    if(cur.right == null) cur.right = new HuffmanTreeNode('\0', 0);
+                    cur = cur.right;
+                }
+                cur.freq += f;
+            }
+            if((code & 1) == 0){
+                cur.left = new HuffmanTreeNode(c, f);
+            }
+            else{
+                cur.right = new HuffmanTreeNode(c, f);
+            }
+        }
+    }
+
+    /*
+     * Method: collectLeaves
+     * Purpose: collects every leaf of the tree along with its depth
+     * Parameters: HuffmanTreeNode cur - the current node
+     *             int depth - the depth of the current node
+     *             ArrayList leaves - where the leaves are added
+     *             ArrayList depths - where the depth of each leaf is added
+     * */
+    private void collectLeaves(HuffmanTreeNode cur, int depth, ArrayList<HuffmanTreeNode> leaves, ArrayList<Integer> depths){
+        if(cur.left == null && cur.right == null){
+            leaves.add(cur);
+            depths.add(depth);
+        }
+        else{
+            collectLeaves(cur.left, depth + 1, leaves, depths);
+            collectLeaves(cur.right, depth + 1, leaves, depths);
         }
     }
 
@@ -168,17 +386,20 @@ public class HuffmanEncodingTree
      * Parameters: String fileName - the name of the file to be parsed
      * Returns: String - the text from the file
      * */
-    private static String parseText(String fileName) throws FileNotFoundException
+    private static String parseText(String fileName) throws IOException
     {
-        String text = "";
-        File file = new File(fileName);
-        Scanner input = new Scanner(file);
-        while (input.hasNextLine())
+        //read in blocks so the line endings are kept exactly as they are in the file
+        StringBuilder text = new StringBuilder();
+        char[] buffer = new char[8192];
+        try (Reader input = new FileReader(fileName))
         {
-            text += input.nextLine();
-            text += "\n";
+            int count;
+            while ((count = input.read(buffer)) > 0)
+            {
+                text.append(buffer, 0, count);
+            }
         }
-        return text;
+        return text.toString();
     }
 
     /*
@@ -187,23 +408,10 @@ public class HuffmanEncodingTree
      * Parameters: String text - the text to be analyzed
      * Returns: HashMap - a dictionary of the characters in text and their frequencies
      * */
-    private static HashMap buildCharacterFrequencyDict(String text)
+    private static HashMap<Character, Integer> buildCharacterFrequencyDict(String text)
     {
-        // create a dictionary of characters and their frequencies
-        HashMap<Character, Integer> charFrequency = new HashMap<Character, Integer>();
-        for (int i = 0; i < text.length(); i++)
-        {
-            if (charFrequency.containsKey(text.charAt(i)))
-            {
-                charFrequency.put(text.charAt(i), charFrequency.get(text.charAt(i)) + 1);
-            }
-            // char not in dict yet so add it
-            else
-            {
-                charFrequency.put(text.charAt(i), 1);
-            }
-        }
-        return charFrequency;
+        // count into an array indexed by character, in parallel for large texts
+        return CharacterHistogram.toFrequencyMap(CharacterHistogram.count(text));
     }
 
     /*
@@ -2,20 +2,44 @@
  * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
  * File: HuffmanGUI.java
  * Date: 4/11/2023
- * Purpose: Graphical User Interface for the Huffman Encoding algorithm
+ * Purpose: Graphical User Interface for the Huffman Encoding algorithm. Building the
+ * tree, encoding and decoding run on a SwingWorker so the window stays responsive,
+ * with a progress bar and a Cancel button. Outputs longer than PREVIEW_CHARS are
+ * shown as a preview; the full output is kept and used by the next Convert.
  */
 
 import java.awt.GridLayout;
 import java.io.File;
-import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.*;
 
 public class HuffmanGUI extends JPanel{
+    //the most characters put into a text area at once
+    private static final int PREVIEW_CHARS = 100_000;
+
+    //the number of characters encoded, or bits decoded, between progress updates
+    private static final int CHUNK_SIZE = 1 << 16;
+
     private File file;
     private JTextArea textArea;
     private JTextArea codeArea;
+    private JButton convertButton;
+    private JButton fileButton;
+    private JButton cancelButton;
+    private JProgressBar progressBar;
     private HuffmanEncodingTree t;
+
+    //the task that is running, or null
+    private SwingWorker<?, ?> worker;
+
+    //the full outputs behind a preview, and the preview that was shown for each
+    private String fullText;
+    private String textPreview;
+    private String fullCode;
+    private String codePreview;
+
     public HuffmanGUI() {
         createAndShowGUI();
     }
@@ -23,7 +47,7 @@ public class HuffmanGUI extends JPanel{
     private void createAndShowGUI() {
         JFrame mainFrame = new JFrame("Huffman Encoder");
         mainFrame.setSize(400, 400);
-        mainFrame.setLayout(new GridLayout(3, 3, 5, 5));
+        mainFrame.setLayout(new GridLayout(4, 2, 5, 5));
 
         JLabel text = new JLabel("Text:");
         JLabel code = new JLabel("Code:");
@@ -33,47 +57,256 @@ public class HuffmanGUI extends JPanel{
         textArea.setLineWrap(true);
         codeArea.setLineWrap(true);
 
-        JButton convertButton = new JButton("Convert");
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        cancelButton = new JButton("Cancel");
+        cancelButton.setEnabled(false);
+        cancelButton.addActionListener((event) -> {
+            if (worker != null) {
+                worker.cancel(true);
+            }
+        });
+
+        convertButton = new JButton("Convert");
         convertButton.addActionListener((event) -> {
             if (t != null) {
-                String originalText = textArea.getText();
-                String originalCode = codeArea.getText();
+                String originalText = currentText();
+                String originalCode = currentCode();
 
                 if (!originalText.isEmpty() && originalCode.isEmpty()) {
-                    String newCode = t.Encode(originalText);
-                    codeArea.setText(newCode);
+                    start(new EncodeWorker(t, originalText));
                 }
                 else if (originalText.isEmpty() && !originalCode.isEmpty()) {
-                    String newText = t.Decode(originalCode);
-                    textArea.setText(newText);
+                    start(new DecodeWorker(t, originalCode));
                 }
             }
         });
 
-        JButton fileButton = new JButton("Select file");
+        fileButton = new JButton("Select file");
         fileButton.addActionListener((event) -> {
             JFileChooser j = new JFileChooser();
             int returnVal = j.showOpenDialog(HuffmanGUI.this);
             if (returnVal == JFileChooser.APPROVE_OPTION) {
                 file = j.getSelectedFile();
-                try {
-                    t = new HuffmanEncodingTree(file.getAbsolutePath());
-                } catch (IOException | EmptyQueueException e) {
-                    // TODO Auto-generated catch block
-                    e.printStackTrace();
-                }
-
+                start(new TreeWorker(file));
             }
         });
 
         mainFrame.add(text);
-        mainFrame.add(textArea);
+        mainFrame.add(new JScrollPane(textArea));
         mainFrame.add(code);
-        mainFrame.add(codeArea);
+        mainFrame.add(new JScrollPane(codeArea));
         mainFrame.add(fileButton);
         mainFrame.add(convertButton);
+        mainFrame.add(progressBar);
+        mainFrame.add(cancelButton);
         mainFrame.setVisible(true);
 
     }
-}
 
+    /*
+     * Method: start
+     * Purpose: runs a task in the background, showing its progress and letting it be cancelled
+     * Parameters: worker - the task
+     * Returns: void
+     * */
+    private void start(SwingWorker<?, ?> worker) {
+        this.worker = worker;
+        convertButton.setEnabled(false);
+        fileButton.setEnabled(false);
+        cancelButton.setEnabled(true);
+        progressBar.setValue(0);
+        progressBar.setIndeterminate(worker instanceof TreeWorker);
+        worker.addPropertyChangeListener((event) -> {
+            if ("progress".equals(event.getPropertyName())) {
+                progressBar.setValue((Integer) event.getNewValue());
+            }
+        });
+        worker.execute();
+    }
+
+    /*
+     * Method: finish
+     * Purpose: puts the window back once a task is done, and returns its result
+     * Parameters: worker - the task that is done
+     * Returns: the result of the task, or null if it was cancelled or failed
+     * */
+    private <T> T finish(SwingWorker<T, ?> worker) {
+        this.worker = null;
+        convertButton.setEnabled(true);
+        fileButton.setEnabled(true);
+        cancelButton.setEnabled(false);
+        progressBar.setIndeterminate(false);
+        try {
+            T result = worker.get();
+            progressBar.setValue(100);
+            return result;
+        }
+        catch (CancellationException e) {
+            progressBar.setValue(0);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException e) {
+            progressBar.setValue(0);
+            JOptionPane.showMessageDialog(this, e.getCause().getMessage(), "Huffman Encoder", JOptionPane.ERROR_MESSAGE);
+        }
+        return null;
+    }
+
+    /*
+     * Method: currentText
+     * Purpose: returns the text in the text area, or the full text if the area still shows its preview
+     * Parameters: none
+     * Returns: the text
+     * */
+    private String currentText() {
+        String shown = textArea.getText();
+        return fullText != null && shown.equals(textPreview) ? fullText : shown;
+    }
+
+    /*
+     * Method: currentCode
+     * Purpose: returns the code in the code area, or the full code if the area still shows its preview
+     * Parameters: none
+     * Returns: the code
+     * */
+    private String currentCode() {
+        String shown = codeArea.getText();
+        return fullCode != null && shown.equals(codePreview) ? fullCode : shown;
+    }
+
+    /*
+     * Method: preview
+     * Purpose: returns value, or the start of it if it is longer than PREVIEW_CHARS
+     * Parameters: value - the full output
+     * Returns: the text to show
+     * */
+    private static String preview(String value) {
+        if (value.length() <= PREVIEW_CHARS) {
+            return value;
+        }
+        return value.substring(0, PREVIEW_CHARS) + "\n... (" + (value.length() - PREVIEW_CHARS) + " more characters not shown)";
+    }
+
+    /*
+     * Class: TreeWorker
+     * Purpose: builds the tree for a file in the background
+     */
+    private class TreeWorker extends SwingWorker<HuffmanEncodingTree, Void> {
+        private final File input;
+
+        TreeWorker(File input) {
+            this.input = input;
+        }
+
+        @Override
+        protected HuffmanEncodingTree doInBackground() throws Exception {
+            return new HuffmanEncodingTree(input.getAbsolutePath());
+        }
+
+        @Override
+        protected void done() {
+            HuffmanEncodingTree tree = finish(this);
+            if (tree != null) {
+                t = tree;
+            }
+        }
+    }
+
+    /*
+     * Class: EncodeWorker
+     * Purpose: encodes text in the background a chunk at a time, so progress can be
+     *          shown and a cancel takes effect between chunks
+     */
+    private class EncodeWorker extends SwingWorker<String, Void> {
+        private final HuffmanEncodingTree tree;
+        private final String input;
+
+        EncodeWorker(HuffmanEncodingTree tree, String input) {
+            this.tree = tree;
+            this.input = input;
+        }
+
+        @Override
+        protected String doInBackground() {
+            StringBuilder output = new StringBuilder();
+            for (int start = 0; start < input.length() && !isCancelled(); start += CHUNK_SIZE) {
+                int end = Math.min(start + CHUNK_SIZE, input.length());
+                String chunk = input.substring(start, end);
+                for (int i = 0; i < chunk.length(); i++) {
+                    if (tree.getEncodingMap().get(chunk.charAt(i)) == null) {
+                        throw new IllegalArgumentException("Character '" + chunk.charAt(i) + "' is not in the encoding tree");
+                    }
+                }
+                output.append(tree.Encode(chunk));
+                setProgress((int) (100L * end / input.length()));
+            }
+            return output.toString();
+        }
+
+        @Override
+        protected void done() {
+            String output = finish(this);
+            if (output != null) {
+                fullCode = output;
+                codePreview = preview(output);
+                codeArea.setText(codePreview);
+            }
+        }
+    }
+
+    /*
+     * Class: DecodeWorker
+     * Purpose: decodes a string of '0' and '1' characters in the background, packing
+     *          and decoding one chunk at a time with a HuffmanPushDecoder
+     */
+    private class DecodeWorker extends SwingWorker<String, Void> {
+        private final HuffmanEncodingTree tree;
+        private final String input;
+
+        DecodeWorker(HuffmanEncodingTree tree, String input) {
+            this.tree = tree;
+            this.input = input;
+        }
+
+        @Override
+        protected String doInBackground() {
+            HuffmanPushDecoder decoder = new HuffmanPushDecoder(tree.getCanonicalCode(), input.length());
+            StringBuilder output = new StringBuilder();
+            int[] symbols = new int[4096];
+            for (int start = 0; start < input.length() && !isCancelled(); start += CHUNK_SIZE) {
+                int end = Math.min(start + CHUNK_SIZE, input.length());
+                byte[] packed = new byte[(end - start + 7) / 8];
+                for (int i = start; i < end; i++) {
+                    if (input.charAt(i) == '1') {
+                        packed[(i - start) >>> 3] |= (byte) (0x80 >>> ((i - start) & 7));
+                    }
+                }
+                decoder.setInput(packed);
+                int count;
+                while ((count = decoder.decode(symbols, 0, symbols.length)) > 0) {
+                    for (int i = 0; i < count; i++) {
+                        output.append((char) symbols[i]);
+                    }
+                }
+                setProgress((int) (100L * end / input.length()));
+            }
+            if (!isCancelled() && !decoder.finished()) {
+                throw new IllegalArgumentException("Code ends in the middle of a character");
+            }
+            return output.toString();
+        }
+
+        @Override
+        protected void done() {
+            String output = finish(this);
+            if (output != null) {
+                fullText = output;
+                textPreview = preview(output);
+                textArea.setText(textPreview);
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: HuffmanPushDecoder.java
+ * Date: 10/18/2026
+ * Purpose: Decodes canonical Huffman bits that arrive in chunks of any size, such
+ *          as reads from a socket. It is used like java.util.zip.Inflater: hand it
+ *          a chunk with setInput, call decode until it returns 0, and when
+ *          needsInput is true hand it the next chunk. A code split between two
+ *          chunks is kept in a 64 bit accumulator until the rest arrives, so the
+ *          memory used does not grow with the input.
+ *
+ *          Codes are looked up in the same tables as HuffmanTableDecoder, so codes
+ *          of any length up to 64 bits are decoded the same way; this class only
+ *          keeps the bits that have arrived. The accumulator takes whole bytes, and
+ *          when a code is longer than the bits it holds it is topped up with part
+ *          of the next byte, so a 64 bit code always fits.
+ */
+
+public class HuffmanPushDecoder
+{
+    //the tables the codes are looked up in
+    private final HuffmanTableDecoder table;
+
+    //bits received but not yet decoded, left aligned
+    private long accumulator = 0;
+    private int accumulatorBits = 0;
+
+    //the chunk being read, and how many bits of the byte at inputPosition are already in the accumulator
+    private byte[] input = new byte[0];
+    private int inputPosition = 0;
+    private int inputEnd = 0;
+    private int inputBit = 0;
+
+    //the number of bits decoded so far, and the total number of bits
+    private long bitsDecoded = 0;
+    private final long bitLength;
+
+    /*
+     * Constructor
+     * Purpose: creates a decoder for a known number of bits, so the padding after them is
+     *          ignored. The number has to be known up front: padding in the last byte
+     *          cannot be told apart from codes, and would be decoded as symbols.
+     * Parameters: CanonicalHuffmanCode code - the code the bits were written with
+     *             long bitLength - the number of bits
+     * */
+    public HuffmanPushDecoder(CanonicalHuffmanCode code, long bitLength)
+    {
+        if (bitLength < 0)
+        {
+            throw new IllegalArgumentException("Bit length " + bitLength + " is negative");
+        }
+        this.table = code.newDecoder();
+        this.bitLength = bitLength;
+    }
+
+    /*
+     * Method: setInput
+     * Purpose: hands the decoder the next chunk of bits. The chunk is read in place,
+     *          so it must not change until needsInput is true again.
+     * Parameters: byte[] chunk - the bytes
+     *             int offset - the index of the first byte
+     *             int length - the number of bytes
+     * Returns: void
+     * */
+    public void setInput(byte[] chunk, int offset, int length)
+    {
+        if (!needsInput())
+        {
+            throw new IllegalStateException("The previous chunk has not been used up");
+        }
+        input = chunk;
+        inputPosition = offset;
+        inputEnd = offset + length;
+    }
+
+    /*
+     * Method: setInput
+     * Purpose: hands the decoder the next chunk of bits
+     * Parameters: byte[] chunk - the bytes
+     * Returns: void
+     * */
+    public void setInput(byte[] chunk)
+    {
+        setInput(chunk, 0, chunk.length);
+    }
+
+    /*
+     * Method: needsInput
+     * Purpose: returns true once every byte of the current chunk has been taken in
+     * Parameters: none
+     * Returns: boolean - true if setInput can be called
+     * */
+    public boolean needsInput()
+    {
+        return inputPosition == inputEnd;
+    }
+
+    /*
+     * Method: finished
+     * Purpose: returns true once every bit of the message has been decoded
+     * Parameters: none
+     * Returns: boolean - true when there is nothing left to decode
+     * */
+    public boolean finished()
+    {
+        return bitsDecoded == bitLength;
+    }
+
+    /*
+     * Method: getBitsDecoded
+     * Purpose: returns the number of bits decoded so far
+     * Parameters: none
+     * Returns: long - the number of bits
+     * */
+    public long getBitsDecoded()
+    {
+        return bitsDecoded;
+    }
+
+    /*
+     * Method: decode
+     * Purpose: decodes every complete code received so far, up to max symbols
+     * Parameters: int[] out - where the symbols are put
+     *             int offset - the index of the first symbol
+     *             int max - the most symbols to decode
+     * Returns: int - the number of symbols decoded, 0 if more input is needed or the message is finished
+     * */
+    public int decode(int[] out, int offset, int max)
+    {
+        int written = 0;
+        while (written < max)
+        {
+            refill();
+            int available = (int) Math.min(accumulatorBits, bitLength - bitsDecoded);
+            if (available == 0)
+            {
+                break;
+            }
+            long entry = table.decodeWindow(accumulator, available, written + 1 < max);
+            if (entry == 0)
+            {
+                if (topUp())
+                {
+                    continue;
+                }
+                //the rest of the code has not arrived yet
+                if (bitsDecoded + available >= bitLength)
+                {
+                    throw new IllegalArgumentException("Encoded bits end in the middle of a code");
+                }
+                break;
+            }
+            out[offset + written++] = (int) (entry >>> 8) & HuffmanTableDecoder.MAX_SYMBOL;
+            if ((entry & 0x80) != 0)
+            {
+                out[offset + written++] = (int) (entry >>> 32);
+            }
+            consume((int) entry & 0x7F);
+        }
+        return written;
+    }
+
+    /*
+     * Method: refill
+     * Purpose: moves whole bytes of the current chunk into the accumulator while they fit
+     * Parameters: none
+     * Returns: void
+     * */
+    private void refill()
+    {
+        if (inputBit != 0)
+        {
+            //finish the byte topUp started before taking whole bytes again
+            topUp();
+        }
+        while (accumulatorBits <= 56 && inputBit == 0 && inputPosition < inputEnd)
+        {
+            accumulator |= (long) (input[inputPosition++] & 0xFF) << (56 - accumulatorBits);
+            accumulatorBits += 8;
+        }
+    }
+
+    /*
+     * Method: topUp
+     * Purpose: moves as many bits of the next byte into the accumulator as there is room
+     *          for, which a code too long for the whole bytes that fit needs
+     * Parameters: none
+     * Returns: boolean - true if any bits were added
+     * */
+    private boolean topUp()
+    {
+        if (accumulatorBits == 64 || inputPosition == inputEnd)
+        {
+            return false;
+        }
+        int take = Math.min(8 - inputBit, 64 - accumulatorBits);
+        long bits = (input[inputPosition] & (0xFF >>> inputBit)) >>> (8 - inputBit - take);
+        accumulator |= bits << (64 - accumulatorBits - take);
+        accumulatorBits += take;
+        inputBit += take;
+        if (inputBit == 8)
+        {
+            inputBit = 0;
+            inputPosition++;
+        }
+        return true;
+    }
+
+    /*
+     * Method: consume
+     * Purpose: drops the bits of a decoded code from the accumulator
+     * Parameters: int length - the length of the code
+     * Returns: void
+     * */
+    private void consume(int length)
+    {
+        //a shift by 64 would leave the bits where they are
+        accumulator = length == 64 ? 0 : accumulator << length;
+        accumulatorBits -= length;
+        bitsDecoded += length;
+    }
+}
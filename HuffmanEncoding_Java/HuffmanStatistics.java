@@ -0,0 +1,392 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: HuffmanStatistics.java
+ * Date: 10/18/2026
+ * Purpose: Measurements of a HuffmanCoder: how close its code comes to the entropy
+ *          of the text it was built for, how well it compresses, and how long each
+ *          phase of the work takes. Every HuffmanCoder has one, returned by
+ *          getStatistics, and one can be passed to HuffmanStream,
+ *          MappedHuffmanCompressor and HuffmanBlockContainer, or read from a
+ *          HuffmanBatchCompressor, to measure those. Encoding and decoding are
+ *          counted apart, so a coder used both ways still reports the ratio of
+ *          what it compressed. The counters can be read at any time from any
+ *          thread while the coder is in use, and startLogging writes a summary to
+ *          the "HuffmanStatistics" java.util.logging logger at a fixed interval.
+ *          Phases run in parallel, such as container blocks, add up the time of
+ *          every thread.
+ *
+ *          Sizes of text are counted as one byte per char, the size of ASCII or
+ *          Latin-1 text, the same as ORIGINAL TEXT SIZE in HuffmanEncodingTest.
+ */
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+public class HuffmanStatistics
+{
+    /*
+     * Enum: Phase
+     * Purpose: the steps of compressing and decompressing that are timed
+     */
+    public enum Phase
+    {
+        //counting the symbols of the input
+        COUNT,
+        //building the code from the counts
+        BUILD,
+        //turning symbols into packed bits
+        ENCODE,
+        //putting the header in front of the bits
+        WRITE,
+        //turning packed bits back into symbols
+        DECODE
+    }
+
+    //where startLogging writes
+    private static final Logger LOGGER = Logger.getLogger("HuffmanStatistics");
+
+    //the code being measured, or null if there is no single code, as for a batch of files
+    private volatile CanonicalHuffmanCode code;
+
+    //the entropy, in bits per symbol, of the counts the code was built from, or NaN if not known
+    private volatile double entropy = Double.NaN;
+
+    //the time spent in each phase, the bytes it handled, and how many times it ran
+    private final LongAdder[] phaseNanos = newAdders(Phase.values().length);
+    private final LongAdder[] phaseBytes = newAdders(Phase.values().length);
+    private final LongAdder[] phaseRuns = newAdders(Phase.values().length);
+
+    //the symbols encoded, their size before encoding, and their size as bits
+    private final LongAdder encodedSymbols = new LongAdder();
+    private final LongAdder encodedOriginalBytes = new LongAdder();
+    private final LongAdder encodedBits = new LongAdder();
+
+    //the same for the symbols decoded
+    private final LongAdder decodedSymbols = new LongAdder();
+    private final LongAdder decodedOriginalBytes = new LongAdder();
+    private final LongAdder decodedBits = new LongAdder();
+
+    //the bytes of headers and frame lengths written around the encoded bits
+    private final LongAdder headerBytes = new LongAdder();
+
+    //the thread that logs a summary, or null if logging is off
+    private ScheduledExecutorService logger;
+
+    /*
+     * Constructor
+     * Purpose: creates empty statistics for a code
+     * Parameters: CanonicalHuffmanCode code - the code being measured
+     * */
+    public HuffmanStatistics(CanonicalHuffmanCode code)
+    {
+        this.code = code;
+    }
+
+    /*
+     * Constructor
+     * Purpose: creates empty statistics whose code is set later with setCode, or never
+     *          if there is no single code, as for a batch of files
+     * */
+    public HuffmanStatistics()
+    {
+        this(null);
+    }
+
+    /*
+     * Method: setCode
+     * Purpose: sets the code being measured, which the code length histogram is read from
+     * Parameters: CanonicalHuffmanCode code - the code
+     * Returns: void
+     * */
+    public void setCode(CanonicalHuffmanCode code)
+    {
+        this.code = code;
+    }
+
+    /*
+     * Method: setSourceCounts
+     * Purpose: records the symbol counts the code was built from, which gives the entropy
+     * Parameters: long[] counts - the count of each symbol; zero counts are ignored
+     *             int count - the number of entries of counts to use
+     * Returns: void
+     * */
+    public void setSourceCounts(long[] counts, int count)
+    {
+        long total = 0;
+        for (int i = 0; i < count; i++)
+        {
+            total += counts[i];
+        }
+        double bits = 0;
+        for (int i = 0; i < count; i++)
+        {
+            if (counts[i] > 0)
+            {
+                double p = (double) counts[i] / total;
+                bits -= p * Math.log(p);
+            }
+        }
+        entropy = total == 0 ? Double.NaN : bits / Math.log(2);
+    }
+
+    /*
+     * Method: recordPhase
+     * Purpose: adds one run of a phase
+     * Parameters: Phase phase - the phase
+     *             long nanos - how long the run took
+     *             long bytes - the bytes it handled
+     * Returns: void
+     * */
+    public void recordPhase(Phase phase, long nanos, long bytes)
+    {
+        phaseNanos[phase.ordinal()].add(nanos);
+        phaseBytes[phase.ordinal()].add(bytes);
+        phaseRuns[phase.ordinal()].increment();
+    }
+
+    /*
+     * Method: recordEncoding
+     * Purpose: adds symbols that were encoded
+     * Parameters: long symbolCount - the number of symbols
+     *             long original - their size in bytes before encoding
+     *             long bits - their size in bits after encoding
+     * Returns: void
+     * */
+    public void recordEncoding(long symbolCount, long original, long bits)
+    {
+        encodedSymbols.add(symbolCount);
+        encodedOriginalBytes.add(original);
+        encodedBits.add(bits);
+    }
+
+    /*
+     * Method: recordDecoding
+     * Purpose: adds symbols that were decoded
+     * Parameters: long symbolCount - the number of symbols
+     *             long original - their size in bytes once decoded
+     *             long bits - the encoded bits they were decoded from
+     * Returns: void
+     * */
+    public void recordDecoding(long symbolCount, long original, long bits)
+    {
+        decodedSymbols.add(symbolCount);
+        decodedOriginalBytes.add(original);
+        decodedBits.add(bits);
+    }
+
+    /*
+     * Method: recordHeader
+     * Purpose: adds a header, or frame lengths, written around encoded bits
+     * Parameters: long bytes - the size of the header
+     * Returns: void
+     * */
+    public void recordHeader(long bytes)
+    {
+        headerBytes.add(bytes);
+    }
+
+    /*
+     * Method: getEntropy
+     * Purpose: returns the entropy of the counts the code was built from, the fewest
+     *          bits per symbol any code for them could average
+     * Parameters: none
+     * Returns: double - bits per symbol, or NaN if the counts are not known, as for a
+     *          coder read from a header
+     * */
+    public double getEntropy()
+    {
+        return entropy;
+    }
+
+    /*
+     * Method: getAverageCodeLength
+     * Purpose: returns the bits per symbol of everything encoded so far, or of
+     *          everything decoded if nothing has been encoded
+     * Parameters: none
+     * Returns: double - bits per symbol, or NaN if nothing has been coded
+     * */
+    public double getAverageCodeLength()
+    {
+        long count = encodedSymbols.sum();
+        if (count > 0)
+        {
+            return (double) encodedBits.sum() / count;
+        }
+        count = decodedSymbols.sum();
+        return count == 0 ? Double.NaN : (double) decodedBits.sum() / count;
+    }
+
+    /*
+     * Method: getCodeLengthHistogram
+     * Purpose: returns how many symbols have a code of each length
+     * Parameters: none
+     * Returns: int[] - the number of symbols, indexed by code length
+     * */
+    public int[] getCodeLengthHistogram()
+    {
+        CanonicalHuffmanCode code = this.code;
+        if (code == null)
+        {
+            return new int[0];
+        }
+        int[] histogram = new int[code.getMaxLength() + 1];
+        for (int i = 0; i < code.getSize(); i++)
+        {
+            histogram[code.getCodeLength(code.getSymbol(i))]++;
+        }
+        return histogram;
+    }
+
+    /*
+     * Method: getRatio
+     * Purpose: returns the compressed size, headers included, as a fraction of the
+     *          original size, for what was encoded
+     * Parameters: none
+     * Returns: double - the ratio, or NaN if nothing has been encoded
+     * */
+    public double getRatio()
+    {
+        long original = encodedOriginalBytes.sum();
+        return original == 0 ? Double.NaN : ((encodedBits.sum() + 7) / 8 + headerBytes.sum()) / (double) original;
+    }
+
+    /*
+     * Method: getEncodedSymbolCount
+     * Purpose: returns the number of symbols encoded so far
+     * Parameters: none
+     * Returns: long - the number of symbols
+     * */
+    public long getEncodedSymbolCount()
+    {
+        return encodedSymbols.sum();
+    }
+
+    /*
+     * Method: getDecodedSymbolCount
+     * Purpose: returns the number of symbols decoded so far
+     * Parameters: none
+     * Returns: long - the number of symbols
+     * */
+    public long getDecodedSymbolCount()
+    {
+        return decodedSymbols.sum();
+    }
+
+    /*
+     * Method: getPhaseNanos
+     * Purpose: returns the total time spent in a phase
+     * Parameters: Phase phase - the phase
+     * Returns: long - nanoseconds
+     * */
+    public long getPhaseNanos(Phase phase)
+    {
+        return phaseNanos[phase.ordinal()].sum();
+    }
+
+    /*
+     * Method: getPhaseRuns
+     * Purpose: returns how many times a phase has run
+     * Parameters: Phase phase - the phase
+     * Returns: long - the number of runs
+     * */
+    public long getPhaseRuns(Phase phase)
+    {
+        return phaseRuns[phase.ordinal()].sum();
+    }
+
+    /*
+     * Method: getBytesPerSecond
+     * Purpose: returns how fast a phase handles its input
+     * Parameters: Phase phase - the phase
+     * Returns: double - bytes per second, or NaN if the phase has not run
+     * */
+    public double getBytesPerSecond(Phase phase)
+    {
+        long nanos = getPhaseNanos(phase);
+        return nanos == 0 ? Double.NaN : phaseBytes[phase.ordinal()].sum() / (nanos / 1e9);
+    }
+
+    /*
+     * Method: startLogging
+     * Purpose: logs a summary at INFO level every period until stopLogging is called
+     * Parameters: long period - the time between summaries
+     *             TimeUnit unit - the unit of period
+     * Returns: void
+     * */
+    public synchronized void startLogging(long period, TimeUnit unit)
+    {
+        stopLogging();
+        logger = Executors.newSingleThreadScheduledExecutor((task) -> {
+            Thread thread = new Thread(task, "HuffmanStatistics logger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.scheduleAtFixedRate(() -> LOGGER.info(toString()), period, period, unit);
+    }
+
+    /*
+     * Method: stopLogging
+     * Purpose: stops the summaries started by startLogging, if there are any
+     * Parameters: none
+     * Returns: void
+     * */
+    public synchronized void stopLogging()
+    {
+        if (logger != null)
+        {
+            logger.shutdownNow();
+            logger = null;
+        }
+    }
+
+    /*
+     * Method: toString
+     * Purpose: returns a one line summary of every measurement
+     * Parameters: none
+     * Returns: String - the summary
+     * */
+    @Override
+    public String toString()
+    {
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("entropy %.4f bits, average code %.4f bits, ratio %.4f, %d symbols encoded, %d decoded, code lengths ",
+                                     getEntropy(), getAverageCodeLength(), getRatio(), getEncodedSymbolCount(),
+                                     getDecodedSymbolCount()));
+        int[] histogram = getCodeLengthHistogram();
+        for (int length = 1; length < histogram.length; length++)
+        {
+            if (histogram[length] > 0)
+            {
+                summary.append(length).append(':').append(histogram[length]).append(' ');
+            }
+        }
+        for (Phase phase : Phase.values())
+        {
+            if (getPhaseRuns(phase) > 0)
+            {
+                summary.append(String.format("| %s %.3f ms %.1f MB/s ", phase, getPhaseNanos(phase) / 1e6,
+                                             getBytesPerSecond(phase) / 1e6));
+            }
+        }
+        return summary.toString().trim();
+    }
+
+    /*
+     * Method: newAdders
+     * Purpose: returns an array of counters that start at 0
+     * Parameters: int count - the number of counters
+     * Returns: LongAdder[] - the counters
+     * */
+    private static LongAdder[] newAdders(int count)
+    {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++)
+        {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
@@ -0,0 +1,404 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: HuffmanStream.java
+ * Date: 10/18/2026
+ * Purpose: Compresses and decompresses text a block at a time so that files of
+ *          any size can be handled with a fixed amount of memory. Compressing a
+ *          file takes two passes: one to count characters and one to encode them.
+ *          Characters are read exactly as they appear, so line endings are kept.
+ *          Each method can be given a HuffmanStatistics to record its phases in.
+ *
+ *          The compressed stream is the canonical code header followed by frames.
+ *          Each frame is a varint holding its length in bits and then the packed
+ *          bits, padded to a whole byte. A frame with a length of 0 ends the stream.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+
+public class HuffmanStream
+{
+    //a frame is written once it holds at least this many bits
+    public static final int FRAME_BITS = 1 << 19;
+
+    //the size of the character buffers used while reading and writing text
+    private static final int BUFFER_SIZE = 8192;
+
+    //the size of the character buffer used by the counting pass
+    private static final int COUNT_BUFFER_SIZE = 1 << 20;
+
+    /*
+     * Method: countCharacters
+     * Purpose: counts how many times each character appears in a stream of text
+     * Parameters: Reader in - the text to count
+     * Returns: long[] - the count for each character, indexed by the character
+     * */
+    public static long[] countCharacters(Reader in) throws IOException
+    {
+        long[] counts = new long[CharacterHistogram.ALPHABET_SIZE];
+        //big enough blocks that each one can be counted in parallel
+        char[] buffer = new char[COUNT_BUFFER_SIZE];
+        int count;
+        while ((count = readFully(in, buffer)) > 0)
+        {
+            CharacterHistogram.addCounts(counts, buffer, 0, count);
+        }
+        return counts;
+    }
+
+    /*
+     * Method: buildCode
+     * Purpose: builds a canonical code from character counts
+     * Parameters: long[] counts - the count for each character
+     * Returns: CanonicalHuffmanCode - the code, with no symbols if every count is 0
+     * */
+    public static CanonicalHuffmanCode buildCode(long[] counts)
+    {
+        return buildCode(counts, 0);
+    }
+
+    /*
+     * Method: buildCode
+     * Purpose: builds a canonical code from character counts with codes no longer than maxLength
+     * Parameters: long[] counts - the count for each character
+     *             int maxLength - the longest code allowed, or 0 for no limit
+     * Returns: CanonicalHuffmanCode - the code, with no symbols if every count is 0
+     * */
+    public static CanonicalHuffmanCode buildCode(long[] counts, int maxLength)
+    {
+        if (maxLength > 0)
+        {
+            return HuffmanCoder.buildCode(counts, maxLength);
+        }
+        HashMap<Character, Integer> frequencies = CharacterHistogram.toFrequencyMap(counts);
+        if (frequencies.isEmpty())
+        {
+            return new CanonicalHuffmanCode(new int[0], new int[0], 0);
+        }
+        try
+        {
+            return new HuffmanEncodingTree(frequencies).getCanonicalCode();
+        }
+        catch (EmptyQueueException e)
+        {
+            //frequencies is not empty so the queue always has a node left
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /*
+     * Method: compress
+     * Purpose: compresses a text file, counting its characters first and then encoding them
+     * Parameters: Path input - the file to compress
+     *             OutputStream out - where the compressed stream is written
+     *             Charset charset - the character set of the file
+     * Returns: void
+     * */
+    public static void compress(Path input, OutputStream out, Charset charset) throws IOException
+    {
+        compress(input, out, charset, new HuffmanStatistics());
+    }
+
+    /*
+     * Method: compress
+     * Purpose: compresses a text file, counting its characters first and then encoding them
+     * Parameters: Path input - the file to compress
+     *             OutputStream out - where the compressed stream is written
+     *             Charset charset - the character set of the file
+     *             HuffmanStatistics statistics - where the phases are recorded
+     * Returns: void
+     * */
+    public static void compress(Path input, OutputStream out, Charset charset, HuffmanStatistics statistics) throws IOException
+    {
+        long start = System.nanoTime();
+        long[] counts;
+        try (Reader in = new InputStreamReader(Files.newInputStream(input), charset))
+        {
+            counts = countCharacters(in);
+        }
+        long counted = System.nanoTime();
+        CanonicalHuffmanCode code = buildCode(counts);
+        recordBuild(statistics, code, counts, start, counted);
+        try (Reader in = new InputStreamReader(Files.newInputStream(input), charset))
+        {
+            compress(code, in, out, statistics);
+        }
+    }
+
+    /*
+     * Method: compress
+     * Purpose: compresses a text file into another file
+     * Parameters: Path input - the file to compress
+     *             Path output - where the compressed stream is written
+     *             Charset charset - the character set of the input file
+     * Returns: void
+     * */
+    public static void compress(Path input, Path output, Charset charset) throws IOException
+    {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output)))
+        {
+            compress(input, out, charset);
+        }
+    }
+
+    /*
+     * Method: compress
+     * Purpose: compresses a stream of bytes in one pass with a code that was built ahead of time
+     * Parameters: CanonicalHuffmanCode code - the code to encode with
+     *             InputStream in - the text to compress
+     *             OutputStream out - where the compressed stream is written
+     *             Charset charset - the character set of the input
+     * Returns: void
+     * */
+    public static void compress(CanonicalHuffmanCode code, InputStream in, OutputStream out, Charset charset) throws IOException
+    {
+        compress(code, new InputStreamReader(in, charset), out);
+    }
+
+    /*
+     * Method: compress
+     * Purpose: compresses a stream of text in one pass with a code that was built ahead of time
+     * Parameters: CanonicalHuffmanCode code - the code to encode with
+     *             Reader in - the text to compress
+     *             OutputStream out - where the compressed stream is written
+     * Returns: void
+     * */
+    public static void compress(CanonicalHuffmanCode code, Reader in, OutputStream out) throws IOException
+    {
+        compress(code, in, out, new HuffmanStatistics(code));
+    }
+
+    /*
+     * Method: compress
+     * Purpose: compresses a stream of text in one pass with a code that was built ahead of time
+     * Parameters: CanonicalHuffmanCode code - the code to encode with
+     *             Reader in - the text to compress
+     *             OutputStream out - where the compressed stream is written
+     *             HuffmanStatistics statistics - where the encoding and writing are recorded
+     * Returns: void
+     * */
+    public static void compress(CanonicalHuffmanCode code, Reader in, OutputStream out, HuffmanStatistics statistics) throws IOException
+    {
+        out = new BufferedOutputStream(out, BUFFER_SIZE);
+        long start = System.nanoTime();
+        byte[] header = code.toHeader();
+        out.write(header);
+        long writeNanos = System.nanoTime() - start;
+        long written = header.length;
+        long encodeNanos = 0;
+        long characters = 0;
+        long bits = 0;
+        BitWriter writer = new BitWriter(FRAME_BITS / 8 + 16);
+        char[] buffer = new char[BUFFER_SIZE];
+        int count;
+        while ((count = in.read(buffer)) > 0)
+        {
+            long encodeStart = System.nanoTime();
+            for (int i = 0; i < count; i++)
+            {
+                char c = buffer[i];
+                int length = code.getCodeLength(c);
+                if (length == 0)
+                {
+                    throw new IOException("Character '" + c + "' is not in the code");
+                }
+                writer.write(code.getCode(c), length);
+            }
+            characters += count;
+            long encoded = System.nanoTime();
+            encodeNanos += encoded - encodeStart;
+            if (writer.getBitLength() >= FRAME_BITS)
+            {
+                bits += writer.getBitLength();
+                written += writeFrame(writer, out);
+                writeNanos += System.nanoTime() - encoded;
+            }
+        }
+        long writeStart = System.nanoTime();
+        if (writer.getBitLength() > 0)
+        {
+            bits += writer.getBitLength();
+            written += writeFrame(writer, out);
+        }
+        VarInt.write(out, 0);
+        out.flush();
+        writeNanos += System.nanoTime() - writeStart;
+        written++;
+        statistics.recordPhase(HuffmanStatistics.Phase.ENCODE, encodeNanos, characters);
+        statistics.recordPhase(HuffmanStatistics.Phase.WRITE, writeNanos, written);
+        statistics.recordEncoding(characters, characters, bits);
+        statistics.recordHeader(written - (bits + 7) / 8);
+    }
+
+    /*
+     * Method: decompress
+     * Purpose: decompresses a stream written by compress into text
+     * Parameters: InputStream in - the compressed stream
+     *             Writer out - where the text is written
+     * Returns: void
+     * */
+    public static void decompress(InputStream in, Writer out) throws IOException
+    {
+        decompress(in, out, new HuffmanStatistics());
+    }
+
+    /*
+     * Method: decompress
+     * Purpose: decompresses a stream written by compress into text
+     * Parameters: InputStream in - the compressed stream
+     *             Writer out - where the text is written
+     *             HuffmanStatistics statistics - where the decoding is recorded, and given the code read from the stream
+     * Returns: void
+     * */
+    public static void decompress(InputStream in, Writer out, HuffmanStatistics statistics) throws IOException
+    {
+        long start = System.nanoTime();
+        long characters = 0;
+        long bits = 0;
+        DataInputStream data = new DataInputStream(in instanceof BufferedInputStream ? in : new BufferedInputStream(in));
+        CanonicalHuffmanCode code = CanonicalHuffmanCode.readHeader(data);
+        statistics.setCode(code);
+        HuffmanTableDecoder decoder = code.newDecoder();
+        //frames are cut as soon as they reach FRAME_BITS, so they are never much longer
+        long maxFrameBits = FRAME_BITS + (long) BUFFER_SIZE * CanonicalHuffmanCode.MAX_CODE_LENGTH;
+        byte[] frame = new byte[0];
+        int[] symbols = new int[BUFFER_SIZE];
+        char[] chars = new char[BUFFER_SIZE];
+        long bitLength;
+        while ((bitLength = VarInt.read(data)) != 0)
+        {
+            if (bitLength < 0 || bitLength > maxFrameBits)
+            {
+                throw new IOException("Frame length " + bitLength + " is out of range");
+            }
+            int frameBytes = (int) ((bitLength + 7) / 8);
+            if (frame.length < frameBytes)
+            {
+                frame = new byte[frameBytes];
+            }
+            data.readFully(frame, 0, frameBytes);
+            BitReader reader = new BitReader(frame, 0, frameBytes);
+            int count;
+            try
+            {
+                while ((count = decoder.decode(reader, bitLength, symbols, 0, symbols.length)) > 0)
+                {
+                    for (int i = 0; i < count; i++)
+                    {
+                        chars[i] = (char) symbols[i];
+                    }
+                    out.write(chars, 0, count);
+                    characters += count;
+                }
+            }
+            catch (IllegalArgumentException e)
+            {
+                throw new IOException("Compressed stream is corrupt: " + e.getMessage(), e);
+            }
+            bits += bitLength;
+        }
+        out.flush();
+        statistics.recordPhase(HuffmanStatistics.Phase.DECODE, System.nanoTime() - start, characters);
+        statistics.recordDecoding(characters, characters, bits);
+    }
+
+    /*
+     * Method: decompress
+     * Purpose: decompresses a stream written by compress into bytes in the given character set
+     * Parameters: InputStream in - the compressed stream
+     *             OutputStream out - where the text is written
+     *             Charset charset - the character set to write the text in
+     * Returns: void
+     * */
+    public static void decompress(InputStream in, OutputStream out, Charset charset) throws IOException
+    {
+        decompress(in, new OutputStreamWriter(out, charset));
+    }
+
+    /*
+     * Method: decompress
+     * Purpose: decompresses a file written by compress into a text file
+     * Parameters: Path input - the compressed file
+     *             Path output - where the text is written
+     *             Charset charset - the character set to write the text in
+     * Returns: void
+     * */
+    public static void decompress(Path input, Path output, Charset charset) throws IOException
+    {
+        try (InputStream in = Files.newInputStream(input);
+             Writer out = new OutputStreamWriter(new BufferedOutputStream(Files.newOutputStream(output)), charset))
+        {
+            decompress(in, out);
+        }
+    }
+
+    /*
+     * Method: readFully
+     * Purpose: reads from in until buffer is full or the stream ends
+     * Parameters: Reader in - the text to read
+     *             char[] buffer - where the characters are stored
+     * Returns: int - the number of characters read, 0 at the end of the stream
+     * */
+    private static int readFully(Reader in, char[] buffer) throws IOException
+    {
+        int total = 0;
+        int count;
+        while (total < buffer.length && (count = in.read(buffer, total, buffer.length - total)) > 0)
+        {
+            total += count;
+        }
+        return total;
+    }
+
+    /*
+     * Method: writeFrame
+     * Purpose: writes the bits in writer as one frame and empties it
+     * Parameters: BitWriter writer - the bits of the frame
+     *             OutputStream out - where the frame is written
+     * Returns: int - the number of bytes written
+     * */
+    private static int writeFrame(BitWriter writer, OutputStream out) throws IOException
+    {
+        long bitLength = writer.getBitLength();
+        VarInt.write(out, bitLength);
+        writer.writeTo(out);
+        writer.reset();
+        return VarInt.size(bitLength) + (int) ((bitLength + 7) / 8);
+    }
+
+    /*
+     * Method: recordBuild
+     * Purpose: records the counting and building of a code in statistics
+     * Parameters: HuffmanStatistics statistics - where they are recorded
+     *             CanonicalHuffmanCode code - the code that was built
+     *             long[] counts - the counts it was built from
+     *             long start - System.nanoTime when counting started
+     *             long counted - System.nanoTime when counting finished
+     * Returns: void
+     * */
+    static void recordBuild(HuffmanStatistics statistics, CanonicalHuffmanCode code, long[] counts, long start, long counted)
+    {
+        long built = System.nanoTime();
+        long characters = 0;
+        for (long count : counts)
+        {
+            characters += count;
+        }
+        statistics.setCode(code);
+        statistics.setSourceCounts(counts, counts.length);
+        statistics.recordPhase(HuffmanStatistics.Phase.COUNT, counted - start, characters);
+        statistics.recordPhase(HuffmanStatistics.Phase.BUILD, built - counted, characters);
+    }
+}
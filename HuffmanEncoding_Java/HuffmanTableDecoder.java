@@ -0,0 +1,373 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: HuffmanTableDecoder.java
+ * Date: 10/18/2026
+ * Purpose: Decodes Huffman codes with lookup tables instead of walking the tree
+ *          one bit at a time. The root table is indexed by the next ROOT_BITS
+ *          bits of input and resolves one or two whole symbols per lookup.
+ *          Codes longer than the root table point into smaller sub tables that
+ *          are indexed by the bits that follow.
+ *
+ *          Each table entry is a long laid out as:
+ *              bits 0-1   kind (invalid, one symbol, two symbols or sub table)
+ *              bits 2-7   bits used by the first symbol, or the sub table index size
+ *              bits 8-13  bits used by both symbols
+ *              bits 14-37 the first symbol, or the sub table offset
+ *              bits 38-61 the second symbol
+ */
+
+import java.util.Arrays;
+
+public class HuffmanTableDecoder
+{
+    //the number of bits used to index the root table
+    public static final int ROOT_BITS = 11;
+
+    //the largest number of bits used to index a sub table
+    public static final int SUB_BITS = 8;
+
+    //entry kinds, invalid is 0 so that new tables start out invalid
+    private static final int KIND_INVALID = 0;
+    private static final int KIND_ONE = 1;
+    private static final int KIND_TWO = 2;
+    private static final int KIND_POINTER = 3;
+
+    //symbols have to fit in the 24 bits an entry has for each of them
+    public static final int MAX_SYMBOL = (1 << 24) - 1;
+
+    //the root table followed by every sub table
+    private long[] table;
+
+    //the number of entries of table in use
+    private int tableSize = 0;
+
+    //the number of bits that index the root table
+    private int rootBits;
+
+    //the length in bits of the shortest code
+    private int minLength;
+
+    //the symbols, code lengths, and codes the tables are built from
+    private int[] symbols;
+    private int[] lengths;
+    private long[] codes;
+
+    /*
+     * Constructor
+     * Purpose: builds the decoding tables for a prefix code
+     * Parameters: int[] symbols - the symbol for each code
+     *             int[] lengths - the length in bits of each code
+     *             long[] codes - the code bits for each symbol (right aligned)
+     *             int count - the number of codes in the arrays
+     * */
+    public HuffmanTableDecoder(int[] symbols, int[] lengths, long[] codes, int count)
+    {
+        this.symbols = symbols;
+        this.lengths = lengths;
+        this.codes = codes;
+        int maxLength = 1;
+        minLength = Integer.MAX_VALUE;
+        int[] members = new int[count];
+        for (int i = 0; i < count; i++)
+        {
+            if (symbols[i] < 0 || symbols[i] > MAX_SYMBOL)
+            {
+                throw new IllegalArgumentException("Symbol " + symbols[i] + " is too large for the decoding table");
+            }
+            if (lengths[i] < 1 || lengths[i] > 64)
+            {
+                throw new IllegalArgumentException("Code length " + lengths[i] + " is out of range");
+            }
+            maxLength = Math.max(maxLength, lengths[i]);
+            minLength = Math.min(minLength, lengths[i]);
+            members[i] = i;
+        }
+        rootBits = Math.min(maxLength, ROOT_BITS);
+        table = new long[(1 << rootBits) * 2];
+        allocate(1 << rootBits);
+        fill(0, rootBits, members, count, 0);
+        pairRootEntries();
+        table = Arrays.copyOf(table, tableSize);
+        //the code arrays are only needed while building
+        this.symbols = null;
+        this.lengths = null;
+        this.codes = null;
+    }
+
+    /*
+     * Method: decode
+     * Purpose: decodes symbols from reader until max symbols have been written
+     *          or the reader reaches bitLimit
+     * Parameters: BitReader reader - the packed bits
+     *             long bitLimit - the bit position where the encoded data ends
+     *             int[] out - where the decoded symbols are written
+     *             int offset - the index of out to start writing at
+     *             int max - the largest number of symbols to write
+     * Returns: int - the number of symbols written
+     * */
+    public int decode(BitReader reader, long bitLimit, int[] out, int offset, int max)
+    {
+        long remaining = bitLimit - reader.getBitsRead();
+        int written = 0;
+        while (written < max && remaining > 0)
+        {
+            long entry = table[reader.peek(rootBits)];
+            int kind = (int) (entry & 3);
+            if (kind == KIND_TWO)
+            {
+                int total = (int) (entry >>> 8) & 63;
+                if (total <= remaining && written + 1 < max)
+                {
+                    out[offset + written] = (int) (entry >>> 14) & MAX_SYMBOL;
+                    out[offset + written + 1] = (int) (entry >>> 38) & MAX_SYMBOL;
+                    written += 2;
+                    reader.skip(total);
+                    remaining -= total;
+                    continue;
+                }
+                kind = KIND_ONE;
+            }
+            int used = 0;
+            int bits = rootBits;
+            while (kind == KIND_POINTER)
+            {
+                reader.skip(bits);
+                used += bits;
+                bits = (int) (entry >>> 2) & 63;
+                entry = table[(int) (entry >>> 14) + reader.peek(bits)];
+                kind = (int) (entry & 3);
+            }
+            if (kind == KIND_INVALID)
+            {
+                throw new IllegalArgumentException("Encoded bits contain a code that is not in the table");
+            }
+            int length = (int) (entry >>> 2) & 63;
+            if (used + length > remaining)
+            {
+                throw new IllegalArgumentException("Encoded bits end in the middle of a code");
+            }
+            reader.skip(length);
+            remaining -= used + length;
+            out[offset + written] = (int) (entry >>> 14) & MAX_SYMBOL;
+            written++;
+        }
+        return written;
+    }
+
+    /*
+     * Method: decodeWindow
+     * Purpose: decodes the next one or two symbols from bits held left aligned in a long,
+     *          for decoders that keep their own bit buffer instead of reading from a BitReader
+     * Parameters: long window - the bits, the next one in the top bit and zeros after the last
+     *             int available - the number of bits of window that can be used, up to 64
+     *             boolean pair - false if there is only room for one symbol
+     * Returns: long - 0 if the next code goes past the available bits, otherwise
+     *                     bits 0-6   the bits used
+     *                     bit 7      set if two symbols were decoded
+     *                     bits 8-31  the first symbol
+     *                     bits 32-55 the second symbol
+     * */
+    public long decodeWindow(long window, int available, boolean pair)
+    {
+        long entry = table[(int) (window >>> (64 - rootBits))];
+        int kind = (int) (entry & 3);
+        if (kind == KIND_TWO && pair)
+        {
+            int total = (int) (entry >>> 8) & 63;
+            if (total <= available)
+            {
+                return total | 0x80 | ((entry >>> 14) & MAX_SYMBOL) << 8 | ((entry >>> 38) & MAX_SYMBOL) << 32;
+            }
+        }
+        else if (kind == KIND_POINTER || kind == KIND_INVALID)
+        {
+            return decodeSubTables(window, available, entry);
+        }
+        //a pair that cannot be used gives just its first symbol, whose length is in the same place
+        int length = (int) (entry >>> 2) & 63;
+        return length > available ? 0 : length | ((entry >>> 14) & MAX_SYMBOL) << 8;
+    }
+
+    /*
+     * Method: decodeSubTables
+     * Purpose: finishes decodeWindow for a code that is longer than the root table
+     * Parameters: long window - the bits, the next one in the top bit and zeros after the last
+     *             int available - the number of bits of window that can be used
+     *             long entry - the root table entry for the first bits of window
+     * Returns: long - what decodeWindow returns
+     * */
+    private long decodeSubTables(long window, int available, long entry)
+    {
+        int kind = (int) (entry & 3);
+        int used = 0;
+        int bits = rootBits;
+        while (kind == KIND_POINTER)
+        {
+            used += bits;
+            bits = (int) (entry >>> 2) & 63;
+            entry = table[(int) (entry >>> 14) + (int) ((window << used) >>> (64 - bits))];
+            kind = (int) (entry & 3);
+        }
+        if (kind == KIND_INVALID)
+        {
+            //the zeros after the last available bit may be what made the code invalid
+            if (used + bits > available)
+            {
+                return 0;
+            }
+            throw new IllegalArgumentException("Encoded bits contain a code that is not in the table");
+        }
+        int length = used + ((int) (entry >>> 2) & 63);
+        return length > available ? 0 : length | ((entry >>> 14) & MAX_SYMBOL) << 8;
+    }
+
+    /*
+     * Method: decodeToString
+     * Purpose: decodes packed bits whose symbols are chars into a String
+     * Parameters: byte[] data - the packed bits
+     *             long bitLength - the exact number of encoded bits
+     * Returns: String - the decoded text
+     * */
+    public String decodeToString(byte[] data, long bitLength)
+    {
+        BitReader reader = new BitReader(data);
+        //every code is at least minLength bits long, which bounds the output size
+        long bound = bitLength / minLength;
+        StringBuilder output = new StringBuilder((int) Math.min(bound, 1 << 24));
+        int[] chunk = new int[4096];
+        int count;
+        while ((count = decode(reader, bitLength, chunk, 0, chunk.length)) > 0)
+        {
+            for (int i = 0; i < count; i++)
+            {
+                output.append((char) chunk[i]);
+            }
+        }
+        return output.toString();
+    }
+
+    /*
+     * Method: getMinLength
+     * Purpose: returns the length of the shortest code
+     * Parameters: none
+     * Returns: int - the shortest code length in bits
+     * */
+    public int getMinLength()
+    {
+        return minLength;
+    }
+
+    /*
+     * Method: fill
+     * Purpose: fills a table with the codes in members, which all share the same
+     *          first depth bits, creating sub tables for codes that do not fit
+     * Parameters: int offset - the index of the first entry of the table
+     *             int bits - the number of bits that index the table
+     *             int[] members - the indexes of the codes that belong in the table
+     *             int count - the number of members
+     *             int depth - the number of code bits consumed before this table
+     * Returns: void
+     * */
+    private void fill(int offset, int bits, int[] members, int count, int depth)
+    {
+        int[] longer = new int[count];
+        long[] keys = new long[count];
+        int longerCount = 0;
+        for (int i = 0; i < count; i++)
+        {
+            int m = members[i];
+            int rest = lengths[m] - depth;
+            if (rest <= bits)
+            {
+                //the code fills every entry whose index starts with its remaining bits
+                int index = (int) ((codes[m] & mask(rest)) << (bits - rest));
+                long entry = KIND_ONE | ((long) rest << 2) | ((long) symbols[m] << 14);
+                Arrays.fill(table, offset + index, offset + index + (1 << (bits - rest)), entry);
+            }
+            else
+            {
+                //sort key is the table index followed by the member so groups stay together
+                keys[longerCount] = ((codes[m] >>> (rest - bits)) & mask(bits)) << 32 | m;
+                longerCount++;
+            }
+        }
+        Arrays.sort(keys, 0, longerCount);
+        int start = 0;
+        while (start < longerCount)
+        {
+            int index = (int) (keys[start] >>> 32);
+            int end = start;
+            int longest = 0;
+            while (end < longerCount && (int) (keys[end] >>> 32) == index)
+            {
+                longer[end - start] = (int) keys[end];
+                longest = Math.max(longest, lengths[(int) keys[end]] - depth - bits);
+                end++;
+            }
+            int subBits = Math.min(longest, SUB_BITS);
+            int subOffset = allocate(1 << subBits);
+            table[offset + index] = KIND_POINTER | ((long) subBits << 2) | ((long) subOffset << 14);
+            fill(subOffset, subBits, Arrays.copyOf(longer, end - start), end - start, depth + bits);
+            start = end;
+        }
+    }
+
+    /*
+     * Method: pairRootEntries
+     * Purpose: lets root entries whose code is short enough resolve a second
+     *          symbol from the bits that are left over in the same lookup
+     * Parameters: none
+     * Returns: void
+     * */
+    private void pairRootEntries()
+    {
+        int rootSize = 1 << rootBits;
+        int rootMask = rootSize - 1;
+        long[] single = Arrays.copyOf(table, rootSize);
+        for (int i = 0; i < rootSize; i++)
+        {
+            long first = single[i];
+            if ((first & 3) != KIND_ONE)
+            {
+                continue;
+            }
+            int firstLength = (int) (first >>> 2) & 63;
+            long second = single[(i << firstLength) & rootMask];
+            int secondLength = (int) (second >>> 2) & 63;
+            //the second code must be made entirely of bits that are in this index
+            if ((second & 3) == KIND_ONE && firstLength + secondLength <= rootBits)
+            {
+                table[i] = KIND_TWO | ((long) firstLength << 2) | ((long) (firstLength + secondLength) << 8)
+                        | (first & ((long) MAX_SYMBOL << 14)) | (((second >>> 14) & MAX_SYMBOL) << 38);
+            }
+        }
+    }
+
+    /*
+     * Method: allocate
+     * Purpose: reserves entries at the end of the table array for a new table
+     * Parameters: int size - the number of entries in the new table
+     * Returns: int - the offset of the new table
+     * */
+    private int allocate(int size)
+    {
+        if (tableSize + size > table.length)
+        {
+            table = Arrays.copyOf(table, Math.max(table.length * 2, tableSize + size));
+        }
+        int offset = tableSize;
+        tableSize += size;
+        return offset;
+    }
+
+    /*
+     * Method: mask
+     * Purpose: returns a mask of the low n bits
+     * Parameters: int n - the number of bits, between 0 and 64
+     * Returns: long - the mask
+     * */
+    private static long mask(int n)
+    {
+        return n == 64 ? -1L : (1L << n) - 1;
+    }
+}
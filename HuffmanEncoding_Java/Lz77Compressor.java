@@ -0,0 +1,486 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: Lz77Compressor.java
+ * Date: 10/18/2026
+ * Purpose: Compresses text in two stages the way DEFLATE does. An LZ77 stage
+ *          finds repeats of earlier text within a sliding window of WINDOW_SIZE
+ *          chars, using hash chains of 3 char prefixes, and turns the text into
+ *          literal chars and (length, distance) matches. The tokens are then
+ *          Huffman coded with two canonical codes: one for literals, lengths and
+ *          the end marker, and one for distances. As in DEFLATE, lengths and
+ *          distances are sent as a code for a range followed by extra bits.
+ *
+ *          Literal symbols are the chars themselves, END is the first symbol past
+ *          the chars, and the length symbols follow it.
+ *
+ *          Output: varint text length, both code headers, varint bit length, bits.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class Lz77Compressor
+{
+    //how far back a match can start
+    public static final int WINDOW_SIZE = 1 << 15;
+
+    //the shortest and longest matches
+    public static final int MIN_MATCH = 3;
+    public static final int MAX_MATCH = 258;
+
+    //the literal/length symbol that ends the tokens, and the first length symbol
+    private static final int END = Character.MAX_VALUE + 1;
+    private static final int FIRST_LENGTH_SYMBOL = END + 1;
+
+    //the number of hash chain heads
+    private static final int HASH_BITS = 15;
+
+    //the smallest length and the extra bits of each length symbol
+    private static final int[] LENGTH_BASE = {3, 4, 5, 6, 7, 8, 9, 10, 11, 13, 15, 17, 19, 23, 27, 31,
+                                              35, 43, 51, 59, 67, 83, 99, 115, 131, 163, 195, 227, 258};
+    private static final int[] LENGTH_EXTRA = {0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 1, 1, 2, 2, 2, 2,
+                                               3, 3, 3, 3, 4, 4, 4, 4, 5, 5, 5, 5, 0};
+
+    //the smallest distance and the extra bits of each distance symbol
+    private static final int[] DISTANCE_BASE = {1, 2, 3, 4, 5, 7, 9, 13, 17, 25, 33, 49, 65, 97, 129, 193,
+                                                257, 385, 513, 769, 1025, 1537, 2049, 3073, 4097, 6145,
+                                                8193, 12289, 16385, 24577};
+    private static final int[] DISTANCE_EXTRA = {0, 0, 0, 0, 1, 1, 2, 2, 3, 3, 4, 4, 5, 5, 6, 6,
+                                                 7, 7, 8, 8, 9, 9, 10, 10, 11, 11, 12, 12, 13, 13};
+
+    //the length symbol of every match length
+    private static final int[] LENGTH_SYMBOL = new int[MAX_MATCH + 1];
+
+    static
+    {
+        for (int code = 0; code < LENGTH_BASE.length; code++)
+        {
+            int end = code + 1 < LENGTH_BASE.length ? LENGTH_BASE[code + 1] : MAX_MATCH + 1;
+            for (int length = LENGTH_BASE[code]; length < end && length <= MAX_MATCH; length++)
+            {
+                LENGTH_SYMBOL[length] = code;
+            }
+        }
+    }
+
+    /*
+     * Enum: Effort
+     * Purpose: how hard the match finder looks. More effort follows longer hash
+     *          chains and checks whether waiting one char gives a longer match,
+     *          which costs time and gains ratio.
+     */
+    public enum Effort
+    {
+        FASTEST(4, 16, false),
+        FAST(16, 64, false),
+        DEFAULT(128, 128, true),
+        BEST(4096, MAX_MATCH, true);
+
+        //the most earlier positions checked for each match
+        public final int maxChain;
+
+        //a match this long is taken without looking further
+        public final int niceLength;
+
+        //true to try a match one char later before taking one
+        public final boolean lazy;
+
+        Effort(int maxChain, int niceLength, boolean lazy)
+        {
+            this.maxChain = maxChain;
+            this.niceLength = niceLength;
+            this.lazy = lazy;
+        }
+    }
+
+    /*
+     * Method: compress
+     * Purpose: compresses text with the default effort
+     * Parameters: CharSequence text - the text to compress
+     * Returns: byte[] - the compressed text
+     * */
+    public static byte[] compress(CharSequence text)
+    {
+        return compress(text, Effort.DEFAULT);
+    }
+
+    /*
+     * Method: compress
+     * Purpose: finds matches in text and Huffman codes the tokens
+     * Parameters: CharSequence text - the text to compress
+     *             Effort effort - how hard to look for matches
+     * Returns: byte[] - the compressed text
+     * */
+    public static byte[] compress(CharSequence text, Effort effort)
+    {
+        char[] chars = new char[text.length()];
+        for (int i = 0; i < chars.length; i++)
+        {
+            chars[i] = text.charAt(i);
+        }
+        Tokens tokens = findMatches(chars, effort);
+
+        //count the symbols of both codes
+        long[] literalCounts = new long[FIRST_LENGTH_SYMBOL + LENGTH_BASE.length];
+        long[] distanceCounts = new long[DISTANCE_BASE.length];
+        for (int t = 0; t < tokens.size; t++)
+        {
+            if (tokens.length[t] == 0)
+            {
+                literalCounts[tokens.value[t]]++;
+            }
+            else
+            {
+                literalCounts[FIRST_LENGTH_SYMBOL + LENGTH_SYMBOL[tokens.length[t]]]++;
+                distanceCounts[distanceSymbol(tokens.value[t])]++;
+            }
+        }
+        literalCounts[END]++;
+        CanonicalHuffmanCode literalCode = HuffmanCoder.buildCode(literalCounts);
+        CanonicalHuffmanCode distanceCode = HuffmanCoder.buildCode(distanceCounts);
+
+        BitWriter writer = new BitWriter(chars.length / 3 + 16);
+        for (int t = 0; t < tokens.size; t++)
+        {
+            int length = tokens.length[t];
+            if (length == 0)
+            {
+                literalCode.write(writer, tokens.value[t]);
+                continue;
+            }
+            int lengthSymbol = LENGTH_SYMBOL[length];
+            literalCode.write(writer, FIRST_LENGTH_SYMBOL + lengthSymbol);
+            writer.write(length - LENGTH_BASE[lengthSymbol], LENGTH_EXTRA[lengthSymbol]);
+            int distance = tokens.value[t];
+            int distanceSymbol = distanceSymbol(distance);
+            distanceCode.write(writer, distanceSymbol);
+            writer.write(distance - DISTANCE_BASE[distanceSymbol], DISTANCE_EXTRA[distanceSymbol]);
+        }
+        literalCode.write(writer, END);
+
+        byte[] bits = writer.toByteArray();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bits.length + 256);
+        try
+        {
+            VarInt.write(out, chars.length);
+            literalCode.writeHeader(out);
+            distanceCode.writeHeader(out);
+            VarInt.write(out, writer.getBitLength());
+        }
+        catch (IOException e)
+        {
+            //ByteArrayOutputStream never throws
+            throw new IllegalStateException(e);
+        }
+        out.write(bits, 0, bits.length);
+        return out.toByteArray();
+    }
+
+    /*
+     * Method: decompress
+     * Purpose: decodes the output of compress
+     * Parameters: byte[] compressed - the compressed text
+     * Returns: String - the original text
+     * */
+    public static String decompress(byte[] compressed) throws IOException
+    {
+        ByteArrayInputStream in = new ByteArrayInputStream(compressed);
+        int length = VarInt.readInt(in);
+        CanonicalHuffmanCode literalCode = CanonicalHuffmanCode.readHeader(in);
+        CanonicalHuffmanCode distanceCode = CanonicalHuffmanCode.readHeader(in);
+        long bitLength = VarInt.read(in);
+        int offset = compressed.length - in.available();
+        if (bitLength < 0 || (bitLength + 7) / 8 > compressed.length - offset)
+        {
+            throw new IOException("Compressed data is shorter than its header says");
+        }
+        HuffmanTableDecoder literalDecoder = literalCode.newDecoder();
+        HuffmanTableDecoder distanceDecoder = distanceCode.newDecoder();
+        //every token takes at least one literal code and makes at most MAX_MATCH chars
+        if (length > bitLength / Math.max(literalDecoder.getMinLength(), 1) * MAX_MATCH)
+        {
+            throw new IOException("Compressed data is too short to hold " + length + " chars");
+        }
+        BitReader reader = new BitReader(compressed, offset, compressed.length - offset);
+        //a few bits can still claim a lot of text, so the text grows as it is decoded
+        char[] text = new char[Math.min(length, 1 << 20)];
+        int size = 0;
+        int[] symbol = new int[1];
+        try
+        {
+            while (true)
+            {
+                if (literalDecoder.decode(reader, bitLength, symbol, 0, 1) == 0)
+                {
+                    throw new IOException("Compressed data ended before the end marker");
+                }
+                int literal = symbol[0];
+                if (literal < END)
+                {
+                    if (size == length)
+                    {
+                        throw new IOException("Compressed data is longer than its header says");
+                    }
+                    text = ensureCapacity(text, size + 1, length);
+                    text[size++] = (char) literal;
+                    continue;
+                }
+                if (literal == END)
+                {
+                    break;
+                }
+                int lengthSymbol = literal - FIRST_LENGTH_SYMBOL;
+                if (lengthSymbol >= LENGTH_BASE.length)
+                {
+                    throw new IOException("Invalid length symbol " + literal);
+                }
+                int matchLength = LENGTH_BASE[lengthSymbol] + reader.read(LENGTH_EXTRA[lengthSymbol]);
+                if (distanceDecoder.decode(reader, bitLength, symbol, 0, 1) == 0 || symbol[0] >= DISTANCE_BASE.length)
+                {
+                    throw new IOException("Match has no valid distance");
+                }
+                int distance = DISTANCE_BASE[symbol[0]] + reader.read(DISTANCE_EXTRA[symbol[0]]);
+                if (distance > size || matchLength > length - size)
+                {
+                    throw new IOException("Match reaches outside the text");
+                }
+                text = ensureCapacity(text, size + matchLength, length);
+                //copy one char at a time, since a match may overlap the chars it creates
+                for (int i = 0; i < matchLength; i++)
+                {
+                    text[size] = text[size - distance];
+                    size++;
+                }
+            }
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IOException(e.getMessage(), e);
+        }
+        if (size != length || reader.getBitsRead() > bitLength)
+        {
+            throw new IOException("Compressed data does not match its header");
+        }
+        return new String(text);
+    }
+
+    /*
+     * Method: ensureCapacity
+     * Purpose: grows text, doubling it up to the length the header gives, until needed chars fit
+     * Parameters: char[] text - the text decoded so far
+     *             int needed - the chars that have to fit
+     *             int length - the length of the whole text
+     * Returns: char[] - text, or a bigger copy of it
+     * */
+    private static char[] ensureCapacity(char[] text, int needed, int length)
+    {
+        if (needed <= text.length)
+        {
+            return text;
+        }
+        return Arrays.copyOf(text, (int) Math.min(length, Math.max(needed, 2L * text.length)));
+    }
+
+    /*
+     * Class: Tokens
+     * Purpose: the output of the LZ77 stage, kept in parallel arrays. A token with
+     *          length 0 is a literal whose value is the char; otherwise it is a match
+     *          whose value is the distance back to where it starts.
+     */
+    private static class Tokens
+    {
+        int[] length;
+        int[] value;
+        int size = 0;
+
+        Tokens(int capacity)
+        {
+            length = new int[Math.max(capacity, 16)];
+            value = new int[length.length];
+        }
+
+        void add(int tokenLength, int tokenValue)
+        {
+            if (size == length.length)
+            {
+                length = Arrays.copyOf(length, size * 2);
+                value = Arrays.copyOf(value, size * 2);
+            }
+            length[size] = tokenLength;
+            value[size] = tokenValue;
+            size++;
+        }
+    }
+
+    /*
+     * Method: findMatches
+     * Purpose: turns text into literals and matches. Every position is added to the
+     *          hash chain of its first three chars, and the chain is followed back
+     *          through the window to find the longest earlier match.
+     * Parameters: char[] text - the text
+     *             Effort effort - how hard to look for matches
+     * Returns: Tokens - the literals and matches, in order
+     * */
+    private static Tokens findMatches(char[] text, Effort effort)
+    {
+        Tokens tokens = new Tokens(text.length / 4);
+        int[] head = new int[1 << HASH_BITS];
+        int[] previous = new int[WINDOW_SIZE];
+        Arrays.fill(head, -1);
+        int n = text.length;
+        int position = 0;
+        //the match found at position - 1 that is waiting to see if position does better
+        int pendingLength = 0;
+        int pendingDistance = 0;
+        while (position < n)
+        {
+            insert(text, position, head, previous);
+            long match = longestMatch(text, position, head, previous, effort,
+                                      effort.lazy ? Math.max(pendingLength, MIN_MATCH - 1) : MIN_MATCH - 1);
+            int length = (int) (match >>> 32);
+            int distance = (int) match;
+            if (pendingLength > 0)
+            {
+                if (length > pendingLength)
+                {
+                    //the later match is better, so the char before it goes out as a literal
+                    tokens.add(0, text[position - 1]);
+                    pendingLength = 0;
+                }
+                else
+                {
+                    tokens.add(pendingLength, pendingDistance);
+                    for (int i = position + 1; i < position - 1 + pendingLength; i++)
+                    {
+                        insert(text, i, head, previous);
+                    }
+                    position += pendingLength - 1;
+                    pendingLength = 0;
+                    continue;
+                }
+            }
+            if (length >= MIN_MATCH)
+            {
+                if (effort.lazy && length < effort.niceLength && position + 1 < n)
+                {
+                    pendingLength = length;
+                    pendingDistance = distance;
+                    position++;
+                    continue;
+                }
+                tokens.add(length, distance);
+                for (int i = position + 1; i < position + length; i++)
+                {
+                    insert(text, i, head, previous);
+                }
+                position += length;
+            }
+            else
+            {
+                tokens.add(0, text[position]);
+                position++;
+            }
+        }
+        if (pendingLength > 0)
+        {
+            tokens.add(pendingLength, pendingDistance);
+        }
+        return tokens;
+    }
+
+    /*
+     * Method: insert
+     * Purpose: adds a position to the hash chain of the three chars that start there
+     * Parameters: char[] text - the text
+     *             int position - the position to add
+     *             int[] head - the newest position for each hash
+     *             int[] previous - the next older position in the chain, by position in the window
+     * Returns: void
+     * */
+    private static void insert(char[] text, int position, int[] head, int[] previous)
+    {
+        if (position + MIN_MATCH > text.length)
+        {
+            return;
+        }
+        int hash = hash(text, position);
+        previous[position & (WINDOW_SIZE - 1)] = head[hash];
+        head[hash] = position;
+    }
+
+    /*
+     * Method: longestMatch
+     * Purpose: follows the hash chain of position to find the longest earlier match.
+     *          The position must already have been inserted.
+     * Parameters: char[] text - the text
+     *             int position - where the match starts
+     *             int[] head - the newest position for each hash
+     *             int[] previous - the next older position in each chain
+     *             Effort effort - how far to follow the chain
+     *             int atLeast - only matches longer than this are returned
+     * Returns: long - the length in the high 32 bits and the distance in the low 32 bits,
+     *                 or 0 if there is no long enough match
+     * */
+    private static long longestMatch(char[] text, int position, int[] head, int[] previous, Effort effort, int atLeast)
+    {
+        int limit = Math.min(MAX_MATCH, text.length - position);
+        if (limit < MIN_MATCH || atLeast >= limit)
+        {
+            return 0;
+        }
+        int bestLength = atLeast;
+        int bestDistance = 0;
+        int candidate = previous[position & (WINDOW_SIZE - 1)];
+        int chain = effort.maxChain;
+        while (candidate >= 0 && position - candidate <= WINDOW_SIZE - 1 && chain-- > 0)
+        {
+            //check the char just past the best match first, since most candidates fail there
+            if (text[candidate + bestLength] == text[position + bestLength] && text[candidate] == text[position])
+            {
+                int length = 1;
+                while (length < limit && text[candidate + length] == text[position + length])
+                {
+                    length++;
+                }
+                if (length > bestLength)
+                {
+                    bestLength = length;
+                    bestDistance = position - candidate;
+                    if (length >= effort.niceLength || length == limit)
+                    {
+                        break;
+                    }
+                }
+            }
+            candidate = previous[candidate & (WINDOW_SIZE - 1)];
+        }
+        return bestDistance == 0 ? 0 : (long) bestLength << 32 | bestDistance;
+    }
+
+    /*
+     * Method: hash
+     * Purpose: hashes the three chars starting at position
+     * Parameters: char[] text - the text
+     *             int position - the first of the three chars
+     * Returns: int - the hash, below 1 << HASH_BITS
+     * */
+    private static int hash(char[] text, int position)
+    {
+        int h = (text[position] * 31 + text[position + 1]) * 31 + text[position + 2];
+        return (h * 0x9E3779B1) >>> (32 - HASH_BITS);
+    }
+
+    /*
+     * Method: distanceSymbol
+     * Purpose: returns the distance symbol whose range holds a distance
+     * Parameters: int distance - the distance, between 1 and WINDOW_SIZE - 1
+     * Returns: int - the distance symbol
+     * */
+    private static int distanceSymbol(int distance)
+    {
+        int symbol = Arrays.binarySearch(DISTANCE_BASE, distance);
+        return symbol >= 0 ? symbol : -symbol - 2;
+    }
+}
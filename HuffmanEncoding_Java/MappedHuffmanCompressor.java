@@ -0,0 +1,347 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: MappedHuffmanCompressor.java
+ * Date: 10/18/2026
+ * Purpose: Compresses files that are larger than the heap by mapping them into
+ *          memory a window at a time with FileChannel.map. The counting pass and
+ *          the encoding pass both read straight from the mapped bytes, and the
+ *          compressed frames are written through a FileChannel. The output uses
+ *          the same format as HuffmanStream, so HuffmanStream.decompress reads it.
+ *          A HuffmanStatistics can be given to record the phases of the work.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class MappedHuffmanCompressor
+{
+    //the number of bytes of the file mapped at once
+    public static final long WINDOW_SIZE = 64L << 20;
+
+    //the number of characters handed over at a time, small enough to keep frames near FRAME_BITS
+    private static final int BLOCK_SIZE = 8192;
+
+    /*
+     * Interface: CharBlockVisitor
+     * Purpose: receives the characters of a mapped file one block at a time
+     */
+    private interface CharBlockVisitor
+    {
+        void visit(char[] block, int length) throws IOException;
+    }
+
+    /*
+     * Class: Tally
+     * Purpose: what one compress has encoded and written so far
+     */
+    private static class Tally
+    {
+        long characters;
+        long bits;
+        long written;
+    }
+
+    /*
+     * Method: countCharacters
+     * Purpose: counts the characters of a file by reading its mapped bytes
+     * Parameters: Path input - the file to count
+     *             Charset charset - the character set of the file
+     * Returns: long[] - the count for each character, indexed by the character
+     * */
+    public static long[] countCharacters(Path input, Charset charset) throws IOException
+    {
+        long[] counts = new long[CharacterHistogram.ALPHABET_SIZE];
+        if (isLatin1(charset))
+        {
+            //every byte is one character, so count the bytes themselves
+            try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ))
+            {
+                long size = channel.size();
+                for (long position = 0; position < size; position += WINDOW_SIZE)
+                {
+                    MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+                    int limit = window.limit();
+                    for (int i = 0; i < limit; i++)
+                    {
+                        counts[window.get(i) & 0xFF]++;
+                    }
+                }
+            }
+            return counts;
+        }
+        readMapped(input, charset, (block, length) -> CharacterHistogram.addCounts(counts, block, 0, length));
+        return counts;
+    }
+
+    /*
+     * Method: compress
+     * Purpose: compresses a file into another file, counting its characters and then
+     *          encoding them, both over the mapped bytes of the input
+     * Parameters: Path input - the file to compress
+     *             Path output - where the compressed stream is written
+     *             Charset charset - the character set of the input
+     * Returns: void
+     * */
+    public static void compress(Path input, Path output, Charset charset) throws IOException
+    {
+        compress(input, output, charset, new HuffmanStatistics());
+    }
+
+    /*
+     * Method: compress
+     * Purpose: compresses a file into another file, counting its characters and then
+     *          encoding them, both over the mapped bytes of the input
+     * Parameters: Path input - the file to compress
+     *             Path output - where the compressed stream is written
+     *             Charset charset - the character set of the input
+     *             HuffmanStatistics statistics - where the phases are recorded
+     * Returns: void
+     * */
+    public static void compress(Path input, Path output, Charset charset, HuffmanStatistics statistics) throws IOException
+    {
+        long start = System.nanoTime();
+        long[] counts = countCharacters(input, charset);
+        long counted = System.nanoTime();
+        CanonicalHuffmanCode code = HuffmanStream.buildCode(counts);
+        HuffmanStream.recordBuild(statistics, code, counts, start, counted);
+        compress(code, input, output, charset, statistics);
+    }
+
+    /*
+     * Method: compress
+     * Purpose: encodes a file with a code that was built ahead of time
+     * Parameters: CanonicalHuffmanCode code - the code to encode with
+     *             Path input - the file to compress
+     *             Path output - where the compressed stream is written
+     *             Charset charset - the character set of the input
+     * Returns: void
+     * */
+    public static void compress(CanonicalHuffmanCode code, Path input, Path output, Charset charset) throws IOException
+    {
+        compress(code, input, output, charset, new HuffmanStatistics(code));
+    }
+
+    /*
+     * Method: compress
+     * Purpose: encodes a file with a code that was built ahead of time
+     * Parameters: CanonicalHuffmanCode code - the code to encode with
+     *             Path input - the file to compress
+     *             Path output - where the compressed stream is written
+     *             Charset charset - the character set of the input
+     *             HuffmanStatistics statistics - where the encoding and writing are recorded
+     * Returns: void
+     * */
+    public static void compress(CanonicalHuffmanCode code, Path input, Path output, Charset charset,
+                                HuffmanStatistics statistics) throws IOException
+    {
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                               StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            Tally tally = new Tally();
+            long headerStart = System.nanoTime();
+            byte[] header = code.toHeader();
+            writeFully(out, ByteBuffer.wrap(header));
+            tally.written = header.length;
+            statistics.recordPhase(HuffmanStatistics.Phase.WRITE, System.nanoTime() - headerStart, header.length);
+            BitWriter writer = new BitWriter(DirectBufferPool.SHARED, HuffmanStream.FRAME_BITS / 8 + 16);
+            ByteBuffer frameLength = ByteBuffer.allocateDirect(10);
+            if (isLatin1(charset))
+            {
+                try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ))
+                {
+                    long size = channel.size();
+                    for (long position = 0; position < size; position += WINDOW_SIZE)
+                    {
+                        MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+                        int limit = window.limit();
+                        for (int start = 0; start < limit; start += BLOCK_SIZE)
+                        {
+                            int end = Math.min(start + BLOCK_SIZE, limit);
+                            long encodeStart = System.nanoTime();
+                            for (int i = start; i < end; i++)
+                            {
+                                encode(code, writer, (char) (window.get(i) & 0xFF));
+                            }
+                            statistics.recordPhase(HuffmanStatistics.Phase.ENCODE, System.nanoTime() - encodeStart, end - start);
+                            tally.characters += end - start;
+                            writeFrameIfFull(writer, frameLength, out, statistics, tally);
+                        }
+                    }
+                }
+            }
+            else
+            {
+                readMapped(input, charset, (block, length) -> {
+                    long encodeStart = System.nanoTime();
+                    for (int i = 0; i < length; i++)
+                    {
+                        encode(code, writer, block[i]);
+                    }
+                    statistics.recordPhase(HuffmanStatistics.Phase.ENCODE, System.nanoTime() - encodeStart, length);
+                    tally.characters += length;
+                    writeFrameIfFull(writer, frameLength, out, statistics, tally);
+                });
+            }
+            if (writer.getBitLength() > 0)
+            {
+                writeFrame(writer, frameLength, out, statistics, tally);
+            }
+            frameLength.clear();
+            VarInt.write(frameLength, 0);
+            frameLength.flip();
+            writeFully(out, frameLength);
+            tally.written++;
+            statistics.recordEncoding(tally.characters, tally.characters, tally.bits);
+            statistics.recordHeader(tally.written - (tally.bits + 7) / 8);
+        }
+    }
+
+    /*
+     * Method: readMapped
+     * Purpose: maps a file a window at a time and decodes its bytes into blocks of
+     *          characters. A character split across two windows is finished by
+     *          starting the next window at its first byte.
+     * Parameters: Path input - the file to read
+     *             Charset charset - the character set of the file
+     *             CharBlockVisitor visitor - receives each block of characters
+     * Returns: void
+     * */
+    private static void readMapped(Path input, Charset charset, CharBlockVisitor visitor) throws IOException
+    {
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer chars = CharBuffer.allocate(BLOCK_SIZE);
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            long position = 0;
+            while (position < size)
+            {
+                long windowSize = Math.min(WINDOW_SIZE, size - position);
+                boolean last = position + windowSize == size;
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+                CoderResult result;
+                do
+                {
+                    result = decoder.decode(window, chars, last);
+                    chars.flip();
+                    visitor.visit(chars.array(), chars.limit());
+                    chars.clear();
+                }
+                while (result.isOverflow());
+                position += window.position();
+            }
+            while (decoder.flush(chars).isOverflow())
+            {
+                chars.flip();
+                visitor.visit(chars.array(), chars.limit());
+                chars.clear();
+            }
+            chars.flip();
+            visitor.visit(chars.array(), chars.limit());
+        }
+    }
+
+    /*
+     * Method: encode
+     * Purpose: writes the code for one character
+     * Parameters: CanonicalHuffmanCode code - the code to encode with
+     *             BitWriter writer - where the code is written
+     *             char c - the character to encode
+     * Returns: void
+     * */
+    private static void encode(CanonicalHuffmanCode code, BitWriter writer, char c) throws IOException
+    {
+        int length = code.getCodeLength(c);
+        if (length == 0)
+        {
+            throw new IOException("Character '" + c + "' is not in the code");
+        }
+        writer.write(code.getCode(c), length);
+    }
+
+    /*
+     * Method: writeFrameIfFull
+     * Purpose: writes the bits in writer as a frame once there are at least FRAME_BITS of them
+     * Parameters: BitWriter writer - the bits of the frame
+     *             ByteBuffer frameLength - scratch space for the frame length
+     *             FileChannel out - where the frame is written
+     *             HuffmanStatistics statistics - where the write is recorded
+     *             Tally tally - counts the bits and bytes written
+     * Returns: void
+     * */
+    private static void writeFrameIfFull(BitWriter writer, ByteBuffer frameLength, FileChannel out,
+                                         HuffmanStatistics statistics, Tally tally) throws IOException
+    {
+        if (writer.getBitLength() >= HuffmanStream.FRAME_BITS)
+        {
+            writeFrame(writer, frameLength, out, statistics, tally);
+        }
+    }
+
+    /*
+     * Method: writeFrame
+     * Purpose: writes the bits in writer as one frame and empties it. The writer packs
+     *          into a pooled direct buffer, which is written together with the frame
+     *          length in one gathering write.
+     * Parameters: BitWriter writer - the bits of the frame
+     *             ByteBuffer frameLength - scratch space for the frame length
+     *             FileChannel out - where the frame is written
+     *             HuffmanStatistics statistics - where the write is recorded
+     *             Tally tally - counts the bits and bytes written
+     * Returns: void
+     * */
+    private static void writeFrame(BitWriter writer, ByteBuffer frameLength, FileChannel out,
+                                   HuffmanStatistics statistics, Tally tally) throws IOException
+    {
+        long start = System.nanoTime();
+        long bitLength = writer.getBitLength();
+        frameLength.clear();
+        VarInt.write(frameLength, bitLength);
+        frameLength.flip();
+        ByteBuffer frame = writer.takeBuffer();
+        int bytes = frameLength.remaining() + frame.remaining();
+        writeFully(out, frameLength, frame);
+        DirectBufferPool.SHARED.release(frame);
+        tally.bits += bitLength;
+        tally.written += bytes;
+        statistics.recordPhase(HuffmanStatistics.Phase.WRITE, System.nanoTime() - start, bytes);
+    }
+
+    /*
+     * Method: writeFully
+     * Purpose: writes every remaining byte of the buffers to out, in order
+     * Parameters: FileChannel out - where the bytes are written
+     *             ByteBuffer... buffers - the bytes to write
+     * Returns: void
+     * */
+    private static void writeFully(FileChannel out, ByteBuffer... buffers) throws IOException
+    {
+        while (buffers[buffers.length - 1].hasRemaining())
+        {
+            out.write(buffers);
+        }
+    }
+
+    /*
+     * Method: isLatin1
+     * Purpose: returns true if every byte of the character set is exactly one character
+     * Parameters: Charset charset - the character set
+     * Returns: boolean - true for ISO-8859-1
+     * */
+    private static boolean isLatin1(Charset charset)
+    {
+        return charset.equals(StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: PackageMerge.java
+ * Date: 10/18/2026
+ * Purpose: Builds Huffman code lengths that are no longer than a chosen bound
+ *          using the package-merge algorithm. BuildTree gives the best code with
+ *          no limit on its length, so a skewed distribution can give codes that
+ *          are dozens of bits long. With a bound such as 15 every code fits in a
+ *          machine word and in a single level decode table, for a very small
+ *          cost in compression.
+ *
+ *          The symbols are sorted by weight and each level of the tree is a list
+ *          made by merging the leaves with pairs ("packages") of the level below.
+ *          The first 2n-2 items of the top list are the cheapest set of nodes, and
+ *          each time a leaf is among them its code gets one bit longer.
+ */
+
+import java.util.Arrays;
+
+public class PackageMerge
+{
+    /*
+     * Method: codeLengths
+     * Purpose: finds the code length of each symbol so that no length is above maxLength
+     *          and the weighted total length is as small as it can be under that limit
+     * Parameters: long[] weights - the weight of each symbol, at least 1 for the best codes
+     *             int count - the number of symbols
+     *             int maxLength - the longest code allowed
+     * Returns: int[] - the code length of each symbol, in the same order as weights
+     * */
+    public static int[] codeLengths(long[] weights, int count, int maxLength)
+    {
+        if (maxLength < 1 || maxLength > CanonicalHuffmanCode.MAX_CODE_LENGTH)
+        {
+            throw new IllegalArgumentException("Code length limit " + maxLength + " is out of range");
+        }
+        if (maxLength < 63 && count > 1L << maxLength)
+        {
+            throw new IllegalArgumentException(count + " symbols do not fit in codes of " + maxLength + " bits");
+        }
+        int[] lengths = new int[count];
+        if (count == 0)
+        {
+            return lengths;
+        }
+        if (count == 1)
+        {
+            lengths[0] = 1;
+            return lengths;
+        }
+
+        //sort the symbol positions by weight, lightest first
+        Integer[] boxed = new Integer[count];
+        for (int i = 0; i < count; i++)
+        {
+            boxed[i] = i;
+        }
+        Arrays.sort(boxed, (x, y) -> Long.compare(weights[x], weights[y]));
+        long[] leaves = new long[count];
+        for (int i = 0; i < count; i++)
+        {
+            leaves[i] = weights[boxed[i]];
+        }
+
+        //no level ever needs more than 2n-2 items, since only that many are selected at the top
+        int limit = 2 * count - 2;
+        boolean[][] isLeaf = new boolean[maxLength][];
+        int[] sizes = new int[maxLength];
+        long[] previous = Arrays.copyOf(leaves, count);
+        int previousSize = count;
+        isLeaf[0] = new boolean[count];
+        Arrays.fill(isLeaf[0], true);
+        sizes[0] = count;
+        long[] current = new long[limit];
+        for (int level = 1; level < maxLength; level++)
+        {
+            int packages = previousSize / 2;
+            int size = Math.min(count + packages, limit);
+            boolean[] leafFlags = new boolean[size];
+            int leaf = 0;
+            int pack = 0;
+            for (int i = 0; i < size; i++)
+            {
+                //ties go to the leaf, which keeps the codes as short as possible
+                if (pack >= packages || (leaf < count && leaves[leaf] <= previous[2 * pack] + previous[2 * pack + 1]))
+                {
+                    current[i] = leaves[leaf++];
+                    leafFlags[i] = true;
+                }
+                else
+                {
+                    current[i] = previous[2 * pack] + previous[2 * pack + 1];
+                    pack++;
+                }
+            }
+            isLeaf[level] = leafFlags;
+            sizes[level] = size;
+            long[] swap = previous;
+            previous = current;
+            current = swap.length >= limit ? swap : new long[limit];
+            previousSize = size;
+        }
+
+        //walk back down from the top level; the selected items of a level are always its first ones
+        int selected = limit;
+        for (int level = maxLength - 1; level >= 0 && selected > 0; level--)
+        {
+            int leavesSelected = 0;
+            for (int i = 0; i < selected; i++)
+            {
+                if (isLeaf[level][i])
+                {
+                    leavesSelected++;
+                }
+            }
+            for (int i = 0; i < leavesSelected; i++)
+            {
+                lengths[boxed[i]]++;
+            }
+            selected = 2 * (selected - leavesSelected);
+        }
+        return lengths;
+    }
+}
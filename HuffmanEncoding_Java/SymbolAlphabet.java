@@ -0,0 +1,24 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: SymbolAlphabet.java
+ * Date: 10/18/2026
+ * Purpose: The kinds of symbols a HuffmanCoder can encode
+ */
+
+public enum SymbolAlphabet
+{
+    //raw bytes, 256 symbols, for binary files
+    BYTE(0xFF),
+    //UTF-16 chars, the symbols HuffmanEncodingTree has always used
+    CHAR(Character.MAX_VALUE),
+    //Unicode code points, so supplementary characters are not split into surrogate halves
+    CODE_POINT(Character.MAX_CODE_POINT);
+
+    //the largest symbol in the alphabet
+    public final int maxSymbol;
+
+    SymbolAlphabet(int maxSymbol)
+    {
+        this.maxSymbol = maxSymbol;
+    }
+}
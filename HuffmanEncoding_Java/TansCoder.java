@@ -0,0 +1,400 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: TansCoder.java
+ * Date: 10/18/2026
+ * Purpose: An EntropyCoder using table based asymmetric numeral systems (tANS).
+ *          The counts are scaled to a table of 2^tableLog slots, each symbol
+ *          getting as many slots as its share of the text, and the coder moves
+ *          between table states instead of walking a tree. A symbol can cost a
+ *          fraction of a bit, so skewed text comes closer to its entropy than
+ *          with Huffman codes, and decoding is one table lookup and one bit read
+ *          per symbol.
+ *
+ *          tANS decodes in the opposite order to encoding, so the text is encoded
+ *          from its last char to its first and the bits of each step are written
+ *          in reverse. The decoder then reads the starting state followed by the
+ *          bits of each symbol in text order.
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+public class TansCoder implements EntropyCoder
+{
+    //the smallest and largest table sizes, as powers of two
+    public static final int MIN_TABLE_LOG = 5;
+    public static final int MAX_TABLE_LOG = 15;
+
+    //the table size used unless the symbols need a bigger one
+    private static final int DEFAULT_TABLE_LOG = 11;
+
+    //the size of the table is 1 << tableLog
+    private final int tableLog;
+
+    //the symbols, in increasing order, and the number of table slots each one has
+    private final int[] symbols;
+    private final int[] slots;
+
+    //for each decoding state: the symbol, the bits to read, and the state those bits are added to
+    private final char[] decodeSymbol;
+    private final byte[] decodeBits;
+    private final int[] decodeBase;
+
+    //the fewest bits any decoding step reads, 0 when a symbol has more than half the slots
+    private final int minDecodeBits;
+
+    //the position of each char in symbols, where its states start in encodeState, and the
+    //encoding states of every symbol grouped by symbol
+    private final int[] indexOf;
+    private final int[] encodeStart;
+    private final int[] encodeState;
+
+    /*
+     * Constructor
+     * Purpose: creates a coder from symbols and their table slot counts
+     * Parameters: int tableLog - the table has 1 << tableLog slots
+     *             int[] symbols - the symbols, in increasing order
+     *             int[] slots - the slots of each symbol, at least 1 each and adding up to the table size
+     * */
+    public TansCoder(int tableLog, int[] symbols, int[] slots)
+    {
+        if (tableLog < MIN_TABLE_LOG || tableLog > MAX_TABLE_LOG)
+        {
+            throw new IllegalArgumentException("Table log " + tableLog + " is out of range");
+        }
+        if (symbols.length == 0 || symbols.length != slots.length)
+        {
+            throw new IllegalArgumentException("Need one slot count for each of at least one symbol");
+        }
+        int size = 1 << tableLog;
+        long total = 0;
+        for (int i = 0; i < symbols.length; i++)
+        {
+            if (symbols[i] < 0 || symbols[i] > Character.MAX_VALUE || (i > 0 && symbols[i] <= symbols[i - 1]))
+            {
+                throw new IllegalArgumentException("Symbols must be increasing chars");
+            }
+            if (slots[i] < 1)
+            {
+                throw new IllegalArgumentException("Symbol " + symbols[i] + " has no slots");
+            }
+            total += slots[i];
+        }
+        if (total != size)
+        {
+            throw new IllegalArgumentException("Slots add up to " + total + " instead of " + size);
+        }
+        this.tableLog = tableLog;
+        this.symbols = symbols.clone();
+        this.slots = slots.clone();
+
+        //spread each symbol's slots across the table with an odd step, which visits every slot once
+        int[] spread = new int[size];
+        int step = (size >>> 1) + (size >>> 3) + 3;
+        int position = 0;
+        for (int i = 0; i < symbols.length; i++)
+        {
+            for (int j = 0; j < slots[i]; j++)
+            {
+                spread[position] = i;
+                position = (position + step) & (size - 1);
+            }
+        }
+
+        indexOf = new int[symbols[symbols.length - 1] + 1];
+        Arrays.fill(indexOf, -1);
+        encodeStart = new int[symbols.length];
+        int start = 0;
+        for (int i = 0; i < symbols.length; i++)
+        {
+            indexOf[symbols[i]] = i;
+            encodeStart[i] = start;
+            start += slots[i];
+        }
+
+        //the k-th slot of a symbol, counting up the table, goes with sub state slots + k
+        decodeSymbol = new char[size];
+        decodeBits = new byte[size];
+        decodeBase = new int[size];
+        encodeState = new int[size];
+        int[] next = slots.clone();
+        int minBits = tableLog;
+        for (int state = 0; state < size; state++)
+        {
+            int i = spread[state];
+            int subState = next[i]++;
+            int bits = tableLog - floorLog2(subState);
+            minBits = Math.min(minBits, bits);
+            decodeSymbol[state] = (char) symbols[i];
+            decodeBits[state] = (byte) bits;
+            decodeBase[state] = (subState << bits) - size;
+            encodeState[encodeStart[i] + subState - slots[i]] = state + size;
+        }
+        minDecodeBits = minBits;
+    }
+
+    /*
+     * Method: build
+     * Purpose: builds a coder from counts indexed by char, picking a table size that
+     *          gives every symbol at least one slot and is not much bigger than the text
+     * Parameters: long[] counts - the count of each char
+     * Returns: TansCoder - the coder
+     * */
+    public static TansCoder build(long[] counts)
+    {
+        int distinct = 0;
+        long total = 0;
+        for (long c : counts)
+        {
+            if (c > 0)
+            {
+                distinct++;
+                total += c;
+            }
+        }
+        if (distinct == 0)
+        {
+            throw new IllegalArgumentException("Cannot build a coder with no symbols");
+        }
+        //short texts get a table no bigger than themselves, which keeps the header small
+        int tableLog = Math.min(DEFAULT_TABLE_LOG, floorLog2((int) Math.min(total, Integer.MAX_VALUE)) + 1);
+        tableLog = Math.max(Math.max(tableLog, MIN_TABLE_LOG), floorLog2(distinct - 1) + 2);
+        if (tableLog > MAX_TABLE_LOG)
+        {
+            throw new IllegalArgumentException(distinct + " symbols do not fit in a table of " + (1 << MAX_TABLE_LOG) + " slots");
+        }
+        int[] symbols = new int[distinct];
+        long[] compact = new long[distinct];
+        int n = 0;
+        for (int s = 0; s < counts.length; s++)
+        {
+            if (counts[s] > 0)
+            {
+                symbols[n] = s;
+                compact[n++] = counts[s];
+            }
+        }
+        return new TansCoder(tableLog, symbols, normalize(compact, total, 1 << tableLog));
+    }
+
+    /*
+     * Method: normalize
+     * Purpose: scales counts so they add up to size, keeping every count at least 1.
+     *          The rounding error is taken from or given to the most common symbols,
+     *          where one slot more or less changes the cost the least.
+     * Parameters: long[] counts - the counts, all above 0
+     *             long total - the sum of the counts
+     *             int size - the table size, at least the number of counts
+     * Returns: int[] - the slot count of each symbol
+     * */
+    private static int[] normalize(long[] counts, long total, int size)
+    {
+        int n = counts.length;
+        int[] slots = new int[n];
+        long sum = 0;
+        for (int i = 0; i < n; i++)
+        {
+            slots[i] = (int) Math.max(1, Math.round((double) counts[i] * size / total));
+            sum += slots[i];
+        }
+        //most common first
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++)
+        {
+            keys[i] = (long) slots[i] << 32 | i;
+        }
+        Arrays.sort(keys);
+        int i = n - 1;
+        while (sum > size)
+        {
+            int s = (int) keys[i];
+            if (slots[s] > 1)
+            {
+                slots[s]--;
+                sum--;
+            }
+            i = i == 0 ? n - 1 : i - 1;
+        }
+        while (sum < size)
+        {
+            slots[(int) keys[i]]++;
+            sum++;
+            i = i == 0 ? n - 1 : i - 1;
+        }
+        return slots;
+    }
+
+    /*
+     * Method: getType
+     * Purpose: returns which kind of coder this is
+     * Parameters: none
+     * Returns: EntropyCoderType - TANS
+     * */
+    @Override
+    public EntropyCoderType getType()
+    {
+        return EntropyCoderType.TANS;
+    }
+
+    /*
+     * Method: getTableLog
+     * Purpose: returns the size of the table as a power of two
+     * Parameters: none
+     * Returns: int - the table has 1 << getTableLog() slots
+     * */
+    public int getTableLog()
+    {
+        return tableLog;
+    }
+
+    /*
+     * Method: encode
+     * Purpose: encodes text, last char first, and writes the bits in decoding order
+     * Parameters: CharSequence text - the text, using only symbols the coder was built for
+     * Returns: EncodedBits - the starting state followed by the bits of each symbol
+     * */
+    @Override
+    public EncodedBits encode(CharSequence text)
+    {
+        int size = 1 << tableLog;
+        //each step's bits and bit count, packed as bits << 5 | count
+        int[] steps = new int[text.length()];
+        int state = size;
+        for (int i = text.length() - 1; i >= 0; i--)
+        {
+            char c = text.charAt(i);
+            int index = c < indexOf.length ? indexOf[c] : -1;
+            if (index < 0)
+            {
+                throw new IllegalArgumentException("Character '" + c + "' is not in the code");
+            }
+            int slotCount = slots[index];
+            //shift the state down into [slotCount, 2 * slotCount)
+            int bits = tableLog - floorLog2(slotCount);
+            if ((state >>> bits) < slotCount)
+            {
+                bits--;
+            }
+            steps[i] = (state & ((1 << bits) - 1)) << 5 | bits;
+            state = encodeState[encodeStart[index] + (state >>> bits) - slotCount];
+        }
+        BitWriter writer = new BitWriter(text.length() / 2 + 16);
+        writer.write(state - size, tableLog);
+        for (int step : steps)
+        {
+            writer.write(step >>> 5, step & 31);
+        }
+        return writer.toEncodedBits();
+    }
+
+    /*
+     * Method: decode
+     * Purpose: decodes text written by encode. The length comes from the compressed data,
+     *          so it is checked against what the bits can hold, and when every step
+     *          reads at least one bit that check is exact enough to size the text up
+     *          front; otherwise the text grows as it is decoded and decoding stops as
+     *          soon as it runs past the end of the bits.
+     * Parameters: EncodedBits encoded - the packed bits
+     *             int length - the number of chars that were encoded
+     * Returns: String - the decoded text
+     * */
+    @Override
+    public String decode(EncodedBits encoded, int length)
+    {
+        if (length < 0 || (minDecodeBits > 0 && length > Math.max(0, encoded.bitLength - tableLog) / minDecodeBits))
+        {
+            throw new IllegalArgumentException("Encoded data is too short to hold " + length + " chars");
+        }
+        BitReader reader = new BitReader(encoded.data);
+        char[] text = new char[minDecodeBits > 0 ? length : Math.min(length, 1 << 20)];
+        int state = reader.read(tableLog);
+        for (int i = 0; i < length; i++)
+        {
+            if (i == text.length)
+            {
+                if (reader.getBitsRead() > encoded.bitLength)
+                {
+                    throw new IllegalArgumentException("Encoded data ended before " + length + " chars were decoded");
+                }
+                text = Arrays.copyOf(text, (int) Math.min(length, 2L * text.length));
+            }
+            text[i] = decodeSymbol[state];
+            state = decodeBase[state] + reader.read(decodeBits[state]);
+        }
+        if (reader.getBitsRead() > encoded.bitLength)
+        {
+            throw new IllegalArgumentException("Encoded data ended before " + length + " chars were decoded");
+        }
+        return new String(text);
+    }
+
+    /*
+     * Method: writeHeader
+     * Purpose: writes the table size and the slot count of each symbol
+     * Parameters: OutputStream out - where the header is written
+     * Returns: void
+     * */
+    @Override
+    public void writeHeader(OutputStream out) throws IOException
+    {
+        out.write(tableLog);
+        VarInt.write(out, symbols.length);
+        int previous = -1;
+        for (int i = 0; i < symbols.length; i++)
+        {
+            VarInt.write(out, symbols[i] - previous - 1);
+            VarInt.write(out, slots[i] - 1);
+            previous = symbols[i];
+        }
+    }
+
+    /*
+     * Method: readHeader
+     * Purpose: rebuilds a coder from a header written by writeHeader
+     * Parameters: InputStream in - where the header is read from
+     * Returns: TansCoder - the coder described by the header
+     * */
+    public static TansCoder readHeader(InputStream in) throws IOException
+    {
+        int tableLog = in.read();
+        int count = VarInt.readInt(in);
+        if (tableLog < MIN_TABLE_LOG || tableLog > MAX_TABLE_LOG || count < 1 || count > 1 << tableLog)
+        {
+            throw new IOException("Invalid tANS header");
+        }
+        int[] symbols = new int[count];
+        int[] slots = new int[count];
+        long previous = -1;
+        for (int i = 0; i < count; i++)
+        {
+            previous += VarInt.read(in) + 1;
+            if (previous > Character.MAX_VALUE)
+            {
+                throw new IOException("Invalid tANS header");
+            }
+            symbols[i] = (int) previous;
+            slots[i] = VarInt.readInt(in) + 1;
+        }
+        try
+        {
+            return new TansCoder(tableLog, symbols, slots);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /*
+     * Method: floorLog2
+     * Purpose: returns the position of the highest set bit
+     * Parameters: int value - a value above 0
+     * Returns: int - floor(log2(value))
+     * */
+    private static int floorLog2(int value)
+    {
+        return 31 - Integer.numberOfLeadingZeros(value);
+    }
+}
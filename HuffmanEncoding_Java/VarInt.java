@@ -0,0 +1,102 @@
+/*
+ * Author: Ben Brewer, Kareem Khalidi, and Joey Mauriello
+ * File: VarInt.java
+ * Date: 10/18/2026
+ * Purpose: Reads and writes unsigned variable length integers, 7 bits per byte
+ *          with the high bit set on every byte except the last
+ */
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+public class VarInt
+{
+    /*
+     * Method: write
+     * Purpose: writes value to out using as few bytes as possible
+     * Parameters: OutputStream out - where the bytes are written
+     *             long value - the value to write, treated as unsigned
+     * Returns: void
+     * */
+    public static void write(OutputStream out, long value) throws IOException
+    {
+        while ((value & ~0x7FL) != 0)
+        {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /*
+     * Method: write
+     * Purpose: writes value into buffer using as few bytes as possible
+     * Parameters: ByteBuffer buffer - where the bytes are put, needs up to 10 bytes of room
+     *             long value - the value to write, treated as unsigned
+     * Returns: void
+     * */
+    public static void write(ByteBuffer buffer, long value)
+    {
+        while ((value & ~0x7FL) != 0)
+        {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /*
+     * Method: size
+     * Purpose: returns the number of bytes write uses for value
+     * Parameters: long value - the value, treated as unsigned
+     * Returns: int - the number of bytes, from 1 to 10
+     * */
+    public static int size(long value)
+    {
+        return Math.max(1, (64 - Long.numberOfLeadingZeros(value) + 6) / 7);
+    }
+
+    /*
+     * Method: read
+     * Purpose: reads a value written by write
+     * Parameters: InputStream in - where the bytes are read from
+     * Returns: long - the value that was read
+     * */
+    public static long read(InputStream in) throws IOException
+    {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7)
+        {
+            int b = in.read();
+            if (b < 0)
+            {
+                throw new EOFException("Stream ended in the middle of a number");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+            {
+                return value;
+            }
+        }
+        throw new IOException("Number is longer than 64 bits");
+    }
+
+    /*
+     * Method: readInt
+     * Purpose: reads a value written by write that has to fit in a non negative int
+     * Parameters: InputStream in - where the bytes are read from
+     * Returns: int - the value that was read
+     * */
+    public static int readInt(InputStream in) throws IOException
+    {
+        long value = read(in);
+        if (value < 0 || value > Integer.MAX_VALUE)
+        {
+            throw new IOException("Number " + Long.toUnsignedString(value) + " does not fit in an int");
+        }
+        return (int) value;
+    }
+}
@@ -1,7 +1,13 @@
 //Purpose: tests the simulated ALU
 
+import java.math.BigInteger;
+import java.util.Random;
+
 public class ALUTest {
 
+    //the aluOps the random operations pick from
+    private static final int[] OPS = {0, 1, 2, 3, 4};
+
     public static void main(String args[]){
 
         //create a new ALU with 8 bits
@@ -35,6 +41,241 @@ public class ALUTest {
         String result = aluResultToBinary(alu.result);
         System.out.println("Result: 00001011(11) + 00100101(37) = " + result + "(" + binaryToDecimal(result) + ")");
 
+        //run 64 random operations on the ALU one at a time, then all at once on the bit-sliced ALU
+        SlicedALU sliced = new SlicedALU(8);
+        Random random = new Random(252);
+        long[] expected = new long[SlicedALU.LANES];
+        for(int lane = 0; lane < SlicedALU.LANES; lane++) {
+
+            randomOperation(alu, random);
+            alu.execute();
+            expected[lane] = binaryToDecimal(aluResultToBinary(alu.result));
+            sliced.loadLane(lane, alu);
+
+        }
+        sliced.execute();
+        boolean matches = true;
+        for(int lane = 0; lane < SlicedALU.LANES; lane++) {
+
+            matches &= sliced.getResult(lane) == expected[lane];
+
+        }
+        sliced.storeLane(0, alu);
+        matches &= binaryToDecimal(aluResultToBinary(alu.result)) == expected[0];
+        System.out.println("Bit-sliced ALU matches ALU on " + SlicedALU.LANES + " random operations: " + matches);
+
+        //bits past the 64 a long holds come in as 0 rather than as the low bits again
+        SlicedALU wideSliced = new SlicedALU(72);
+        wideSliced.setLane(0, 0, false, -1L, -1L);
+        boolean wideLane = true;
+        for(int i = 0; i < 72; i++) {
+
+            wideLane &= wideSliced.a[i].getLane(0) == i < 64 && wideSliced.b[i].getLane(0) == i < 64;
+
+        }
+        System.out.println("Bit-sliced ALU sets only the low 64 bits of a 72 bit lane: " + wideLane);
+
+        //run the same kind of operations through the ALU built as a netlist
+        NetlistALU netlistALU = new NetlistALU(8);
+        boolean netlistMatches = matchesALU(netlistALU, alu, random, 64);
+        System.out.println("Netlist ALU matches ALU on 64 random operations: " + netlistMatches);
+
+        //flipping one input only evaluates the gates it reaches
+        netlistALU.aluOp[0].set(false);
+        netlistALU.aluOp[1].set(false);
+        netlistALU.aluOp[2].set(false);
+        netlistALU.execute();
+        netlistALU.a[7].set(!netlistALU.a[7].get());
+        int evaluated = netlistALU.execute();
+        System.out.println("Netlist ALU gates evaluated after flipping a[7] in an AND: " + evaluated + " of "
+                + netlistALU.getNetlist().getGateCount());
+
+        //the compiled netlist runs the 64 operations of the bit-sliced ALU at once
+        CompiledCircuit compiled = netlistALU.compile();
+        for(int i = 0; i < 3; i++) {
+
+            compiled.set(netlistALU.aluOp[i], sliced.aluOp[i].get());
+
+        }
+        compiled.set(netlistALU.bNegate, sliced.bNegate.get());
+        for(int i = 0; i < 8; i++) {
+
+            compiled.set(netlistALU.a[i], sliced.a[i].get());
+            compiled.set(netlistALU.b[i], sliced.b[i].get());
+
+        }
+        compiled.evaluate();
+        boolean compiledMatches = true;
+        for(int i = 0; i < 8; i++) {
+
+            compiledMatches &= compiled.get(netlistALU.result[i]) == sliced.result[i].get();
+
+        }
+
+        //and executed through the Wires it gives the same result as propagate
+        String propagated = aluResultToBinary(netlistALU.result);
+        compiled.execute();
+        compiledMatches &= aluResultToBinary(netlistALU.result).equals(propagated);
+        System.out.println("Compiled netlist ALU matches ALU on " + SlicedALU.LANES + " random operations: " + compiledMatches);
+
+        //the packed ALU loads its operands from the ALU and stores its result back
+        PackedALU packed = new PackedALU(8);
+        boolean packedMatches = true;
+        for(int run = 0; run < 64; run++) {
+
+            randomOperation(alu, random);
+            alu.execute();
+            String expectedResult = aluResultToBinary(alu.result);
+            packed.load(alu);
+            packed.execute();
+            packed.store(alu);
+            packedMatches &= aluResultToBinary(alu.result).equals(expectedResult);
+
+        }
+        System.out.println("Packed ALU matches ALU on 64 random operations: " + packedMatches);
+
+        //and subtracts 4096 bit numbers
+        PackedALU wide = new PackedALU(4096);
+        BigInteger aWide = new BigInteger(4096, random);
+        BigInteger bWide = new BigInteger(4096, random);
+        for(int i = 0; i < 4096; i++) {
+
+            wide.setA(i, aWide.testBit(i));
+            wide.setB(i, bWide.testBit(i));
+
+        }
+        wide.setAluOp(2);
+        wide.setBNegate(true);
+        wide.execute();
+        BigInteger difference = aWide.subtract(bWide).mod(BigInteger.ONE.shiftLeft(4096));
+        boolean wideMatches = true;
+        for(int i = 0; i < 4096; i++) {
+
+            wideMatches &= wide.getResult(i) == difference.testBit(i);
+
+        }
+        System.out.println("Packed ALU subtracts 4096 bit numbers: " + wideMatches);
+
+        //every adder gives the same results, at a different cost in gates and depth
+        for(AdderType adder : AdderType.values()) {
+
+            boolean variantMatches = matchesALU(new NetlistALU(8, adder), alu, random, 64);
+            System.out.println(adder + " adder matches ALU on 64 random operations: " + variantMatches);
+
+        }
+
+        //and PackedALU at wider sizes, including one that is not a whole number of words
+        for(int bits : new int[] {32, 64, 100, 128}) {
+
+            for(AdderType adder : AdderType.values()) {
+
+                boolean variantMatches = matchesPackedALU(new NetlistALU(bits, adder), random, 64);
+                System.out.println(bits + " bit " + adder + " adder matches PackedALU on 64 random operations: " + variantMatches);
+
+            }
+
+        }
+        for(int bits : new int[] {32, 64, 128}) {
+
+            for(AdderType adder : AdderType.values()) {
+
+                NetlistALU variant = new NetlistALU(bits, adder);
+                System.out.println(bits + " bit ALU with " + adder + " adder: " + variant.getGateCount() + " gates, depth "
+                        + variant.getDepth());
+
+            }
+
+        }
+
+    }
+
+    //set the ALU to a random operation on random inputs
+    private static void randomOperation(ALU alu, Random random) {
+
+        int op = OPS[random.nextInt(OPS.length)];
+        for(int i = 0; i < alu.aluOp.length; i++) {
+
+            alu.aluOp[i].set(i < 3 && (op >>> i & 1) != 0);
+
+        }
+        for(int i = 0; i < alu.a.length; i++) {
+
+            alu.a[i].set(random.nextBoolean());
+            alu.b[i].set(random.nextBoolean());
+
+        }
+        alu.bNegate.set(random.nextBoolean());
+
+    }
+
+    //run random operations on the ALU and on a netlist ALU of the same size with the same inputs
+    private static boolean matchesALU(NetlistALU netlistALU, ALU alu, Random random, int runs) {
+
+        boolean matches = true;
+        for(int run = 0; run < runs; run++) {
+
+            randomOperation(alu, random);
+            for(int i = 0; i < 3; i++) {
+
+                netlistALU.aluOp[i].set(alu.aluOp[i].get());
+
+            }
+            for(int i = 0; i < alu.a.length; i++) {
+
+                netlistALU.a[i].set(alu.a[i].get());
+                netlistALU.b[i].set(alu.b[i].get());
+
+            }
+            netlistALU.bNegate.set(alu.bNegate.get());
+            alu.execute();
+            netlistALU.execute();
+            matches &= aluResultToBinary(alu.result).equals(aluResultToBinary(netlistALU.result));
+
+        }
+        return matches;
+
+    }
+
+    //run random operations on a netlist ALU and on a PackedALU of the same size; every
+    //fourth run b is the complement of a, so the carry has to go through every bit
+    private static boolean matchesPackedALU(NetlistALU netlistALU, Random random, int runs) {
+
+        int bits = netlistALU.a.length;
+        PackedALU packed = new PackedALU(bits);
+        boolean matches = true;
+        for(int run = 0; run < runs; run++) {
+
+            int op = OPS[random.nextInt(OPS.length)];
+            boolean negate = random.nextBoolean();
+            packed.setAluOp(op);
+            packed.setBNegate(negate);
+            for(int i = 0; i < 3; i++) {
+
+                netlistALU.aluOp[i].set((op >>> i & 1) != 0);
+
+            }
+            netlistALU.bNegate.set(negate);
+            for(int i = 0; i < bits; i++) {
+
+                boolean aBit = random.nextBoolean();
+                boolean bBit = run % 4 == 3 ? aBit == negate : random.nextBoolean();
+                packed.setA(i, aBit);
+                packed.setB(i, bBit);
+                netlistALU.a[i].set(aBit);
+                netlistALU.b[i].set(bBit);
+
+            }
+            packed.execute();
+            netlistALU.execute();
+            for(int i = 0; i < bits; i++) {
+
+                matches &= netlistALU.result[i].get() == packed.getResult(i);
+
+            }
+
+        }
+        return matches;
+
     }
 
     private static String aluResultToBinary(Wire[] aluResult) {
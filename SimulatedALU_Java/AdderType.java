@@ -0,0 +1,13 @@
+//Purpose: the ways a NetlistALU can compute the carry into each bit. RIPPLE passes
+//		   the carry from bit to bit like ALU, so the depth grows with the width.
+//		   LOOKAHEAD computes generate and propagate signals for groups of 4 bits,
+//		   then groups of 4 groups and so on, and works the carries back down the
+//		   tree, so the depth grows with the log of the width. SELECT splits the
+//		   bits into blocks that each ripple twice, once for a carry in of 0 and
+//		   once for 1, and picks between them when the carry into the block is known
+
+public enum AdderType {
+
+	RIPPLE, LOOKAHEAD, SELECT;
+
+}
@@ -0,0 +1,325 @@
+//Purpose: compiles a Netlist into a hidden class whose code evaluates every gate in
+//		   topological order as straight-line bitwise operations on a long array,
+//		   with no Wire or Gate objects and no branches, so the JIT can compile it
+//		   like hand-written code. The class file is written directly: the code is
+//		   split into static methods small enough for the JIT to compile, and
+//		   evaluate calls them in order
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+public class CircuitCompiler {
+
+	//the most bytes of code put in one method, under the size the JIT will compile (8000)
+	private static final int MAX_METHOD_CODE = 7000;
+
+	//bytecode instructions used by the generated code
+	private static final int ALOAD_0 = 0x2A;
+	private static final int ALOAD_1 = 0x2B;
+	private static final int ICONST_M1 = 0x02;
+	private static final int LCONST_0 = 0x09;
+	private static final int BIPUSH = 0x10;
+	private static final int SIPUSH = 0x11;
+	private static final int LDC_W = 0x13;
+	private static final int LALOAD = 0x2F;
+	private static final int LASTORE = 0x50;
+	private static final int LAND = 0x7F;
+	private static final int LOR = 0x81;
+	private static final int LXOR = 0x83;
+	private static final int I2L = 0x85;
+	private static final int RETURN = 0xB1;
+	private static final int INVOKESPECIAL = 0xB7;
+	private static final int INVOKESTATIC = 0xB8;
+
+	//the constant pool being built, and the index of each entry already in it
+	private ByteArrayOutputStream pool = new ByteArrayOutputStream();
+	private DataOutputStream poolOut = new DataOutputStream(pool);
+	private HashMap<String, Integer> poolIndex = new HashMap<String, Integer>();
+	private int poolCount = 1;
+
+	//the code of each method of gates
+	private ArrayList<byte[]> chunks = new ArrayList<byte[]>();
+
+	private CircuitCompiler() {
+	}
+
+	//compile the gates of a built netlist, whose wires have the slots given by slotOf
+	static CircuitEvaluator compile(Gate[] gates, Map<Wire, Integer> slotOf) {
+
+		try {
+
+			CircuitCompiler compiler = new CircuitCompiler();
+			byte[] classFile = compiler.writeClass(gates, slotOf);
+			MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classFile, true);
+			return (CircuitEvaluator) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+
+		} catch(RuntimeException e) {
+
+			throw e;
+
+		} catch(Throwable e) {
+
+			throw new IllegalStateException("Could not load the compiled circuit", e);
+
+		}
+
+	}
+
+	//write the class file of the evaluator
+	private byte[] writeClass(Gate[] gates, Map<Wire, Integer> slotOf) throws IOException {
+
+		//the code of the gates, cut into methods
+		ByteArrayOutputStream code = new ByteArrayOutputStream();
+		for(Gate gate : gates) {
+
+			if(code.size() > MAX_METHOD_CODE) {
+
+				code.write(RETURN);
+				chunks.add(code.toByteArray());
+				code.reset();
+
+			}
+			writeGate(code, gate, slotOf);
+
+		}
+		code.write(RETURN);
+		chunks.add(code.toByteArray());
+
+		int thisClass = classEntry("CircuitEvaluatorCode");
+		int superClass = classEntry("java/lang/Object");
+		int evaluatorInterface = classEntry("CircuitEvaluator");
+		int objectInit = methodEntry(superClass, "<init>", "()V");
+		int[] chunkMethods = new int[chunks.size()];
+		for(int i = 0; i < chunks.size(); i++) {
+
+			chunkMethods[i] = methodEntry(thisClass, "gates" + i, "([J)V");
+
+		}
+		int codeName = utf8Entry("Code");
+		int initName = utf8Entry("<init>");
+		int initType = utf8Entry("()V");
+		int evaluateName = utf8Entry("evaluate");
+		int arrayType = utf8Entry("([J)V");
+		if(poolCount > 0xFFFF) {
+
+			throw new IllegalArgumentException("The circuit is too large to compile");
+
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(0xCAFEBABE);
+		out.writeShort(0);
+		out.writeShort(52);
+		out.writeShort(poolCount);
+		pool.writeTo(out);
+		//public final super
+		out.writeShort(0x0031);
+		out.writeShort(thisClass);
+		out.writeShort(superClass);
+		out.writeShort(1);
+		out.writeShort(evaluatorInterface);
+		out.writeShort(0);
+		out.writeShort(2 + chunks.size());
+
+		//the constructor calls the constructor of Object
+		writeMethod(out, 0x0001, initName, initType, codeName, 1, 1,
+				new byte[] {(byte) ALOAD_0, (byte) INVOKESPECIAL, (byte) (objectInit >> 8), (byte) objectInit, (byte) RETURN});
+
+		//evaluate calls each method of gates in order
+		ByteArrayOutputStream evaluate = new ByteArrayOutputStream();
+		for(int method : chunkMethods) {
+
+			evaluate.write(ALOAD_1);
+			evaluate.write(INVOKESTATIC);
+			evaluate.write(method >> 8);
+			evaluate.write(method);
+
+		}
+		evaluate.write(RETURN);
+		writeMethod(out, 0x0001, evaluateName, arrayType, codeName, 1, 2, evaluate.toByteArray());
+
+		//private static methods of gates, with the signals in local 0
+		for(int i = 0; i < chunks.size(); i++) {
+
+			writeMethod(out, 0x000A, utf8Entry("gates" + i), arrayType, codeName, 6, 1, chunks.get(i));
+
+		}
+		out.writeShort(0);
+		return bytes.toByteArray();
+
+	}
+
+	//write the code that computes one gate: signals[out] = in0 op in1 op ..., negated for NAND, NOR, XNOR and NOT
+	private void writeGate(ByteArrayOutputStream code, Gate gate, Map<Wire, Integer> slotOf) throws IOException {
+
+		code.write(ALOAD_0);
+		writeIndex(code, slotOf.get(gate.out));
+		GateType type = gate.type;
+		boolean negate = type == GateType.NAND || type == GateType.NOR || type == GateType.XNOR || type == GateType.NOT;
+		if(gate.in.length == 0) {
+
+			//with no inputs AND is 1 and OR and XOR are 0
+			boolean and = type == GateType.AND || type == GateType.NAND;
+			if(and != negate) {
+
+				code.write(ICONST_M1);
+				code.write(I2L);
+
+			} else {
+
+				code.write(LCONST_0);
+
+			}
+
+		} else {
+
+			int operation = type == GateType.AND || type == GateType.NAND ? LAND
+					: type == GateType.OR || type == GateType.NOR ? LOR : LXOR;
+			for(int i = 0; i < gate.in.length; i++) {
+
+				code.write(ALOAD_0);
+				writeIndex(code, slotOf.get(gate.in[i]));
+				code.write(LALOAD);
+				if(i > 0) {
+
+					code.write(operation);
+
+				}
+
+			}
+			if(negate) {
+
+				code.write(ICONST_M1);
+				code.write(I2L);
+				code.write(LXOR);
+
+			}
+
+		}
+		code.write(LASTORE);
+
+	}
+
+	//push an array index
+	private void writeIndex(ByteArrayOutputStream code, int index) throws IOException {
+
+		if(index < 128) {
+
+			code.write(BIPUSH);
+			code.write(index);
+
+		} else if(index < 32768) {
+
+			code.write(SIPUSH);
+			code.write(index >> 8);
+			code.write(index);
+
+		} else {
+
+			int entry = integerEntry(index);
+			code.write(LDC_W);
+			code.write(entry >> 8);
+			code.write(entry);
+
+		}
+
+	}
+
+	//write one method with a Code attribute
+	private static void writeMethod(DataOutputStream out, int access, int name, int type, int codeName,
+			int maxStack, int maxLocals, byte[] code) throws IOException {
+
+		out.writeShort(access);
+		out.writeShort(name);
+		out.writeShort(type);
+		out.writeShort(1);
+		out.writeShort(codeName);
+		out.writeInt(12 + code.length);
+		out.writeShort(maxStack);
+		out.writeShort(maxLocals);
+		out.writeInt(code.length);
+		out.write(code);
+		//no exception table and no attributes
+		out.writeShort(0);
+		out.writeShort(0);
+
+	}
+
+	//add a constant pool entry for a string, or find the one already added
+	private int utf8Entry(String value) throws IOException {
+
+		Integer index = poolIndex.get("U" + value);
+		if(index == null) {
+
+			poolOut.writeByte(1);
+			poolOut.writeUTF(value);
+			index = poolCount++;
+			poolIndex.put("U" + value, index);
+
+		}
+		return index;
+
+	}
+
+	//add a constant pool entry for a class
+	private int classEntry(String name) throws IOException {
+
+		Integer index = poolIndex.get("C" + name);
+		if(index == null) {
+
+			int nameIndex = utf8Entry(name);
+			poolOut.writeByte(7);
+			poolOut.writeShort(nameIndex);
+			index = poolCount++;
+			poolIndex.put("C" + name, index);
+
+		}
+		return index;
+
+	}
+
+	//add a constant pool entry for a method of a class
+	private int methodEntry(int owner, String name, String type) throws IOException {
+
+		int nameIndex = utf8Entry(name);
+		int typeIndex = utf8Entry(type);
+		poolOut.writeByte(12);
+		poolOut.writeShort(nameIndex);
+		poolOut.writeShort(typeIndex);
+		int nameAndType = poolCount++;
+		poolOut.writeByte(10);
+		poolOut.writeShort(owner);
+		poolOut.writeShort(nameAndType);
+		return poolCount++;
+
+	}
+
+	//add a constant pool entry for an int
+	private int integerEntry(int value) throws IOException {
+
+		Integer index = poolIndex.get("I" + value);
+		if(index == null) {
+
+			if(poolCount >= 0xFFFF) {
+
+				throw new IllegalArgumentException("The circuit is too large to compile");
+
+			}
+			poolOut.writeByte(3);
+			poolOut.writeInt(value);
+			index = poolCount++;
+			poolIndex.put("I" + value, index);
+
+		}
+		return index;
+
+	}
+
+}
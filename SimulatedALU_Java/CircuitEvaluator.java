@@ -0,0 +1,10 @@
+//Purpose: a circuit compiled by CircuitCompiler. Every wire of the circuit has a slot
+//		   in a long array holding its value in 64 lanes, like a SlicedWire; evaluate
+//		   reads the input slots and writes every gate output slot
+
+public interface CircuitEvaluator {
+
+	//evaluate every gate once, in topological order, on the slots of signals
+	void evaluate(long[] signals);
+
+}
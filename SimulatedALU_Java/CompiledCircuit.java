@@ -0,0 +1,97 @@
+//Purpose: a Netlist compiled by CircuitCompiler into straight-line code. Every wire of
+//		   the netlist has a slot in one long array, inputs first and then the gate
+//		   outputs in topological order, holding its value in 64 lanes like a
+//		   SlicedWire. evaluate computes every gate once with no Gate or Wire objects
+//		   involved, so it gives the same values as propagate, for 64 sets of inputs
+//		   at a time. execute does the same through the Wires of the netlist
+
+import java.util.IdentityHashMap;
+
+public class CompiledCircuit {
+
+	//the compiled code
+	private CircuitEvaluator evaluator;
+
+	//the value of every wire, by slot
+	private long[] signals;
+
+	//the slot of every wire
+	private IdentityHashMap<Wire, Integer> slots;
+
+	//the primary inputs, and the gates in the order of their slots
+	private Wire[] inputs;
+	private Gate[] gates;
+
+	//compile a netlist, building it first if needed; gates added to it later are not included
+	public CompiledCircuit(Netlist netlist) {
+
+		netlist.build();
+		inputs = netlist.getInputs().values().toArray(new Wire[0]);
+		gates = netlist.getGates();
+		slots = new IdentityHashMap<Wire, Integer>();
+		for(Wire input : inputs) {
+
+			slots.put(input, slots.size());
+
+		}
+		for(Gate gate : gates) {
+
+			slots.put(gate.out, slots.size());
+
+		}
+		signals = new long[slots.size()];
+		evaluator = CircuitCompiler.compile(gates, slots);
+
+	}
+
+	//get the slot of a wire of the netlist
+	public int getSlot(Wire wire) {
+
+		Integer slot = slots.get(wire);
+		if(slot == null) {
+
+			throw new IllegalArgumentException("Wire does not belong to the compiled netlist");
+
+		}
+		return slot;
+
+	}
+
+	//get the value of every wire, by slot, to read or set many wires directly
+	public long[] getSignals() {
+		return signals;
+	}
+
+	//set an input in every lane, bit i of lanes being lane i
+	public void set(Wire input, long lanes) {
+		signals[getSlot(input)] = lanes;
+	}
+
+	//get a wire in every lane after evaluate
+	public long get(Wire wire) {
+		return signals[getSlot(wire)];
+	}
+
+	//evaluate every gate in all 64 lanes
+	public void evaluate() {
+		evaluator.evaluate(signals);
+	}
+
+	//evaluate with the inputs taken from the Wires of the netlist, and set every gate output Wire to the result
+	public void execute() {
+
+		for(int i = 0; i < inputs.length; i++) {
+
+			signals[i] = inputs[i].get() ? -1L : 0L;
+
+		}
+		evaluator.evaluate(signals);
+		for(int i = 0; i < gates.length; i++) {
+
+			gates[i].out.set((signals[inputs.length + i] & 1L) != 0);
+
+		}
+
+	}
+
+}
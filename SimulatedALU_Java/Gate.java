@@ -0,0 +1,53 @@
+//Purpose: represents one logic gate in a Netlist, driving its output wire from its input wires
+
+public class Gate {
+
+	//the kind of gate
+	public final GateType type;
+
+	//inputs
+	final Wire[] in;
+
+	//output
+	public final Wire out;
+
+	//the position of the gate in the netlist, and the length of the longest path of gates
+	//from the primary inputs to this gate (a gate only reads gates of lower levels)
+	final int id;
+	int level;
+
+	//the gates that read the output of this gate
+	Gate[] fanout;
+
+	//whether the gate is waiting to be evaluated
+	boolean scheduled;
+
+	Gate(int id, GateType type, Wire[] in, Wire out) {
+
+		this.id = id;
+		this.type = type;
+		this.in = in;
+		this.out = out;
+
+	}
+
+	//get the input wires of the gate
+	public Wire[] getInputs() {
+		return in.clone();
+	}
+
+	//evaluate the gate, returning true if its output changed
+	boolean evaluate() {
+
+		boolean value = type.evaluate(in);
+		if(value == out.get()) {
+
+			return false;
+
+		}
+		out.set(value);
+		return true;
+
+	}
+
+}
@@ -0,0 +1,49 @@
+//Purpose: the kinds of logic gate a Netlist can be built from. AND, OR and XOR
+//		   take any number of inputs, NOT and BUF take exactly one
+
+public enum GateType {
+
+	AND, OR, XOR, NAND, NOR, XNOR, NOT, BUF;
+
+	//evaluate the gate on the values of its input wires
+	public boolean evaluate(Wire[] in) {
+
+		switch(this) {
+
+			case AND: case NAND: {
+				boolean out = true;
+				for(int i = 0; i < in.length && out; i++) {
+
+					out = in[i].get();
+
+				}
+				return this == AND ? out : !out;
+			}
+			case OR: case NOR: {
+				boolean out = false;
+				for(int i = 0; i < in.length && !out; i++) {
+
+					out = in[i].get();
+
+				}
+				return this == OR ? out : !out;
+			}
+			case XOR: case XNOR: {
+				boolean out = false;
+				for(int i = 0; i < in.length; i++) {
+
+					out ^= in[i].get();
+
+				}
+				return this == XOR ? out : !out;
+			}
+			case NOT:
+				return !in[0].get();
+			default:
+				return in[0].get();
+
+		}
+
+	}
+
+}
@@ -0,0 +1,398 @@
+//Purpose: a circuit described as a graph of gates connected by Wires, instead of
+//		   logic written out in Java like ALUElement. Gates are added with gate (or
+//		   with wire and drive, for a gate whose inputs are driven later), then
+//		   build sorts them topologically and gives each gate a level. propagate
+//		   simulates the circuit event driven: only gates reading a wire that
+//		   changed are evaluated, level by level, so a small change in the inputs
+//		   costs work in proportion to the gates it reaches, not to the circuit size.
+//		   Inputs are set through their Wires, and outputs are read from theirs
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+public class Netlist {
+
+	//the gates, in the order they were added and then in topological order once built
+	private ArrayList<Gate> gates;
+
+	//the gate driving each wire that is driven by a gate
+	private IdentityHashMap<Wire, Gate> drivers;
+
+	//every wire that belongs to the netlist
+	private Set<Wire> wires;
+
+	//primary inputs by name, the same wires as a set, and their values at the last propagate
+	private LinkedHashMap<String, Wire> inputs;
+	private Set<Wire> inputSet;
+	private Wire[] inputWires;
+	private boolean[] lastInputs;
+
+	//the gates that read each primary input
+	private Gate[][] inputFanout;
+
+	//outputs by name
+	private LinkedHashMap<String, Wire> outputs;
+
+	//the gates waiting to be evaluated at each level, and how many there are
+	private Gate[][] pending;
+	private int[] pendingCount;
+
+	//the lowest level with a gate waiting, or pending.length if none
+	private int firstPending;
+
+	//whether build has run, and whether every gate has been evaluated once since
+	private boolean built;
+	private boolean settled;
+
+	//the total number of gate evaluations
+	private long evaluations;
+
+	public Netlist() {
+
+		gates = new ArrayList<Gate>();
+		drivers = new IdentityHashMap<Wire, Gate>();
+		wires = Collections.newSetFromMap(new IdentityHashMap<Wire, Boolean>());
+		inputs = new LinkedHashMap<String, Wire>();
+		inputSet = Collections.newSetFromMap(new IdentityHashMap<Wire, Boolean>());
+		outputs = new LinkedHashMap<String, Wire>();
+
+	}
+
+	//add a primary input
+	public Wire input(String name) {
+
+		requireNotBuilt();
+		if(inputs.containsKey(name)) {
+
+			throw new IllegalArgumentException("Input " + name + " already exists");
+
+		}
+		Wire wire = wire();
+		inputs.put(name, wire);
+		inputSet.add(wire);
+		return wire;
+
+	}
+
+	//add a wire that is always value
+	public Wire constant(boolean value) {
+
+		//a gate with no inputs: OR of nothing is false and NOR of nothing is true
+		return gate(value ? GateType.NOR : GateType.OR);
+
+	}
+
+	//add a wire that a gate will drive later with drive
+	public Wire wire() {
+
+		requireNotBuilt();
+		Wire wire = new Wire();
+		wires.add(wire);
+		return wire;
+
+	}
+
+	//add a gate and return its output wire
+	public Wire gate(GateType type, Wire... in) {
+
+		Wire out = wire();
+		drive(out, type, in);
+		return out;
+
+	}
+
+	//add a gate that drives a wire made by wire
+	public Gate drive(Wire out, GateType type, Wire... in) {
+
+		requireNotBuilt();
+		if(!wires.contains(out) || inputSet.contains(out) || drivers.containsKey(out)) {
+
+			throw new IllegalArgumentException("Wire is not an undriven wire of this netlist");
+
+		}
+		if((type == GateType.NOT || type == GateType.BUF) && in.length != 1) {
+
+			throw new IllegalArgumentException(type + " takes one input, not " + in.length);
+
+		}
+		for(Wire wire : in) {
+
+			if(!wires.contains(wire)) {
+
+				throw new IllegalArgumentException("Input wire does not belong to this netlist");
+
+			}
+
+		}
+		Gate gate = new Gate(gates.size(), type, in.clone(), out);
+		gates.add(gate);
+		drivers.put(out, gate);
+		return gate;
+
+	}
+
+	//name a wire as an output
+	public void output(String name, Wire wire) {
+
+		if(!wires.contains(wire)) {
+
+			throw new IllegalArgumentException("Output wire does not belong to this netlist");
+
+		}
+		outputs.put(name, wire);
+
+	}
+
+	//get a primary input by name
+	public Wire getInput(String name) {
+		return inputs.get(name);
+	}
+
+	//get an output by name
+	public Wire getOutput(String name) {
+		return outputs.get(name);
+	}
+
+	//get the named inputs
+	public Map<String, Wire> getInputs() {
+		return Collections.unmodifiableMap(inputs);
+	}
+
+	//get the named outputs
+	public Map<String, Wire> getOutputs() {
+		return Collections.unmodifiableMap(outputs);
+	}
+
+	//get the gates in topological order once built, or in the order they were added before
+	public Gate[] getGates() {
+		return gates.toArray(new Gate[gates.size()]);
+	}
+
+	//get the number of gates
+	public int getGateCount() {
+		return gates.size();
+	}
+
+	//get the number of levels, the most gates on any path from the inputs to a gate
+	public int getDepth() {
+
+		build();
+		return pending.length;
+
+	}
+
+	//get the total number of gate evaluations done by propagate
+	public long getEvaluationCount() {
+		return evaluations;
+	}
+
+	//sort the gates topologically and work out their levels and fanouts; called by propagate if needed
+	public void build() {
+
+		if(built) {
+
+			return;
+
+		}
+
+		//every wire must be an input or be driven by a gate
+		for(Gate gate : gates) {
+
+			for(Wire wire : gate.in) {
+
+				if(!drivers.containsKey(wire) && !inputSet.contains(wire)) {
+
+					throw new IllegalStateException("A wire read by a gate of type " + gate.type + " is never driven");
+
+				}
+
+			}
+
+		}
+
+		//find the gates that read each wire, and count the inputs of each gate driven by other gates
+		IdentityHashMap<Wire, ArrayList<Gate>> readers = new IdentityHashMap<Wire, ArrayList<Gate>>();
+		int[] waiting = new int[gates.size()];
+		for(Gate gate : gates) {
+
+			for(Wire wire : gate.in) {
+
+				readers.computeIfAbsent(wire, (w) -> new ArrayList<Gate>()).add(gate);
+				if(drivers.containsKey(wire)) {
+
+					waiting[gate.id]++;
+
+				}
+
+			}
+
+		}
+
+		//Kahn's algorithm: a gate is ready once every gate driving its inputs has been placed
+		ArrayList<Gate> order = new ArrayList<Gate>(gates.size());
+		for(Gate gate : gates) {
+
+			gate.level = 0;
+			if(waiting[gate.id] == 0) {
+
+				order.add(gate);
+
+			}
+
+		}
+		int depth = 0;
+		for(int i = 0; i < order.size(); i++) {
+
+			Gate gate = order.get(i);
+			depth = Math.max(depth, gate.level + 1);
+			ArrayList<Gate> fanout = readers.get(gate.out);
+			gate.fanout = fanout == null ? new Gate[0] : fanout.toArray(new Gate[fanout.size()]);
+			for(Gate reader : gate.fanout) {
+
+				reader.level = Math.max(reader.level, gate.level + 1);
+				if(--waiting[reader.id] == 0) {
+
+					order.add(reader);
+
+				}
+
+			}
+
+		}
+		if(order.size() != gates.size()) {
+
+			throw new IllegalStateException("The netlist has a loop through " + (gates.size() - order.size()) + " gates");
+
+		}
+		gates = order;
+
+		//the gates that read each primary input
+		inputWires = inputs.values().toArray(new Wire[inputs.size()]);
+		lastInputs = new boolean[inputWires.length];
+		inputFanout = new Gate[inputWires.length][];
+		for(int i = 0; i < inputWires.length; i++) {
+
+			ArrayList<Gate> fanout = readers.get(inputWires[i]);
+			inputFanout[i] = fanout == null ? new Gate[0] : fanout.toArray(new Gate[fanout.size()]);
+
+		}
+
+		//room for every gate of a level to wait at once
+		int[] size = new int[depth];
+		for(Gate gate : gates) {
+
+			size[gate.level]++;
+
+		}
+		pending = new Gate[depth][];
+		pendingCount = new int[depth];
+		for(int level = 0; level < depth; level++) {
+
+			pending[level] = new Gate[size[level]];
+
+		}
+		firstPending = depth;
+		built = true;
+
+	}
+
+	//bring every wire up to date with the primary inputs, returning the number of gates evaluated
+	public int propagate() {
+
+		build();
+		int count = 0;
+		if(!settled) {
+
+			//the first time, evaluate every gate once in topological order
+			for(Gate gate : gates) {
+
+				gate.out.set(gate.type.evaluate(gate.in));
+
+			}
+			for(int i = 0; i < inputWires.length; i++) {
+
+				lastInputs[i] = inputWires[i].get();
+
+			}
+			settled = true;
+			evaluations += gates.size();
+			return gates.size();
+
+		}
+
+		//schedule the readers of every input that changed
+		for(int i = 0; i < inputWires.length; i++) {
+
+			boolean value = inputWires[i].get();
+			if(value != lastInputs[i]) {
+
+				lastInputs[i] = value;
+				for(Gate gate : inputFanout[i]) {
+
+					schedule(gate);
+
+				}
+
+			}
+
+		}
+
+		//evaluate level by level; a gate only schedules gates of higher levels
+		for(int level = firstPending; level < pending.length; level++) {
+
+			Gate[] waitingGates = pending[level];
+			for(int i = 0; i < pendingCount[level]; i++) {
+
+				Gate gate = waitingGates[i];
+				waitingGates[i] = null;
+				gate.scheduled = false;
+				count++;
+				if(gate.evaluate()) {
+
+					for(Gate reader : gate.fanout) {
+
+						schedule(reader);
+
+					}
+
+				}
+
+			}
+			pendingCount[level] = 0;
+
+		}
+		firstPending = pending.length;
+		evaluations += count;
+		return count;
+
+	}
+
+	//queue a gate to be evaluated if it is not already waiting
+	private void schedule(Gate gate) {
+
+		if(!gate.scheduled) {
+
+			gate.scheduled = true;
+			pending[gate.level][pendingCount[gate.level]++] = gate;
+			firstPending = Math.min(firstPending, gate.level);
+
+		}
+
+	}
+
+	//adding to the netlist after build would invalidate the order
+	private void requireNotBuilt() {
+
+		if(built) {
+
+			throw new IllegalStateException("The netlist has already been built");
+
+		}
+
+	}
+
+}
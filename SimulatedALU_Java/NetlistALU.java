@@ -0,0 +1,345 @@
+//Purpose: the ALU expressed as a Netlist. Each bit is built from gates with the same
+//		   sum of products logic as ALUElement and MUX8by1, and the inputs and result
+//		   are Wires just like those of ALU, so the two can be used the same way.
+//		   execute propagates only the changes since the last execute. The adder can
+//		   ripple like ALU or use carry lookahead or carry select (see AdderType),
+//		   and getGateCount and getDepth show what each costs
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class NetlistALU {
+
+	//inputs
+	public Wire[] aluOp;
+	public Wire bNegate;
+	public Wire[] a, b;
+
+	//the circuit, and how its adder carries
+	private Netlist netlist;
+	private AdderType adder;
+
+	//result
+	public Wire[] result;
+
+	//build the netlist for an ALU of x bits with a ripple carry adder
+	public NetlistALU(int x) {
+		this(x, AdderType.RIPPLE);
+	}
+
+	//build the netlist for an ALU of x bits with the given adder
+	public NetlistALU(int x, AdderType adder) {
+
+		this.adder = adder;
+		netlist = new Netlist();
+
+		//inputs
+		aluOp = new Wire[3];
+		for(int i = 0; i < 3; i++) {
+
+			aluOp[i] = netlist.input("aluOp" + i);
+
+		}
+		bNegate = netlist.input("bNegate");
+		a = new Wire[x];
+		b = new Wire[x];
+		for(int i = 0; i < x; i++) {
+
+			a[i] = netlist.input("a" + i);
+			b[i] = netlist.input("b" + i);
+
+		}
+
+		//the less input of the least significant bit is the add result of the most
+		//significant bit, which is not built yet, so it is driven at the end; the others are 0
+		Wire less0 = netlist.wire();
+		Wire zero = netlist.constant(false);
+
+		//b, inverted when subtracting
+		Wire[] bx = new Wire[x];
+		for(int i = 0; i < x; i++) {
+
+			bx[i] = netlist.gate(GateType.XOR, b[i], bNegate);
+
+		}
+
+		//the carry into every bit, for the adders that work them out apart from the elements
+		Wire[] carries = null;
+		if(adder == AdderType.LOOKAHEAD) {
+
+			carries = lookaheadCarries(bx);
+
+		} else if(adder == AdderType.SELECT) {
+
+			carries = selectCarries(bx);
+
+		}
+
+		//the first pass of every element; with a ripple adder the carry goes from bit 0 to bit x - 1
+		Wire[][] muxIn = new Wire[x][];
+		Wire carryIn = bNegate;
+		Wire addResult = null;
+		for(int i = 0; i < x; i++) {
+
+			if(carries != null) {
+
+				carryIn = carries[i];
+
+			}
+			muxIn[i] = new Wire[8];
+			Wire notA = netlist.gate(GateType.NOT, a[i]);
+			Wire notB = netlist.gate(GateType.NOT, b[i]);
+			Wire notBx = netlist.gate(GateType.NOT, bx[i]);
+			Wire notC = netlist.gate(GateType.NOT, carryIn);
+
+			//a and b, a or b
+			muxIn[i][0] = netlist.gate(GateType.AND, a[i], b[i]);
+			muxIn[i][1] = netlist.gate(GateType.OR, a[i], b[i]);
+			//a plus b plus carryIn (using sum of products)
+			addResult = netlist.gate(GateType.OR, 
+					netlist.gate(GateType.AND, notA, notBx, carryIn), 
+					netlist.gate(GateType.AND, notA, bx[i], notC), 
+					netlist.gate(GateType.AND, a[i], notBx, notC), 
+					netlist.gate(GateType.AND, a[i], bx[i], carryIn));
+			muxIn[i][2] = addResult;
+			muxIn[i][3] = i == 0 ? less0 : zero;
+			//a xor b
+			muxIn[i][4] = netlist.gate(GateType.OR, 
+					netlist.gate(GateType.AND, a[i], notB), 
+					netlist.gate(GateType.AND, notA, b[i]));
+			//aluOp will never be 5, 6, or 7
+			muxIn[i][5] = zero;
+			muxIn[i][6] = zero;
+			muxIn[i][7] = zero;
+			//carry out using sum of products
+			if(carries == null) {
+
+				carryIn = netlist.gate(GateType.OR, 
+						netlist.gate(GateType.AND, notA, bx[i], carryIn), 
+						netlist.gate(GateType.AND, a[i], notBx, carryIn), 
+						netlist.gate(GateType.AND, a[i], bx[i], notC), 
+						netlist.gate(GateType.AND, a[i], bx[i], carryIn));
+
+			}
+
+		}
+		netlist.drive(less0, GateType.BUF, addResult);
+
+		//the mux of every element picks its result
+		result = new Wire[x];
+		for(int i = 0; i < x; i++) {
+
+			result[i] = mux8by1(muxIn[i]);
+			netlist.output("result" + i, result[i]);
+
+		}
+
+		netlist.build();
+
+	}
+
+	//add the gates of an 8 by 1 mux controlled by aluOp, using the sum of products of MUX8by1
+	private Wire mux8by1(Wire[] in) {
+
+		Wire[] control = new Wire[3];
+		Wire[] notControl = new Wire[3];
+		for(int i = 0; i < 3; i++) {
+
+			control[i] = aluOp[i];
+			notControl[i] = netlist.gate(GateType.NOT, aluOp[i]);
+
+		}
+		Wire[] terms = new Wire[8];
+		for(int k = 0; k < 8; k++) {
+
+			//term k selects in[k] when the control bits spell k
+			terms[k] = netlist.gate(GateType.AND, 
+					(k & 1) != 0 ? control[0] : notControl[0], 
+					(k & 2) != 0 ? control[1] : notControl[1], 
+					(k & 4) != 0 ? control[2] : notControl[2], 
+					in[k]);
+
+		}
+		return netlist.gate(GateType.OR, terms);
+
+	}
+
+	//work out the carry into every bit with a tree of 4 bit carry lookahead units
+	private Wire[] lookaheadCarries(Wire[] bx) {
+
+		//generate and propagate of every bit, then of every group of 4 nodes of the level below
+		ArrayList<Wire[]> generate = new ArrayList<Wire[]>();
+		ArrayList<Wire[]> propagate = new ArrayList<Wire[]>();
+		Wire[] g = new Wire[bx.length];
+		Wire[] p = new Wire[bx.length];
+		for(int i = 0; i < bx.length; i++) {
+
+			g[i] = netlist.gate(GateType.AND, a[i], bx[i]);
+			p[i] = netlist.gate(GateType.OR, a[i], bx[i]);
+
+		}
+		generate.add(g);
+		propagate.add(p);
+		while(g.length > 1) {
+
+			Wire[] groupG = new Wire[(g.length + 3) / 4];
+			Wire[] groupP = new Wire[groupG.length];
+			for(int k = 0; k < groupG.length; k++) {
+
+				int from = 4 * k;
+				int to = Math.min(from + 4, g.length);
+				groupG[k] = lookahead(g, p, from, to, null);
+				groupP[k] = and(Arrays.copyOfRange(p, from, to));
+
+			}
+			g = groupG;
+			p = groupP;
+			generate.add(g);
+			propagate.add(p);
+
+		}
+
+		//from the top, the carry into each node gives the carries into its 4 children
+		Wire[] carries = new Wire[]{bNegate};
+		for(int level = generate.size() - 2; level >= 0; level--) {
+
+			g = generate.get(level);
+			p = propagate.get(level);
+			Wire[] childCarries = new Wire[g.length];
+			for(int j = 0; j < g.length; j++) {
+
+				int from = j / 4 * 4;
+				childCarries[j] = j == from ? carries[j / 4] : lookahead(g, p, from, j, carries[j / 4]);
+
+			}
+			carries = childCarries;
+
+		}
+		return carries;
+
+	}
+
+	//the carry out of nodes from to to - 1 given their generate and propagate and the carry into from,
+	//or the generate of the nodes if carryIn is null:
+	//g[to-1] or p[to-1]g[to-2] or ... or p[to-1]...p[from]carryIn
+	private Wire lookahead(Wire[] g, Wire[] p, int from, int to, Wire carryIn) {
+
+		if(to - from == 1 && carryIn == null) {
+
+			return g[from];
+
+		}
+		ArrayList<Wire> terms = new ArrayList<Wire>();
+		int last = carryIn == null ? from : from - 1;
+		for(int m = to - 1; m >= last; m--) {
+
+			Wire[] term = new Wire[to - m];
+			for(int k = m + 1; k < to; k++) {
+
+				term[k - m - 1] = p[k];
+
+			}
+			term[to - m - 1] = m < from ? carryIn : g[m];
+			terms.add(and(term));
+
+		}
+		return netlist.gate(GateType.OR, terms.toArray(new Wire[terms.size()]));
+
+	}
+
+	//work out the carry into every bit with carry select blocks of about the square root of the width
+	private Wire[] selectCarries(Wire[] bx) {
+
+		int x = bx.length;
+		int blockSize = (int) Math.ceil(Math.sqrt(x));
+		Wire[] g = new Wire[x];
+		Wire[] p = new Wire[x];
+		for(int i = 0; i < x; i++) {
+
+			g[i] = netlist.gate(GateType.AND, a[i], bx[i]);
+			p[i] = netlist.gate(GateType.OR, a[i], bx[i]);
+
+		}
+
+		//the first block ripples from bNegate
+		Wire[] carries = new Wire[x];
+		carries[0] = bNegate;
+		for(int i = 1; i < Math.min(blockSize, x); i++) {
+
+			carries[i] = carry(g[i - 1], p[i - 1], carries[i - 1]);
+
+		}
+		Wire blockCarry = x <= blockSize ? null : carry(g[blockSize - 1], p[blockSize - 1], carries[blockSize - 1]);
+
+		//every other block ripples for a carry in of 0 and of 1 at once, then the carry into the block picks one
+		for(int from = blockSize; from < x; from += blockSize) {
+
+			int to = Math.min(from + blockSize, x);
+			carries[from] = blockCarry;
+			//with a carry in of 0 a bit carries if it generates, with 1 if it propagates
+			Wire carry0 = g[from];
+			Wire carry1 = p[from];
+			for(int i = from + 1; i < to; i++) {
+
+				carries[i] = pick(carry0, carry1, blockCarry);
+				carry0 = carry(g[i], p[i], carry0);
+				carry1 = carry(g[i], p[i], carry1);
+
+			}
+			if(to < x) {
+
+				blockCarry = pick(carry0, carry1, blockCarry);
+
+			}
+
+		}
+		return carries;
+
+	}
+
+	//pick the carry for a carry in of 0 or of 1; a carry for 0 implies one for 1, so this is c0 or (carry in and c1)
+	private Wire pick(Wire carry0, Wire carry1, Wire carryIn) {
+		return netlist.gate(GateType.OR, carry0, netlist.gate(GateType.AND, carryIn, carry1));
+	}
+
+	//the carry out of a bit: it generates, or it propagates the carry in
+	private Wire carry(Wire g, Wire p, Wire carryIn) {
+		return netlist.gate(GateType.OR, g, netlist.gate(GateType.AND, p, carryIn));
+	}
+
+	//the AND of some wires, or the wire itself if there is only one
+	private Wire and(Wire[] in) {
+		return in.length == 1 ? in[0] : netlist.gate(GateType.AND, in);
+	}
+
+	//get the netlist, to inspect its gates or count its evaluations
+	public Netlist getNetlist() {
+		return netlist;
+	}
+
+	//compile the netlist into straight-line code that executes 64 operations at a time
+	public CompiledCircuit compile() {
+		return new CompiledCircuit(netlist);
+	}
+
+	//get how the adder carries
+	public AdderType getAdderType() {
+		return adder;
+	}
+
+	//get the number of gates in the ALU
+	public int getGateCount() {
+		return netlist.getGateCount();
+	}
+
+	//get the critical path of the ALU, the most gates between an input and the result
+	public int getDepth() {
+		return netlist.getDepth();
+	}
+
+	//execute the ALU, returning the number of gates evaluated
+	public int execute() {
+		return netlist.propagate();
+	}
+
+}
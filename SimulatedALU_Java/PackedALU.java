@@ -0,0 +1,239 @@
+//Purpose: a flattened version of the ALU for very wide operands. Instead of a Wire
+//		   object per bit and an ALUElement and MUX8by1 per bit, every signal of the
+//		   ALU is a packed long array holding bit i in bit i % 64 of word i / 64, so
+//		   an ALU of x bits is a handful of arrays of x / 64 words and execute works
+//		   on 64 bits with each operation. Memory and time grow linearly with x.
+//		   Operands can be loaded from, and the result stored back to, an ALU of
+//		   the same size
+
+public class PackedALU {
+
+	//inputs
+	private int aluOp;
+	private boolean bNegate;
+	private long[] a, b;
+
+	//the add result and the carry into every bit, computed by every execute like ALUElement
+	private long[] addResult;
+	private long[] carryIn;
+
+	//result
+	private long[] result;
+
+	//size of alu, and the number of words of each signal
+	private int x;
+	private int words;
+
+	//initialize the PackedALU
+	public PackedALU(int x) {
+
+		if(x < 1) {
+
+			throw new IllegalArgumentException("An ALU needs at least one bit, not " + x);
+
+		}
+		this.x = x;
+		words = (x + 63) >>> 6;
+		a = new long[words];
+		b = new long[words];
+		addResult = new long[words];
+		carryIn = new long[words];
+		result = new long[words];
+
+	}
+
+	//execute the PackedALU, with the same results as ALU.execute
+	public void execute() {
+
+		//the ripple carry: within a word the carry into each bit is where the sum differs
+		//from a xor b, and the carry out of the word goes into the next
+		long invert = bNegate ? -1L : 0L;
+		long carry = bNegate ? 1L : 0L;
+		for(int w = 0; w < words; w++) {
+
+			long aw = a[w];
+			long bw = b[w] ^ invert;
+			long sum = aw + bw + carry;
+			addResult[w] = sum;
+			carryIn[w] = sum ^ aw ^ bw;
+			carry = ((aw & bw) | ((aw | bw) & ~sum)) >>> 63;
+
+		}
+
+		//the mux of every bit picks the same input, so pick it a word at a time
+		for(int w = 0; w < words; w++) {
+
+			switch(aluOp) {
+
+				case 0:
+					result[w] = a[w] & b[w];
+					break;
+				case 1:
+					result[w] = a[w] | b[w];
+					break;
+				case 2:
+					result[w] = addResult[w];
+					break;
+				case 4:
+					result[w] = a[w] ^ b[w];
+					break;
+				default:
+					//less is 0 for every bit but the first
+					result[w] = 0L;
+					break;
+
+			}
+
+		}
+
+		//the less input of the least significant bit is the add result of the most significant bit
+		if(aluOp == 3) {
+
+			result[0] = addResult[(x - 1) >>> 6] >>> ((x - 1) & 63) & 1L;
+
+		}
+
+		//clear the bits above x, which the inverted b or the add filled in
+		result[words - 1] &= lastWordMask();
+		addResult[words - 1] &= lastWordMask();
+		carryIn[words - 1] &= lastWordMask();
+
+	}
+
+	//set aluOp, with bit i of op as aluOp[i]
+	public void setAluOp(int op) {
+
+		if(op < 0 || op > 7) {
+
+			throw new IllegalArgumentException("aluOp is three bits, not " + op);
+
+		}
+		aluOp = op;
+
+	}
+
+	public int getAluOp() {
+		return aluOp;
+	}
+
+	public void setBNegate(boolean bNegate) {
+		this.bNegate = bNegate;
+	}
+
+	public boolean getBNegate() {
+		return bNegate;
+	}
+
+	//set one bit of a or b
+	public void setA(int bit, boolean value) {
+		set(a, bit, value);
+	}
+
+	public void setB(int bit, boolean value) {
+		set(b, bit, value);
+	}
+
+	//get one bit of the result
+	public boolean getResult(int bit) {
+
+		checkBit(bit);
+		return (result[bit >>> 6] >>> (bit & 63) & 1L) != 0;
+
+	}
+
+	//get a, b, the result, the add result or the carries as packed words, bit i in bit i % 64 of word i / 64;
+	//a and b can be filled directly, as long as the bits above x are left 0
+	public long[] getA() {
+		return a;
+	}
+
+	public long[] getB() {
+		return b;
+	}
+
+	public long[] getResult() {
+		return result;
+	}
+
+	public long[] getAddResult() {
+		return addResult;
+	}
+
+	public long[] getCarryIn() {
+		return carryIn;
+	}
+
+	//get the size of the alu
+	public int getSize() {
+		return x;
+	}
+
+	//copy the inputs of an ALU of the same size
+	public void load(ALU alu) {
+
+		checkSize(alu);
+		aluOp = (alu.aluOp[0].get() ? 1 : 0) | (alu.aluOp[1].get() ? 2 : 0) | (alu.aluOp[2].get() ? 4 : 0);
+		bNegate = alu.bNegate.get();
+		for(int i = 0; i < x; i++) {
+
+			setA(i, alu.a[i].get());
+			setB(i, alu.b[i].get());
+
+		}
+
+	}
+
+	//copy the result into the result of an ALU of the same size
+	public void store(ALU alu) {
+
+		checkSize(alu);
+		for(int i = 0; i < x; i++) {
+
+			alu.result[i].set(getResult(i));
+
+		}
+
+	}
+
+	//set one bit of a packed signal
+	private void set(long[] signal, int bit, boolean value) {
+
+		checkBit(bit);
+		if(value) {
+
+			signal[bit >>> 6] |= 1L << bit;
+
+		} else {
+
+			signal[bit >>> 6] &= ~(1L << bit);
+
+		}
+
+	}
+
+	//the bits of the last word that are part of the alu
+	private long lastWordMask() {
+		return (x & 63) == 0 ? -1L : (1L << x) - 1;
+	}
+
+	private void checkBit(int bit) {
+
+		if(bit < 0 || bit >= x) {
+
+			throw new IndexOutOfBoundsException("Bit " + bit + " of an ALU of " + x + " bits");
+
+		}
+
+	}
+
+	private void checkSize(ALU alu) {
+
+		if(alu.a.length != x) {
+
+			throw new IllegalArgumentException("ALU has " + alu.a.length + " bits, not " + x);
+
+		}
+
+	}
+
+}
@@ -0,0 +1,180 @@
+//Purpose: a bit-sliced version of the ALU that performs 64 independent operations
+//		   per execute. Every signal is a SlicedWire holding one bit per lane, so the
+//		   logic of ALUElement and MUX8by1 runs on all 64 lanes with each bitwise
+//		   operation. Each lane can have its own aluOp, bNegate, a and b. Lanes can
+//		   be filled from, and their results copied back to, the inputs and outputs
+//		   of an ALU of the same size
+
+public class SlicedALU {
+
+	//the number of independent operations per execute
+	public static final int LANES = 64;
+
+	//inputs
+	public SlicedWire[] aluOp;
+	public SlicedWire bNegate;
+	public SlicedWire[] a, b;
+
+	//alu elements array
+	private SlicedALUElement[] alu;
+
+	//size of alu
+	private int x;
+
+	//result
+	public SlicedWire[] result;
+
+	//initialize the SlicedALU
+	public SlicedALU(int x) {
+
+		//inputs
+		aluOp = new SlicedWire[3];
+		for(int i = 0; i < 3; i++) {
+
+			aluOp[i] = new SlicedWire();
+
+		}
+		bNegate = new SlicedWire();
+		a = new SlicedWire[x];
+		b = new SlicedWire[x];
+		for(int i = 0; i < x; i++) {
+
+			a[i] = new SlicedWire();
+			b[i] = new SlicedWire();
+
+		}
+
+		//alu elements array
+		alu = new SlicedALUElement[x];
+		for(int i = 0; i < x; i++) {
+
+			alu[i] = new SlicedALUElement();
+
+		}
+
+		//size of alu
+		this.x = x;
+
+		//result
+		result = new SlicedWire[x];
+		for(int i = 0; i < x; i++) {
+
+			result[i] = new SlicedWire();
+
+		}
+
+	}
+
+	//execute the SlicedALU in every lane, in the same order as ALU.execute
+	public void execute() {
+		
+		//set the inputs for the least significant alu element and execute the first pass with an initial carryIn of bNegate
+		alu[0].aluOp[0].set(aluOp[0].get());
+		alu[0].aluOp[1].set(aluOp[1].get());
+		alu[0].aluOp[2].set(aluOp[2].get());
+		alu[0].bInvert.set(bNegate.get());
+		alu[0].a.set(a[0].get());
+		alu[0].b.set(b[0].get());
+		alu[0].carryIn.set(bNegate.get());
+		alu[0].execute_pass1();
+		
+		//set the inputs and then execute the first pass for all the other 
+		//alu elements with the carry in being the carry out from the previous alu element
+		for(int i = 1; i < x; i++) {
+			
+			alu[i].aluOp[0].set(aluOp[0].get());
+			alu[i].aluOp[1].set(aluOp[1].get());
+			alu[i].aluOp[2].set(aluOp[2].get());
+			alu[i].bInvert.set(bNegate.get());
+			alu[i].a.set(a[i].get());
+			alu[i].b.set(b[i].get());
+			alu[i].carryIn.set(alu[i - 1].carryOut.get());
+			alu[i].execute_pass1();
+			
+		}
+		
+		//set the less input of the first alu to the addResult of the most significant bit
+		//and then set the rest of the less inputs to 0
+		alu[0].less.set(alu[x - 1].addResult.get());
+		for(int i = 1; i < x; i++) {
+			
+			alu[i].less.set(0L);
+			
+		}
+		
+		//finally, execute pass 2 and then set the result of the alu to the results of all the alu elements
+		for(int i = 0; i < x; i++) {
+			
+			alu[i].execute_pass2();
+			result[i].set(alu[i].result.get());
+			
+		}
+		
+	}
+
+	//copy the inputs of an ALU of the same size into one lane
+	public void loadLane(int lane, ALU scalar) {
+
+		for(int i = 0; i < 3; i++) {
+
+			aluOp[i].setLane(lane, scalar.aluOp[i].get());
+
+		}
+		bNegate.setLane(lane, scalar.bNegate.get());
+		for(int i = 0; i < x; i++) {
+
+			a[i].setLane(lane, scalar.a[i].get());
+			b[i].setLane(lane, scalar.b[i].get());
+
+		}
+
+	}
+
+	//copy the result of one lane into the result of an ALU of the same size
+	public void storeLane(int lane, ALU scalar) {
+
+		for(int i = 0; i < x; i++) {
+
+			scalar.result[i].set(result[i].getLane(lane));
+
+		}
+
+	}
+
+	//set the inputs of one lane from numbers, with bit i of a and b going to a[i] and b[i]
+	//a long only has 64 bits, so on a wider ALU a[i] and b[i] from 64 up are set to 0
+	public void setLane(int lane, int op, boolean negate, long aValue, long bValue) {
+
+		for(int i = 0; i < 3; i++) {
+
+			aluOp[i].setLane(lane, (op >>> i & 1) != 0);
+
+		}
+		bNegate.setLane(lane, negate);
+		for(int i = 0; i < x; i++) {
+
+			a[i].setLane(lane, i < 64 && (aValue >>> i & 1L) != 0);
+			b[i].setLane(lane, i < 64 && (bValue >>> i & 1L) != 0);
+
+		}
+
+	}
+
+	//get the result of one lane as a number, with result[i] as bit i
+	public long getResult(int lane) {
+
+		long value = 0L;
+		for(int i = 0; i < x && i < 64; i++) {
+
+			if(result[i].getLane(lane)) {
+
+				value |= 1L << i;
+
+			}
+
+		}
+		return value;
+
+	}
+	
+}
@@ -0,0 +1,96 @@
+//Purpose: represents one bit of the ALU in 64 lanes at once, using the same logic
+//		   as ALUElement on SlicedWires
+
+public class SlicedALUElement {
+
+	//inputs
+	public SlicedWire[] aluOp;
+	public SlicedWire bInvert;
+	public SlicedWire a, b;
+	public SlicedWire carryIn;
+	public SlicedWire less;
+
+	//mux
+	private SlicedMUX8by1 mux;
+
+	//outputs
+	public SlicedWire result;
+	public SlicedWire addResult;
+	public SlicedWire carryOut;
+
+	public SlicedALUElement() {
+
+		//inputs
+		aluOp = new SlicedWire[3];
+		for(int i = 0; i < 3; i++) {
+
+			aluOp[i] = new SlicedWire();
+
+		}
+		bInvert = new SlicedWire();
+		a = new SlicedWire();
+		b = new SlicedWire();
+		carryIn = new SlicedWire();
+		less = new SlicedWire();
+
+		//mux
+		mux = new SlicedMUX8by1();
+
+		//outputs
+		result = new SlicedWire();
+		addResult = new SlicedWire();
+		carryOut = new SlicedWire();
+
+	}
+
+	//execute the first pass of the SlicedALUElement
+	public void execute_pass1() {
+		
+		//setting control bits for the mux to match aluOp
+		mux.control[0].set(aluOp[0].get());
+		mux.control[1].set(aluOp[1].get());
+		mux.control[2].set(aluOp[2].get());
+		
+		long a = this.a.get();
+		long b = this.b.get();
+		long bx = b ^ bInvert.get();
+		long c = carryIn.get();
+
+		//set the first input of the mux to a and b
+		mux.in[0].set(a & b);
+		//set the second input of the mux to a or b
+		mux.in[1].set(a | b);
+		//set the third input of the mux to a plus b plus carryIn (using sum of products)
+		mux.in[2].set((~a & ~bx & c) | 
+					  (~a & bx & ~c) | 
+					  (a & ~bx & ~c) | 
+					  (a & bx & c));
+		//set the fifth input of the mux to a xor b
+		mux.in[4].set((a & ~b) | (~a & b));
+		//set the sixth through eight inputs of the mux to 0 since aluOp will never be 5, 6, or 7
+		mux.in[5].set(0L);
+		mux.in[6].set(0L);
+		mux.in[7].set(0L);
+		
+		//set addResult to a plus b plus carryIn (just copy from mux[2] since mux[2] IS the add result)
+		addResult.set(mux.in[2].get());
+		//calculate and set carryout using sum of products
+		carryOut.set((~a & bx & c) | 
+					 (a & ~bx & c) | 
+					 (a & bx & ~c) | 
+					 (a & bx & c));
+		
+	}
+
+	//execute the second pass of the SlicedALUElement
+	public void execute_pass2() {
+		
+		//set the fourth input of the mux to less
+		mux.in[3].set(less.get());
+		//execute the mux and set result to the result of the mux
+		mux.execute();
+		result.set(mux.out.get());
+		
+	}
+
+}
@@ -0,0 +1,54 @@
+//Purpose: represents 64 8 by 1 MUXes side by side, one per lane, evaluated together
+//		   with bitwise operations on SlicedWires
+
+public class SlicedMUX8by1 {
+
+	//inputs
+	public SlicedWire[] control;
+	public SlicedWire[] in;
+
+	//output
+	public SlicedWire out;
+
+	public SlicedMUX8by1() {
+
+		//inputs
+		control = new SlicedWire[3];
+		for(int i = 0; i < 3; i++) {
+
+			control[i] = new SlicedWire();
+
+		}
+
+		in = new SlicedWire[8];
+		for(int i = 0; i < 8; i++) {
+
+			in[i] = new SlicedWire();
+
+		}
+
+		//output
+		out = new SlicedWire();
+
+	}
+
+	//execute the mux in every lane
+	public void execute() {
+
+		long c0 = control[0].get();
+		long c1 = control[1].get();
+		long c2 = control[2].get();
+
+		//the same sum of products as MUX8by1, with && as &, || as | and ! as ~
+		out.set((~c0 & ~c1 & ~c2 & in[0].get()) | 
+				(c0 & ~c1 & ~c2 & in[1].get()) | 
+				(~c0 & c1 & ~c2 & in[2].get()) | 
+				(c0 & c1 & ~c2 & in[3].get()) | 
+				(~c0 & ~c1 & c2 & in[4].get()) | 
+				(c0 & ~c1 & c2 & in[5].get()) | 
+				(~c0 & c1 & c2 & in[6].get()) | 
+				(c0 & c1 & c2 & in[7].get()));
+		
+	}
+	
+}
@@ -0,0 +1,38 @@
+//Purpose: represents 64 wires in the bit-sliced ALU, one per lane, where bit i of
+//		   the value is the wire in lane i (0 is false and 1 is true)
+
+public class SlicedWire {
+
+	long value;
+
+	public void set(long value) {
+		this.value = value;
+	}
+
+	public long get() {
+		return value;
+	}
+
+	//set the wire in one lane
+	public void setLane(int lane, boolean bit) {
+		if(bit) {
+
+			value |= 1L << lane;
+
+		} else {
+
+			value &= ~(1L << lane);
+
+		}
+	}
+
+	//get the wire in one lane
+	public boolean getLane(int lane) {
+		return (value >>> lane & 1L) != 0;
+	}
+
+	public SlicedWire(){
+		this.value = 0L;
+	}
+
+}